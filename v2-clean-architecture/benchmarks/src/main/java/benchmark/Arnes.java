@@ -0,0 +1,115 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Arnés mínimo de medición (calentamiento + rondas medidas), al estilo de JMH
+ * pero sin dependencias: el proyecto no tiene pom/gradle donde declarar JMH.
+ *
+ * Cada caso se mide en rondas; antes de cada ronda se llama a la preparación
+ * (no se cronometra) y luego se cronometra el trabajo que ésta devuelve.
+ * Se informa la mejor ronda y la mediana, en nanosegundos por operación.
+ */
+final class Arnes {
+
+    /** Una fila de resultados: suite, caso, tamaño del dataset y tiempos. */
+    static final class Resultado {
+        final String suite;
+        final String caso;
+        final long parametro;
+        final double mejorNs;
+        final double medianaNs;
+
+        Resultado(String suite, String caso, long parametro, double mejorNs, double medianaNs) {
+            this.suite = suite;
+            this.caso = caso;
+            this.parametro = parametro;
+            this.mejorNs = mejorNs;
+            this.medianaNs = medianaNs;
+        }
+
+        String clave() {
+            return suite + " " + caso + " " + parametro;
+        }
+    }
+
+    // Evita que el JIT elimine el trabajo medido
+    private static long sumidero;
+
+    private final int rondasCalentamiento;
+    private final int rondasMedicion;
+    private final List<Resultado> resultados = new ArrayList<>();
+
+    Arnes(int rondasCalentamiento, int rondasMedicion) {
+        this.rondasCalentamiento = rondasCalentamiento;
+        this.rondasMedicion = rondasMedicion;
+    }
+
+    static void consumir(long valor) {
+        sumidero += valor;
+    }
+
+    static void consumir(double valor) {
+        sumidero += (long) valor;
+    }
+
+    static void consumir(Object valor) {
+        if (valor != null) sumidero += valor.hashCode();
+    }
+
+    /**
+     * Mide un caso sin preparación por ronda.
+     */
+    Resultado medir(String suite, String caso, long parametro, int operaciones, Runnable trabajo) {
+        return medir(suite, caso, parametro, operaciones, () -> trabajo);
+    }
+
+    /**
+     * Mide un caso: preparacion.get() arma los datos de la ronda (no cuenta)
+     * y devuelve el trabajo a cronometrar, que debe hacer 'operaciones' operaciones.
+     */
+    Resultado medir(String suite, String caso, long parametro, int operaciones, Supplier<Runnable> preparacion) {
+        return medir(suite, caso, parametro, operaciones, preparacion, rondasCalentamiento, rondasMedicion);
+    }
+
+    /**
+     * Igual que el anterior, con rondas propias (para casos muy lentos, ej. 1M pedidos).
+     */
+    Resultado medir(String suite, String caso, long parametro, int operaciones, Supplier<Runnable> preparacion,
+                    int calentamiento, int medicion) {
+        for (int i = 0; i < calentamiento; i++) {
+            preparacion.get().run();
+        }
+
+        long[] tiempos = new long[Math.max(1, medicion)];
+        for (int i = 0; i < tiempos.length; i++) {
+            Runnable trabajo = preparacion.get();
+            long t0 = System.nanoTime();
+            trabajo.run();
+            tiempos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(tiempos);
+
+        Resultado r = new Resultado(suite, caso, parametro,
+                (double) tiempos[0] / operaciones,
+                (double) tiempos[tiempos.length / 2] / operaciones);
+        resultados.add(r);
+        System.out.printf("%-14s %-30s %10d %16.1f %16.1f%n", suite, caso, parametro, r.mejorNs, r.medianaNs);
+        return r;
+    }
+
+    List<Resultado> getResultados() {
+        return resultados;
+    }
+
+    static void imprimirEncabezado() {
+        System.out.printf("%-14s %-30s %10s %16s %16s%n", "suite", "caso", "parametro", "mejor ns/op", "mediana ns/op");
+    }
+
+    static void terminar() {
+        if (sumidero == 42) System.out.println();
+    }
+}
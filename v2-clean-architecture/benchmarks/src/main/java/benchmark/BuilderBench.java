@@ -0,0 +1,79 @@
+package benchmark;
+
+import java.util.Random;
+
+import negocio.abstractas.EstrategiaPrecio;
+import negocio.modelo.Pizza;
+import negocio.patrones.builder.DirectorConstructorPizza;
+import negocio.patrones.builder.PizzaPersonalizadaBuilder;
+import negocio.patrones.builder.PlantillaPizza;
+import negocio.patrones.strategy.PrecioEstandar;
+
+/**
+ * Armado de pizzas con PizzaPersonalizadaBuilder (como lo hace ServicioPedidos
+ * al tomar un pedido: base + hasta 4 ingredientes + hasta 2 condimentos).
+ *
+ * Pizzas de la casa: pedir una plantilla tal cual (pizza compartida y
+ * precio guardado) contra armar la misma receta y calcular su precio.
+ *
+ * Uso: java -cp <clases> benchmark.BuilderBench
+ */
+public class BuilderBench {
+
+    private static final int OPERACIONES = 500_000;
+    private static final int RECETAS = 1024;
+
+    public static void main(String[] args) {
+        Arnes arnes = new Arnes(5, 5);
+        Arnes.imprimirEncabezado();
+        ejecutar(arnes, SuiteBenchmarks.esRapido(args));
+        Arnes.terminar();
+    }
+
+    static void ejecutar(Arnes arnes, boolean rapido) {
+        // Recetas pre-generadas: el Random no entra en la medición
+        Pizza[] recetas = DatosSinteticos.pizzas(RECETAS, new Random(DatosSinteticos.SEMILLA).nextLong());
+
+        arnes.medir("builder", "PizzaPersonalizada.build", RECETAS, OPERACIONES, () -> {
+            for (int i = 0; i < OPERACIONES; i++) {
+                Pizza r = recetas[i & (RECETAS - 1)];
+                PizzaPersonalizadaBuilder b = new PizzaPersonalizadaBuilder();
+                b.conMasa(r.getMasa()).conSalsa(r.getSalsa()).conQueso(r.getQueso()).conTipoOrilla(r.getTipoOrilla());
+                for (String ing : r.getIngredientes()) b.agregarIngrediente(ing);
+                for (String con : r.getCondimentos()) b.agregarCondimento(con);
+                Arnes.consumir(b.build());
+            }
+        });
+
+        medirPlantillas(arnes);
+    }
+
+    private static void medirPlantillas(Arnes arnes) {
+        EstrategiaPrecio estrategia = new PrecioEstandar();
+        String[] nombres = DirectorConstructorPizza.nombresPlantillas().toArray(new String[0]);
+        Pizza[] recetas = new Pizza[nombres.length];
+        for (int i = 0; i < nombres.length; i++) recetas[i] = DirectorConstructorPizza.pizzaDeLaCasa(nombres[i]);
+
+        arnes.medir("builder", "plantilla.armarYCotizar", nombres.length, OPERACIONES, () -> {
+            long suma = 0;
+            for (int i = 0; i < OPERACIONES; i++) {
+                Pizza r = recetas[i % recetas.length];
+                PizzaPersonalizadaBuilder b = new PizzaPersonalizadaBuilder();
+                b.conMasa(r.getMasa()).conSalsa(r.getSalsa()).conQueso(r.getQueso()).conTipoOrilla(r.getTipoOrilla());
+                for (String ing : r.getIngredientes()) b.agregarIngrediente(ing);
+                for (String con : r.getCondimentos()) b.agregarCondimento(con);
+                suma += estrategia.calcularTotalCentavos(b.build());
+            }
+            Arnes.consumir(suma);
+        });
+        arnes.medir("builder", "plantilla.pedir", nombres.length, OPERACIONES, () -> {
+            long suma = 0;
+            for (int i = 0; i < OPERACIONES; i++) {
+                PlantillaPizza p = DirectorConstructorPizza.plantilla(nombres[i % nombres.length]);
+                Arnes.consumir(p.getPizza());
+                suma += p.precioCentavos(estrategia);
+            }
+            Arnes.consumir(suma);
+        });
+    }
+}
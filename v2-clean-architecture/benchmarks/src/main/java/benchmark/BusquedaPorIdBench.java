@@ -0,0 +1,77 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import negocio.modelo.Pedido;
+import negocio.modelo.Pizza;
+import negocio.servicios.IndicePedidos;
+
+/**
+ * Compara la búsqueda por id original (recorrido lineal del ArrayList)
+ * contra el índice de direccionamiento abierto de GestorPedidos.
+ *
+ * Uso: java -cp <clases> benchmark.BusquedaPorIdBench [--rapido]
+ */
+public class BusquedaPorIdBench {
+
+    private static final int BUSQUEDAS = 200_000;
+
+    public static void main(String[] args) {
+        Arnes arnes = new Arnes(5, 5);
+        Arnes.imprimirEncabezado();
+        ejecutar(arnes, SuiteBenchmarks.esRapido(args));
+        Arnes.terminar();
+    }
+
+    static void ejecutar(Arnes arnes, boolean rapido) {
+        int[] tamanos = rapido ? new int[]{1_000, 10_000} : new int[]{1_000, 10_000, 50_000};
+
+        for (int n : tamanos) {
+            List<Pedido> lista = new ArrayList<>(n);
+            IndicePedidos indice = new IndicePedidos();
+            for (int id = 1; id <= n; id++) {
+                Pedido p = new Pedido(new Pizza(), 100.0);
+                p.setId(id);
+                lista.add(p);
+                indice.guardar(id, p);
+            }
+
+            // Mismos ids aleatorios para ambas variantes
+            Random rnd = new Random(DatosSinteticos.SEMILLA);
+            int[] ids = new int[BUSQUEDAS];
+            for (int i = 0; i < ids.length; i++) ids[i] = 1 + rnd.nextInt(n);
+
+            // Con listas grandes el recorrido lineal es muy lento: se mide con menos búsquedas
+            int busquedasLineales = Math.max(1_000, Math.min(BUSQUEDAS, 200_000_000 / n));
+
+            arnes.medir("busquedaId", "lineal", n, busquedasLineales,
+                    () -> buscarLineal(lista, ids, busquedasLineales));
+            arnes.medir("busquedaId", "indice", n, BUSQUEDAS, () -> buscarEnIndice(indice, ids));
+        }
+    }
+
+    /** Mismo algoritmo que tenía GestorPedidos.buscarPorId antes del índice. */
+    private static void buscarLineal(List<Pedido> pedidos, int[] ids, int cantidad) {
+        long suma = 0;
+        for (int i = 0; i < cantidad; i++) {
+            int id = ids[i];
+            for (Pedido p : pedidos) {
+                if (p.getId() == id) {
+                    suma += p.getId();
+                    break;
+                }
+            }
+        }
+        Arnes.consumir(suma);
+    }
+
+    private static void buscarEnIndice(IndicePedidos indice, int[] ids) {
+        long suma = 0;
+        for (int id : ids) {
+            suma += indice.buscar(id).getId();
+        }
+        Arnes.consumir(suma);
+    }
+}
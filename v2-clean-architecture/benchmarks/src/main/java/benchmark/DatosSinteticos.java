@@ -0,0 +1,133 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import negocio.abstractas.CodigoEstado;
+import negocio.modelo.Pedido;
+import negocio.modelo.Pizza;
+import negocio.patrones.state.Estados;
+
+/**
+ * Datos de prueba reproducibles: mismas opciones que ofrece la pantalla de
+ * toma de pedidos y una semilla fija, así dos corridas miden exactamente
+ * los mismos pedidos.
+ */
+final class DatosSinteticos {
+
+    static final long SEMILLA = 20240601L;
+
+    static final String[] MASAS = {"Masa Tradicional", "Masa Delgada", "Masa Integral", "Sin Gluten", "Rellena"};
+    static final String[] SALSAS = {"Salsa de Tomate Clásica", "Salsa Blanca/Bechamel", "Salsa BBQ", "Sin Salsa"};
+    static final String[] QUESOS = {"Mozzarella", "Queso Vegano", "Doble Queso", "Sin Queso"};
+    static final String[] ORILLAS = {"Orilla Tradicional", "Orilla Rellena de Queso", "Orilla con Ajo y Parmesano"};
+    static final String[] INGREDIENTES = {
+        "Pepperoni", "Champiñones", "Pimientos", "Cebolla", "Aceitunas",
+        "Jamón", "Piña", "Tocino", "Salchicha", "Extra Queso"
+    };
+    static final String[] CONDIMENTOS = {
+        "Orégano", "Hojuelas de Chile", "Parmesano en Polvo", "Aceite de Oliva Extra",
+        "Sal", "Pimienta Negra", "Albahaca Fresca", "Ajo en Polvo"
+    };
+
+    private DatosSinteticos() {}
+
+    static Pizza pizza(Random rnd) {
+        Pizza p = new Pizza();
+        p.setMasa(elegir(rnd, MASAS));
+        p.setSalsa(elegir(rnd, SALSAS));
+        p.setQueso(elegir(rnd, QUESOS));
+        p.setTipoOrilla(elegir(rnd, ORILLAS));
+        int ingredientes = rnd.nextInt(5);
+        for (int i = 0; i < ingredientes; i++) p.agregarIngrediente(elegir(rnd, INGREDIENTES));
+        int condimentos = rnd.nextInt(3);
+        for (int i = 0; i < condimentos; i++) p.agregarCondimento(elegir(rnd, CONDIMENTOS));
+        return p;
+    }
+
+    static Pizza[] pizzas(int n, long semilla) {
+        Random rnd = new Random(semilla);
+        Pizza[] arr = new Pizza[n];
+        for (int i = 0; i < n; i++) arr[i] = pizza(rnd);
+        return arr;
+    }
+
+    /**
+     * Pedidos con ids 1..n en estados variados (la mayoría ya entregados,
+     * como en un historial real).
+     */
+    static List<Pedido> pedidos(int n, long semilla) {
+        Random rnd = new Random(semilla);
+        List<Pedido> lista = new ArrayList<>(n);
+        for (int id = 1; id <= n; id++) {
+            Pedido p = new Pedido(pizza(rnd), 100.0 + 15.0 * rnd.nextInt(5));
+            p.setId(id);
+            p.restaurarEstado(Estados.de(estadoAleatorio(rnd)));
+            lista.add(p);
+        }
+        return lista;
+    }
+
+    /**
+     * Escribe una bitácora pedidos.txt con el mismo formato que generaba la v1.
+     */
+    static void escribirLogPedidos(File archivo, int n, long semilla) throws IOException {
+        Random rnd = new Random(semilla);
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(archivo)))) {
+            for (int id = 1; id <= n; id++) {
+                Pizza p = pizza(rnd);
+                w.println("=== PEDIDO " + numeroPedido(id) + " ===");
+                w.println("Fecha: 2024-06-01 12:00:00");
+                w.println("Masa: " + p.getMasa());
+                w.println("Salsa: " + p.getSalsa());
+                w.println("Queso: " + p.getQueso());
+                w.println("Orilla: " + p.getTipoOrilla());
+                w.println("Ingredientes: " + String.join(", ", p.getIngredientes()));
+                w.println("Condimentos: " + String.join(", ", p.getCondimentos()));
+                w.println(String.format("Total: $%.2f", 100.0 + 15.0 * p.getIngredientes().size()));
+                w.println("Estado: " + estadoAleatorio(rnd));
+                w.println("=============================\n");
+            }
+        }
+    }
+
+    static String numeroPedido(int id) {
+        return String.format("PED%04d", id);
+    }
+
+    /** Carpeta temporal vacía para los archivos de datos de una corrida. */
+    static File carpetaTemporal(String prefijo) throws IOException {
+        File dir = File.createTempFile(prefijo, "");
+        if (!dir.delete() || !dir.mkdirs()) {
+            throw new IOException("No se pudo crear " + dir);
+        }
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    static void borrarContenido(File dir) {
+        File[] archivos = dir.listFiles();
+        if (archivos == null) return;
+        for (File f : archivos) {
+            if (f.isDirectory()) borrarContenido(f);
+            f.delete();
+        }
+    }
+
+    private static CodigoEstado estadoAleatorio(Random rnd) {
+        int r = rnd.nextInt(100);
+        if (r < 70) return CodigoEstado.ENTREGADO;
+        if (r < 75) return CodigoEstado.CANCELADO;
+        return CodigoEstado.porOrdinal(r % 4); // RECIBIDO..TERMINADO
+    }
+
+    private static String elegir(Random rnd, String[] opciones) {
+        return opciones[rnd.nextInt(opciones.length)];
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import java.util.Random;
+
+import negocio.modelo.Pizza;
+import negocio.patrones.strategy.PrecioPromocion;
+import negocio.servicios.GestorPedidos;
+
+/**
+ * GestorPedidos: alta (registrarPedido), búsqueda por id, avance de estado
+ * y re-precio de todos los pedidos abiertos.
+ * Cada ronda usa un gestor aislado (no el Singleton) para que las rondas no
+ * se acumulen entre sí.
+ *
+ * Uso: java -cp <clases> benchmark.GestorPedidosBench [--rapido]
+ */
+public class GestorPedidosBench {
+
+    private static final int BUSQUEDAS = 200_000;
+
+    public static void main(String[] args) {
+        Arnes arnes = new Arnes(5, 5);
+        Arnes.imprimirEncabezado();
+        ejecutar(arnes, SuiteBenchmarks.esRapido(args));
+        Arnes.terminar();
+    }
+
+    static void ejecutar(Arnes arnes, boolean rapido) {
+        int[] tamanos = rapido ? new int[]{1_000, 10_000} : new int[]{1_000, 100_000};
+
+        for (int n : tamanos) {
+            Pizza[] pizzas = DatosSinteticos.pizzas(n, DatosSinteticos.SEMILLA);
+
+            arnes.medir("gestor", "registrarPedido", n, n, () -> {
+                GestorPedidos gestor = GestorPedidos.crearInstanciaAislada();
+                return () -> {
+                    for (Pizza p : pizzas) Arnes.consumir(gestor.registrarPedido(p).getId());
+                };
+            });
+
+            GestorPedidos lleno = llenar(pizzas);
+            Random rnd = new Random(DatosSinteticos.SEMILLA);
+            int[] ids = new int[BUSQUEDAS];
+            for (int i = 0; i < ids.length; i++) ids[i] = 1 + rnd.nextInt(n);
+
+            arnes.medir("gestor", "buscarPorId", n, BUSQUEDAS, () -> {
+                long suma = 0;
+                for (int id : ids) suma += lleno.buscarPorId(id).getId();
+                Arnes.consumir(suma);
+            });
+
+            arnes.medir("gestor", "avanzarEstado", n, n, () -> {
+                GestorPedidos gestor = llenar(pizzas);
+                return () -> {
+                    for (int id = 1; id <= n; id++) gestor.avanzarEstado(id);
+                };
+            });
+
+            // Todos abiertos (recién dados de alta) y con precio estándar: todos cambian
+            PrecioPromocion promocion = new PrecioPromocion();
+            arnes.medir("gestor", "repreciarActivos", n, n, () -> {
+                GestorPedidos gestor = llenar(pizzas);
+                return () -> Arnes.consumir(gestor.repreciarActivos(promocion).size());
+            });
+        }
+    }
+
+    private static GestorPedidos llenar(Pizza[] pizzas) {
+        GestorPedidos gestor = GestorPedidos.crearInstanciaAislada();
+        for (Pizza p : pizzas) gestor.registrarPedido(p);
+        return gestor;
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import persistencia.ConfiguracionPersistencia;
+import persistencia.LectorLogMapeado;
+import persistencia.RepositorioTickets;
+
+/**
+ * Bitácora pedidos.txt grande (500 MB por defecto): buscar el último pedido
+ * en cada modo de lectura y recorrer todos los bloques (flujo del lector
+ * mapeado contra BufferedReader línea por línea).
+ *
+ * Uso: java -cp <clases> benchmark.LogGrandeBench [--rapido] [--mb 500]
+ */
+public class LogGrandeBench {
+
+    public static void main(String[] args) throws IOException {
+        Arnes arnes = new Arnes(1, 3);
+        Arnes.imprimirEncabezado();
+        int mb = SuiteBenchmarks.esRapido(args) ? 50 : 500;
+        for (int i = 0; i < args.length - 1; i++) {
+            if ("--mb".equals(args[i])) mb = Integer.parseInt(args[i + 1]);
+        }
+        ejecutar(arnes, mb);
+        Arnes.terminar();
+    }
+
+    static void ejecutar(Arnes arnes, int mb) throws IOException {
+        File dir = DatosSinteticos.carpetaTemporal("bench-log-grande");
+        String anterior = System.getProperty(ConfiguracionPersistencia.PROP_DIRECTORIO);
+        System.setProperty(ConfiguracionPersistencia.PROP_DIRECTORIO, dir.getPath());
+        try {
+            File log = new File(dir, "pedidos.txt");
+            int pedidos = pedidosPara(dir, mb * 1024L * 1024L);
+            DatosSinteticos.escribirLogPedidos(log, pedidos, DatosSinteticos.SEMILLA);
+            System.out.printf("# bitácora de %d MB, %d pedidos%n", log.length() >> 20, pedidos);
+
+            RepositorioTickets repo = new RepositorioTickets();
+            String ultimo = DatosSinteticos.numeroPedido(pedidos);
+
+            for (ConfiguracionPersistencia.LecturaLog modo : ConfiguracionPersistencia.LecturaLog.values()) {
+                System.setProperty(ConfiguracionPersistencia.PROP_LECTURA_LOG, modo.name());
+                arnes.medir("log-grande", "buscarUltimo." + modo.name().toLowerCase(), mb, 1,
+                        () -> () -> Arnes.consumir(repo.leerDatosDelLog(ultimo)), 1, 3);
+            }
+            System.clearProperty(ConfiguracionPersistencia.PROP_LECTURA_LOG);
+
+            arnes.medir("log-grande", "recorrerBloques.mapeado", mb, 1, () -> () -> {
+                try (Stream<LectorLogMapeado.BloqueLog> s = new LectorLogMapeado(log).bloques()) {
+                    Arnes.consumir(s.count());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, 1, 3);
+
+            arnes.medir("log-grande", "recorrerBloques.lineas", mb, 1, () -> () -> {
+                long bloques = 0;
+                try (BufferedReader br = new BufferedReader(new FileReader(log))) {
+                    String linea;
+                    while ((linea = br.readLine()) != null) {
+                        if (linea.startsWith("=== PEDIDO ")) bloques++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                Arnes.consumir(bloques);
+            }, 1, 3);
+        } finally {
+            DatosSinteticos.borrarContenido(dir);
+            dir.delete();
+            if (anterior == null) System.clearProperty(ConfiguracionPersistencia.PROP_DIRECTORIO);
+            else System.setProperty(ConfiguracionPersistencia.PROP_DIRECTORIO, anterior);
+        }
+    }
+
+    /** Cuántos pedidos hacen falta para llegar al tamaño pedido (con una muestra de 1000). */
+    private static int pedidosPara(File dir, long bytes) throws IOException {
+        File muestra = new File(dir, "muestra.txt");
+        DatosSinteticos.escribirLogPedidos(muestra, 1000, DatosSinteticos.SEMILLA);
+        double porPedido = muestra.length() / 1000.0;
+        muestra.delete();
+        return (int) Math.max(1, bytes / porPedido);
+    }
+}
@@ -0,0 +1,153 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import negocio.abstractas.EstrategiaPrecio;
+import negocio.modelo.Dinero;
+import negocio.modelo.LotePizzas;
+import negocio.modelo.Pizza;
+import negocio.patrones.strategy.PrecioConCache;
+import negocio.patrones.strategy.PrecioEstandar;
+import negocio.patrones.strategy.PrecioPromocion;
+import negocio.patrones.strategy.TarifaPrecios;
+
+/**
+ * Estrategias de precio: calcularTotal sobre un lote fijo de pizzas variadas
+ * (con la tarifa original y con una carta completa: precio por cada opción,
+ * combos y promociones; también detrás de la caché de precios), el precio
+ * en lote (una por una contra por columnas/en paralelo), y leer/escribir montos como en el almacén
+ * (centavos contra double).
+ *
+ * Uso: java -cp <clases> benchmark.PreciosBench
+ */
+public class PreciosBench {
+
+    private static final int PIZZAS = 1024;         // potencia de 2: índice con máscara
+    private static final int OPERACIONES = 1_000_000;
+
+    public static void main(String[] args) {
+        Arnes arnes = new Arnes(5, 5);
+        Arnes.imprimirEncabezado();
+        ejecutar(arnes, SuiteBenchmarks.esRapido(args));
+        Arnes.terminar();
+    }
+
+    static void ejecutar(Arnes arnes, boolean rapido) {
+        Pizza[] pizzas = DatosSinteticos.pizzas(PIZZAS, DatosSinteticos.SEMILLA);
+
+        medir(arnes, "PrecioEstandar", new PrecioEstandar(), pizzas);
+        medir(arnes, "PrecioPromocion", new PrecioPromocion(), pizzas);
+
+        TarifaPrecios.publicar(cartaCompleta());
+        try {
+            medir(arnes, "PrecioEstandar.carta", new PrecioEstandar(), pizzas);
+
+            PrecioConCache cache = new PrecioConCache(new PrecioEstandar(), 4096);
+            medir(arnes, "PrecioConCache.carta", cache, pizzas);
+            System.out.printf("# caché de precios: %d aciertos, %d fallos (%.1f%%)%n",
+                    cache.getAciertos(), cache.getFallos(), 100.0 * cache.getTasaAciertos());
+
+            medirLote(arnes, rapido ? 10_000 : 200_000);
+        } finally {
+            TarifaPrecios.publicar(TarifaPrecios.porDefecto());
+        }
+        medirTextoMontos(arnes);
+    }
+
+    private static void medir(Arnes arnes, String caso, EstrategiaPrecio estrategia, Pizza[] pizzas) {
+        arnes.medir("precios", caso + ".calcularTotal", PIZZAS, OPERACIONES, () -> {
+            double suma = 0;
+            for (int i = 0; i < OPERACIONES; i++) {
+                suma += estrategia.calcularTotal(pizzas[i & (PIZZAS - 1)]);
+            }
+            Arnes.consumir(suma);
+        });
+
+        arnes.medir("precios", caso + ".calcularTotalCentavos", PIZZAS, OPERACIONES, () -> {
+            long suma = 0;
+            for (int i = 0; i < OPERACIONES; i++) {
+                suma += estrategia.calcularTotalCentavos(pizzas[i & (PIZZAS - 1)]);
+            }
+            Arnes.consumir(suma);
+        });
+    }
+
+    /**
+     * Un lote grande: calcularTotalCentavos pizza por pizza contra
+     * calcularTotalesCentavos (por columnas y, con más de un núcleo, en paralelo).
+     */
+    private static void medirLote(Arnes arnes, int n) {
+        List<Pizza> lista = Arrays.asList(DatosSinteticos.pizzas(n, DatosSinteticos.SEMILLA + 1));
+        LotePizzas lote = LotePizzas.de(lista);
+        EstrategiaPrecio estrategia = new PrecioEstandar();
+
+        arnes.medir("precios", "lote.unaPorUna", n, n, () -> {
+            long suma = 0;
+            for (int i = 0; i < n; i++) suma += estrategia.calcularTotalCentavos(lote.getPizza(i));
+            Arnes.consumir(suma);
+        });
+        arnes.medir("precios", "lote.calcularTotales", n, n, () -> {
+            long[] totales = estrategia.calcularTotalesCentavos(lote);
+            Arnes.consumir(totales[n - 1]);
+        });
+        arnes.medir("precios", "lote.armarYCalcular", n, n, () -> {
+            Arnes.consumir(estrategia.calcularTotalesCentavos(LotePizzas.de(lista))[0]);
+        });
+    }
+
+    /** Un precio para cada opción de DatosSinteticos, dos combos y una promoción siempre vigente. */
+    private static TarifaPrecios.Compilador cartaCompleta() {
+        TarifaPrecios.Compilador c = TarifaPrecios.porDefecto();
+        long extra = Dinero.deUnidades(5);
+        for (String m : DatosSinteticos.MASAS) c.masa(m, extra);
+        for (String s : DatosSinteticos.SALSAS) c.salsa(s, extra);
+        for (String q : DatosSinteticos.QUESOS) c.queso(q, extra);
+        for (String o : DatosSinteticos.ORILLAS) c.orilla(o, extra);
+        for (String i : DatosSinteticos.INGREDIENTES) c.ingrediente(i, Dinero.deUnidades(18));
+        for (String k : DatosSinteticos.CONDIMENTOS) c.condimento(k, Dinero.deUnidades(2));
+        c.combo("Hawaiana", Dinero.deUnidades(10), List.of("Jamón", "Piña"));
+        c.combo("Carnes", Dinero.deUnidades(15), List.of("Pepperoni", "Tocino", "Salchicha"));
+        c.promocion("Siempre", 10, Long.MIN_VALUE, Long.MAX_VALUE, -1, -1, TarifaPrecios.TODOS_LOS_DIAS);
+        return c;
+    }
+
+    private static void medirTextoMontos(Arnes arnes) {
+        int n = PIZZAS;
+        String[] comoDouble = new String[n];
+        String[] comoCentavos = new String[n];
+        for (int i = 0; i < n; i++) {
+            long centavos = 10_000 + 1_500L * (i % 7) + (i % 100);
+            comoDouble[i] = Double.toString(Dinero.aDouble(centavos));
+            comoCentavos[i] = Dinero.escribir(new StringBuilder(), centavos).toString();
+        }
+        int ops = OPERACIONES / 4;
+
+        arnes.medir("precios", "monto.parsearDouble", n, ops, () -> {
+            double suma = 0;
+            for (int i = 0; i < ops; i++) suma += Double.parseDouble(comoDouble[i & (n - 1)]);
+            Arnes.consumir(suma);
+        });
+        arnes.medir("precios", "monto.parsearCentavos", n, ops, () -> {
+            long suma = 0;
+            for (int i = 0; i < ops; i++) suma += Dinero.parsear(comoCentavos[i & (n - 1)]);
+            Arnes.consumir(suma);
+        });
+        arnes.medir("precios", "monto.escribirDouble", n, ops, () -> {
+            StringBuilder sb = new StringBuilder(64);
+            for (int i = 0; i < ops; i++) {
+                sb.setLength(0);
+                sb.append(100.0 + (i & 1023) / 100.0);
+            }
+            Arnes.consumir(sb.length());
+        });
+        arnes.medir("precios", "monto.escribirCentavos", n, ops, () -> {
+            StringBuilder sb = new StringBuilder(64);
+            for (int i = 0; i < ops; i++) {
+                sb.setLength(0);
+                Dinero.escribir(sb, 10_000 + (i & 1023));
+            }
+            Arnes.consumir(sb.length());
+        });
+    }
+}
@@ -0,0 +1,147 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import negocio.modelo.Pedido;
+import persistencia.ConfiguracionPersistencia;
+import persistencia.EventoPedido;
+import persistencia.RepositorioPedidos;
+import persistencia.RepositorioPedidosBinario;
+import persistencia.RepositorioPedidosTxt;
+
+/**
+ * Repositorio de pedidos: guardar y cargar el historial completo
+ * (1k / 100k / 1M pedidos) en una carpeta temporal, en formato de texto
+ * y en formato binario.
+ *
+ * También compara la memoria de la carga de texto con y sin
+ * TextosCanonicos: bytes creados por pedido al leer y bytes que quedan
+ * ocupados por pedido una vez cargados.
+ *
+ * Uso: java -Xmx2g -cp <clases> benchmark.RepositorioPedidosBench [--rapido]
+ */
+public class RepositorioPedidosBench {
+
+    public static void main(String[] args) throws IOException {
+        Arnes arnes = new Arnes(3, 5);
+        Arnes.imprimirEncabezado();
+        ejecutar(arnes, SuiteBenchmarks.esRapido(args));
+        Arnes.terminar();
+    }
+
+    static void ejecutar(Arnes arnes, boolean rapido) throws IOException {
+        int[] tamanos = rapido ? new int[]{1_000, 100_000} : new int[]{1_000, 100_000, 1_000_000};
+
+        File dir = DatosSinteticos.carpetaTemporal("bench-repo");
+        String anterior = System.getProperty(ConfiguracionPersistencia.PROP_DIRECTORIO);
+        System.setProperty(ConfiguracionPersistencia.PROP_DIRECTORIO, dir.getPath());
+        try {
+            for (int n : tamanos) {
+                List<Pedido> pedidos = DatosSinteticos.pedidos(n, DatosSinteticos.SEMILLA);
+
+                // El millón tarda segundos por operación: menos rondas
+                int calentamiento = n >= 1_000_000 ? 1 : 3;
+                int medicion = n >= 1_000_000 ? 3 : 5;
+
+                // Sin sufijo = texto (formato original, el de la línea base)
+                medirFormato(arnes, "", new RepositorioPedidosTxt(), pedidos, n, calentamiento, medicion);
+
+                // Misma carga con la lectura en paralelo apagada (el repositorio lee la opción al crearse)
+                System.setProperty(ConfiguracionPersistencia.PROP_CARGA_PARALELA, "false");
+                RepositorioPedidosTxt secuencial = new RepositorioPedidosTxt();
+                System.clearProperty(ConfiguracionPersistencia.PROP_CARGA_PARALELA);
+                arnes.medir("repositorio", "cargarPedidos.secuencial", n, 1,
+                        () -> () -> Arnes.consumir(secuencial.cargarPedidos().size()), calentamiento, medicion);
+
+                medirCanonizacion(arnes, n, calentamiento, medicion);
+
+                medirFormato(arnes, ".binario", new RepositorioPedidosBinario(), pedidos, n, calentamiento, medicion);
+
+                System.out.printf("# %d pedidos: texto %d KB, binario %d KB%n", n,
+                        new File(dir, "pedidos_store.snapshot").length() >> 10,
+                        new File(dir, "pedidos_store.bin").length() >> 10);
+
+                DatosSinteticos.borrarContenido(dir);
+            }
+
+            medirFsync(arnes, rapido ? 50 : 200);
+        } finally {
+            DatosSinteticos.borrarContenido(dir);
+            dir.delete();
+            if (anterior == null) System.clearProperty(ConfiguracionPersistencia.PROP_DIRECTORIO);
+            else System.setProperty(ConfiguracionPersistencia.PROP_DIRECTORIO, anterior);
+        }
+    }
+
+    /**
+     * Costo de anexar eventos de a uno (como el escritor en modo síncrono)
+     * con cada política de fsync.
+     */
+    private static void medirFsync(Arnes arnes, int eventos) {
+        List<Pedido> pedidos = DatosSinteticos.pedidos(eventos, DatosSinteticos.SEMILLA);
+        for (ConfiguracionPersistencia.PoliticaFsync politica : ConfiguracionPersistencia.PoliticaFsync.values()) {
+            System.setProperty(ConfiguracionPersistencia.PROP_FSYNC, politica.name());
+            RepositorioPedidosTxt repo = new RepositorioPedidosTxt();
+            System.clearProperty(ConfiguracionPersistencia.PROP_FSYNC);
+
+            arnes.medir("repositorio", "anexarEvento.fsync-" + politica.name().toLowerCase(), eventos, eventos,
+                    () -> {
+                        repo.guardarPedidos(List.of());
+                        return () -> {
+                            for (Pedido p : pedidos) repo.anexarEvento(EventoPedido.alta(p));
+                        };
+                    }, 1, 3);
+        }
+    }
+
+    /**
+     * Carga secuencial (así todo lo crea este hilo) con la opción de
+     * canonizar textos prendida y apagada; imprime tiempos y memoria.
+     */
+    private static void medirCanonizacion(Arnes arnes, int n, int calentamiento, int medicion) {
+        System.setProperty(ConfiguracionPersistencia.PROP_CARGA_PARALELA, "false");
+        RepositorioPedidosTxt canonico = new RepositorioPedidosTxt();
+        System.setProperty(ConfiguracionPersistencia.PROP_CANONIZAR_TEXTOS, "false");
+        RepositorioPedidosTxt sinCanonizar = new RepositorioPedidosTxt();
+        System.clearProperty(ConfiguracionPersistencia.PROP_CANONIZAR_TEXTOS);
+        System.clearProperty(ConfiguracionPersistencia.PROP_CARGA_PARALELA);
+
+        arnes.medir("repositorio", "cargarPedidos.sinCanonizar", n, 1,
+                () -> () -> Arnes.consumir(sinCanonizar.cargarPedidos().size()), calentamiento, medicion);
+
+        long[] con = memoriaDeCarga(canonico, n);
+        long[] sin = memoriaDeCarga(sinCanonizar, n);
+        System.out.printf("# %d pedidos, memoria por pedido: creados %d B (canónicos) vs %d B (sin canonizar),"
+                + " retenidos %d B vs %d B%n", n, con[0], sin[0], con[1], sin[1]);
+    }
+
+    /** {bytes creados por pedido durante la carga, bytes retenidos por pedido después}. */
+    private static long[] memoriaDeCarga(RepositorioPedidosTxt repo, int n) {
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long antes = memoriaUsada();
+        long creadosAntes = hilos.getCurrentThreadAllocatedBytes();
+        List<Pedido> cargados = repo.cargarPedidos();
+        long creados = hilos.getCurrentThreadAllocatedBytes() - creadosAntes;
+        long retenidos = memoriaUsada() - antes;
+        Arnes.consumir(cargados.size());
+        return new long[]{creados / n, retenidos / n};
+    }
+
+    private static long memoriaUsada() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void medirFormato(Arnes arnes, String sufijo, RepositorioPedidos repo, List<Pedido> pedidos,
+                                     int n, int calentamiento, int medicion) {
+        arnes.medir("repositorio", "guardarPedidos" + sufijo, n, 1,
+                () -> () -> repo.guardarPedidos(pedidos), calentamiento, medicion);
+
+        arnes.medir("repositorio", "cargarPedidos" + sufijo, n, 1,
+                () -> () -> Arnes.consumir(repo.cargarPedidos().size()), calentamiento, medicion);
+    }
+}
@@ -0,0 +1,121 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Corre todas las suites y, opcionalmente, guarda los resultados o los
+ * compara contra una línea base (benchmarks/resultados/linea-base.txt).
+ *
+ * Uso:
+ *   java -Xmx2g -cp <clases> benchmark.SuiteBenchmarks [--rapido]
+ *        [--guardar archivo] [--comparar archivo] [--umbral 0.25]
+ *
+ * --rapido   omite los tamaños más grandes (1M pedidos, etc.)
+ * --comparar marca como REGRESIÓN todo caso cuya mejor ronda sea más lenta
+ *            que la de la línea base en más del umbral (25% por defecto).
+ *            Sale con código 1 si hay alguna.
+ */
+public class SuiteBenchmarks {
+
+    public static void main(String[] args) throws IOException {
+        Locale.setDefault(Locale.ROOT);
+        boolean rapido = esRapido(args);
+        String guardar = opcion(args, "--guardar");
+        String comparar = opcion(args, "--comparar");
+        String umbral = opcion(args, "--umbral");
+
+        Arnes arnes = new Arnes(5, 5);
+        Arnes.imprimirEncabezado();
+        GestorPedidosBench.ejecutar(arnes, rapido);
+        BusquedaPorIdBench.ejecutar(arnes, rapido);
+        PreciosBench.ejecutar(arnes, rapido);
+        BuilderBench.ejecutar(arnes, rapido);
+        RepositorioPedidosBench.ejecutar(arnes, rapido);
+        TicketsLogBench.ejecutar(arnes, rapido);
+        Arnes.terminar();
+
+        if (guardar != null) {
+            guardar(new File(guardar), arnes.getResultados());
+            System.out.println("Resultados guardados en " + guardar);
+        }
+        if (comparar != null) {
+            double tolerancia = (umbral != null) ? Double.parseDouble(umbral) : 0.25;
+            int regresiones = comparar(new File(comparar), arnes.getResultados(), tolerancia);
+            if (regresiones > 0) System.exit(1);
+        }
+    }
+
+    static boolean esRapido(String[] args) {
+        for (String a : args) {
+            if ("--rapido".equals(a)) return true;
+        }
+        return false;
+    }
+
+    private static String opcion(String[] args, String nombre) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (nombre.equals(args[i])) return args[i + 1];
+        }
+        return null;
+    }
+
+    /**
+     * Formato: una línea por caso, "suite caso parametro mejorNs medianaNs".
+     * Las líneas con # son comentarios.
+     */
+    private static void guardar(File archivo, List<Arnes.Resultado> resultados) throws IOException {
+        File padre = archivo.getAbsoluteFile().getParentFile();
+        if (padre != null) padre.mkdirs();
+
+        try (PrintWriter w = new PrintWriter(new FileWriter(archivo))) {
+            w.println("# suite caso parametro mejor_ns_op mediana_ns_op");
+            w.println("# java " + System.getProperty("java.version") + ", "
+                    + System.getProperty("os.name") + ", "
+                    + Runtime.getRuntime().availableProcessors() + " CPU, "
+                    + (Runtime.getRuntime().maxMemory() >> 20) + " MB heap");
+            for (Arnes.Resultado r : resultados) {
+                w.printf("%s %s %d %.1f %.1f%n", r.suite, r.caso, r.parametro, r.mejorNs, r.medianaNs);
+            }
+        }
+    }
+
+    private static int comparar(File archivo, List<Arnes.Resultado> resultados, double tolerancia) throws IOException {
+        Map<String, Double> base = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                if (linea.isBlank() || linea.startsWith("#")) continue;
+                String[] p = linea.trim().split("\\s+");
+                if (p.length < 4) continue;
+                base.put(p[0] + " " + p[1] + " " + p[2], Double.parseDouble(p[3]));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-52s %14s %14s %9s%n", "caso", "base ns/op", "actual ns/op", "cambio");
+        int regresiones = 0;
+        for (Arnes.Resultado r : resultados) {
+            Double antes = base.get(r.clave());
+            if (antes == null) {
+                System.out.printf("%-52s %14s %14.1f %9s%n", r.clave(), "-", r.mejorNs, "nuevo");
+                continue;
+            }
+            double cambio = (r.mejorNs - antes) / antes;
+            boolean regresion = cambio > tolerancia;
+            if (regresion) regresiones++;
+            System.out.printf("%-52s %14.1f %14.1f %+8.0f%%%s%n", r.clave(), antes, r.mejorNs, cambio * 100,
+                    regresion ? "  REGRESIÓN" : "");
+        }
+        System.out.println(regresiones == 0 ? "Sin regresiones." : regresiones + " regresión(es).");
+        return regresiones;
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import persistencia.ConfiguracionPersistencia;
+import persistencia.RepositorioTickets;
+
+/**
+ * RepositorioTickets.leerDatosDelLog: buscar un pedido en la bitácora
+ * pedidos.txt (lo que hace la pantalla de detalle al abrirse), en cada modo
+ * de lectura: índice lateral, archivo mapeado y recorrido línea por línea.
+ *
+ * Uso: java -cp <clases> benchmark.TicketsLogBench [--rapido]
+ */
+public class TicketsLogBench {
+
+    public static void main(String[] args) throws IOException {
+        Arnes arnes = new Arnes(3, 5);
+        Arnes.imprimirEncabezado();
+        ejecutar(arnes, SuiteBenchmarks.esRapido(args));
+        Arnes.terminar();
+    }
+
+    static void ejecutar(Arnes arnes, boolean rapido) throws IOException {
+        int[] tamanos = rapido ? new int[]{1_000, 10_000} : new int[]{1_000, 10_000, 100_000};
+
+        File dir = DatosSinteticos.carpetaTemporal("bench-log");
+        String anterior = System.getProperty(ConfiguracionPersistencia.PROP_DIRECTORIO);
+        System.setProperty(ConfiguracionPersistencia.PROP_DIRECTORIO, dir.getPath());
+        try {
+            RepositorioTickets repo = new RepositorioTickets();
+            for (int n : tamanos) {
+                DatosSinteticos.escribirLogPedidos(new File(dir, "pedidos.txt"), n, DatosSinteticos.SEMILLA);
+
+                // Cada búsqueda recorre en promedio medio archivo: menos búsquedas cuanto más grande
+                int busquedas = Math.max(10, 2_000_000 / n);
+                Random rnd = new Random(DatosSinteticos.SEMILLA);
+                String[] numeros = new String[busquedas];
+                for (int i = 0; i < busquedas; i++) numeros[i] = DatosSinteticos.numeroPedido(1 + rnd.nextInt(n));
+
+                // "leerDatosDelLog" es el modo por defecto (índice); los otros, para comparar
+                for (ConfiguracionPersistencia.LecturaLog modo : ConfiguracionPersistencia.LecturaLog.values()) {
+                    System.setProperty(ConfiguracionPersistencia.PROP_LECTURA_LOG, modo.name());
+                    String caso = (modo == ConfiguracionPersistencia.LecturaLog.INDICE)
+                            ? "leerDatosDelLog" : "leerDatosDelLog." + modo.name().toLowerCase();
+                    arnes.medir("tickets", caso, n, busquedas, () -> {
+                        for (String num : numeros) Arnes.consumir(repo.leerDatosDelLog(num));
+                    });
+                }
+                System.clearProperty(ConfiguracionPersistencia.PROP_LECTURA_LOG);
+            }
+        } finally {
+            DatosSinteticos.borrarContenido(dir);
+            dir.delete();
+            if (anterior == null) System.clearProperty(ConfiguracionPersistencia.PROP_DIRECTORIO);
+            else System.setProperty(ConfiguracionPersistencia.PROP_DIRECTORIO, anterior);
+        }
+    }
+}
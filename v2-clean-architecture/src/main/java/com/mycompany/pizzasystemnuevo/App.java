@@ -7,6 +7,8 @@ import javafx.stage.Stage;
 import com.pizzasystem.vistas.LoginView;
 import com.pizzasystem.controladores.LoginController;
 
+import negocio.servicios.ServicioPedidos;
+
 public class App extends Application {
 
     @Override
@@ -24,6 +26,12 @@ public class App extends Application {
         loginView.mostrar();
     }
 
+    @Override
+    public void stop() {
+        // Escribir los cambios que sigan en la cola antes de salir
+        ServicioPedidos.cerrarPersistencia();
+    }
+
     public static void main(String[] args) {
         launch();
     }
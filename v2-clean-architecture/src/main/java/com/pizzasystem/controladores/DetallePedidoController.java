@@ -247,7 +247,7 @@ public class DetallePedidoController {
         }
         view.actualizarEstadoVisual(estado);
         
-        boolean bloquear = "CANCELADO".equalsIgnoreCase(estado) || "ENTREGADO".equalsIgnoreCase(estado);
+        boolean bloquear = pedido != null && pedido.esFinalizado();
         view.btnEnviarAHorno.setDisable(bloquear);
         view.btnCancelarPedido.setDisable(bloquear);
     }
@@ -8,6 +8,7 @@ import javafx.stage.Stage;
 import com.pizzasystem.vistas.EstadoPedidoClienteView;
 
 import negocio.abstractas.ObservadorPedido;
+import negocio.abstractas.Suscripcion;
 import negocio.modelo.Pedido;
 import negocio.servicios.ServicioPedidos;
 
@@ -30,6 +31,9 @@ public class EstadoPedidoClienteController implements ObservadorPedido {
     // Referencia al modelo (Sujeto Observable)
     private Pedido pedido;
 
+    // El pedido nos guarda con referencia débil; esta suscripción es la que cerramos al salir
+    private Suscripcion suscripcion;
+
     // Fachada de servicios
     private final ServicioPedidos servicioPedidos = new ServicioPedidos();
 
@@ -81,8 +85,9 @@ public class EstadoPedidoClienteController implements ObservadorPedido {
     private void cerrarLimpio() {
         activo = false;
 
-        if (pedido != null) {
-            pedido.quitarObservador(this);
+        if (suscripcion != null) {
+            suscripcion.close();
+            suscripcion = null;
         }
 
         if (view != null) {
@@ -109,7 +114,7 @@ public class EstadoPedidoClienteController implements ObservadorPedido {
         }
 
         // ✅ SUSCRIPCIÓN AL PATRÓN OBSERVER
-        pedido.agregarObservador(this);
+        suscripcion = pedido.suscribir(this);
     }
 
     /**
@@ -6,6 +6,7 @@ import com.pizzasystem.vistas.TomaPedidoView;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import javafx.util.Duration;
@@ -13,7 +14,16 @@ import javafx.util.Duration;
 // YA NO HAY java.io.* (File, BufferedReader, etc.)
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import negocio.abstractas.CodigoEstado;
+import negocio.abstractas.ObservadorCambiosPedidos;
+import negocio.modelo.Dinero;
 import negocio.modelo.Pedido;
 import negocio.servicios.ServicioPedidos;
 
@@ -25,9 +35,41 @@ public class PanelControlPedidosController {
     // Conexión única con los datos
     private final ServicioPedidos servicioPedidos = new ServicioPedidos();
 
-    // Auto refresco
+    // Reconciliación de respaldo: lo normal es actualizar por el feed de cambios
+    private static final int SEGUNDOS_RECONCILIACION = 30;
     private Timeline autoRefresh;
 
+    // Feed de cambios del dominio. Los avisos pueden llegar desde cualquier hilo:
+    // se juntan aquí (el último cambio de cada pedido gana) y se aplican en
+    // UN solo pulso en el hilo FX.
+    private final Map<Integer, Pedido> cambiosPendientes = new ConcurrentHashMap<>();
+    private final AtomicBoolean pulsoProgramado = new AtomicBoolean(false);
+    private volatile boolean enVivo = false;
+
+    private final ObservadorCambiosPedidos oyenteCambios = new ObservadorCambiosPedidos() {
+        @Override
+        public void pedidoRegistrado(Pedido pedido) {
+            encolarCambio(pedido);
+        }
+
+        @Override
+        public void estadoCambiado(Pedido pedido, CodigoEstado estadoAnterior) {
+            encolarCambio(pedido);
+        }
+
+        @Override
+        public void totalCambiado(Pedido pedido, long totalAnteriorCentavos) {
+            encolarCambio(pedido);
+        }
+    };
+
+    // Dónde está hoy cada pedido en el tablero (solo se usa en el hilo FX)
+    private final Map<Integer, ListView<String>> columnaDe = new HashMap<>();
+    private final Map<Integer, String> filaDe = new HashMap<>();
+    private final Map<Integer, Long> totalDe = new HashMap<>();
+    // Versión de la cubeta con la que se llenó cada columna por última vez
+    private final Map<ListView<String>, Long> versionDe = new HashMap<>();
+
     public void setView(PanelControlPedidosView view) {
         this.view = view;
         this.stage = view.getStage();
@@ -38,7 +80,7 @@ public class PanelControlPedidosController {
         // Carga inicial desde OBJETOS
         cargarPedidosDesdeServicio();
 
-        // Iniciar auto refresh
+        // Suscribirse al feed de cambios (+ reconciliación de respaldo)
         iniciarAutoRefresh();
 
         if (this.stage != null) {
@@ -47,7 +89,7 @@ public class PanelControlPedidosController {
         
         // Actualizamos estado inicial del footer
         setStatus("Sistema listo - " + ahora());
-        setActivos(servicioPedidos.listarPedidos().size());
+        setActivos(servicioPedidos.contarPedidosActivos());
     }
 
     // =========================================================
@@ -114,54 +156,212 @@ public class PanelControlPedidosController {
     // =========================================================
     // Tablero desde OBJETOS (Fuente de Verdad: Servicio)
     // =========================================================
+    /**
+     * Carga completa del tablero. Se usa al abrir y como reconciliación de
+     * respaldo: cada columna recuerda la versión de su cubeta con la que se
+     * llenó y solo se vuelve a leer (y a formatear) si esa versión cambió.
+     * Una columna al día, como la de ENTREGADO con todo el día, no cuesta nada.
+     */
     private void cargarPedidosDesdeServicio() {
 
-        // Limpiar listas
-        view.listaRecibido.getItems().clear();
-        view.listaPreparando.getItems().clear();
-        view.listaHorneando.getItems().clear();
-        view.listaTerminado.getItems().clear();
-        view.listaEntregado.getItems().clear();
-
-        int activos = 0;
-        var listaPedidos = servicioPedidos.listarPedidos();
+        // Cada columna se pide directo a su cubeta por estado:
+        // no se recorre ni se compara el historial completo.
+        // Los CANCELADO se muestran en la columna de RECIBIDO (con etiqueta);
+        // las dos versiones solo suben, así que su suma sirve de versión.
+        long versionRecibido = servicioPedidos.versionPedidosPorEstado(CodigoEstado.RECIBIDO)
+                + servicioPedidos.versionPedidosPorEstado(CodigoEstado.CANCELADO);
+        if (!estaAlDia(view.listaRecibido, versionRecibido)) {
+            llenarColumna(view.listaRecibido, versionRecibido, mezclarPorId(
+                    servicioPedidos.listarPedidosPorEstado(CodigoEstado.RECIBIDO),
+                    servicioPedidos.listarPedidosPorEstado(CodigoEstado.CANCELADO)));
+        }
+        reconciliarColumna(view.listaPreparando, CodigoEstado.PREPARANDO);
+        reconciliarColumna(view.listaHorneando, CodigoEstado.HORNEANDO);
+        reconciliarColumna(view.listaTerminado, CodigoEstado.TERMINADO);
+        reconciliarColumna(view.listaEntregado, CodigoEstado.ENTREGADO);
 
-        for (Pedido p : listaPedidos) {
+        setActivos(servicioPedidos.contarPedidosActivos());
+        setStatus("Actualizado: " + ahora());
+    }
 
-            String estado = safeEstado(p);
-            String id4 = String.format("%04d", p.getId());
+    private void reconciliarColumna(ListView<String> lista, CodigoEstado estado) {
+        // La versión se lee ANTES que la lista: si algo cambia en el medio,
+        // la próxima reconciliación ya no coincide y la vuelve a leer.
+        long version = servicioPedidos.versionPedidosPorEstado(estado);
+        if (estaAlDia(lista, version)) return;
+        llenarColumna(lista, version, servicioPedidos.listarPedidosPorEstado(estado));
+    }
 
-            String textoBase = String.format(
-                    "Pedido #%s - Pizza personalizada\nTotal: $%.2f",
-                    id4,
-                    p.getTotal()
-            );
+    private boolean estaAlDia(ListView<String> lista, long version) {
+        Long vista = versionDe.get(lista);
+        return vista != null && vista == version;
+    }
 
-            String display = "CANCELADO".equalsIgnoreCase(estado)
-                    ? "[CANCELADO] " + textoBase
-                    : textoBase;
+    private void llenarColumna(ListView<String> lista, long version, List<Pedido> pedidos) {
+        List<String> filas = new ArrayList<>(pedidos.size());
+        for (Pedido p : pedidos) {
+            filas.add(filaPara(p));
+        }
 
-            // Lógica de conteo de activos
-            if (!estado.equalsIgnoreCase("ENTREGADO") && !estado.equalsIgnoreCase("CANCELADO")) {
-                activos++;
+        // Se olvidan solo las filas de esta columna (las demás siguen al día)
+        for (String fila : lista.getItems()) {
+            int id = idDeFila(fila);
+            if (columnaDe.get(id) == lista) {
+                columnaDe.remove(id);
+                filaDe.remove(id);
+                totalDe.remove(id);
             }
+        }
+        for (int i = 0; i < pedidos.size(); i++) {
+            recordarFila(pedidos.get(i), lista, filas.get(i));
+        }
 
-            // Distribuir en columnas
-            switch (estado.toUpperCase()) {
-                case "RECIBIDO":   view.listaRecibido.getItems().add(display); break;
-                case "PREPARANDO": view.listaPreparando.getItems().add(display); break;
-                case "HORNEANDO":  view.listaHorneando.getItems().add(display); break;
-                case "TERMINADO":  view.listaTerminado.getItems().add(display); break;
-                case "ENTREGADO":  view.listaEntregado.getItems().add(display); break;
-                case "CANCELADO":  view.listaRecibido.getItems().add(display); break; 
-                default:           view.listaRecibido.getItems().add(display);
-            }
+        // Las filas reutilizadas son las mismas instancias: equals no recorre texto
+        if (!lista.getItems().equals(filas)) {
+            lista.getItems().setAll(filas);
         }
-        
-        setActivos(activos);
+        versionDe.put(lista, version);
+    }
+
+    /**
+     * La fila ya mostrada si el pedido no cambió de total ni se canceló;
+     * solo se formatea de nuevo la de un pedido nuevo o cambiado.
+     */
+    private String filaPara(Pedido p) {
+        String vieja = filaDe.get(p.getId());
+        Long total = totalDe.get(p.getId());
+        if (vieja != null && total != null && total == p.getTotalCentavos()
+                && vieja.startsWith("[CANCELADO]") == p.esCancelado()) {
+            return vieja;
+        }
+        return formatearFila(p);
+    }
+
+    private void recordarFila(Pedido p, ListView<String> lista, String fila) {
+        columnaDe.put(p.getId(), lista);
+        filaDe.put(p.getId(), fila);
+        totalDe.put(p.getId(), p.getTotalCentavos());
+    }
+
+    // =========================================================
+    // Actualización incremental (feed de cambios)
+    // =========================================================
+
+    /**
+     * Llamado desde cualquier hilo. Varios cambios seguidos se agrupan
+     * en un solo Platform.runLater.
+     */
+    private void encolarCambio(Pedido pedido) {
+        if (!enVivo || pedido == null) return;
+
+        cambiosPendientes.put(pedido.getId(), pedido);
+        if (pulsoProgramado.compareAndSet(false, true)) {
+            Platform.runLater(this::aplicarCambiosPendientes);
+        }
+    }
+
+    private void aplicarCambiosPendientes() {
+        pulsoProgramado.set(false);
+        if (!enVivo) return;
+
+        for (Integer id : cambiosPendientes.keySet()) {
+            Pedido p = cambiosPendientes.remove(id);
+            if (p != null) moverFila(p);
+        }
+
+        setActivos(servicioPedidos.contarPedidosActivos());
         setStatus("Actualizado: " + ahora());
     }
 
+    /**
+     * Diferencia mínima: quita la fila de su columna anterior (si estaba)
+     * y la inserta en la nueva columna en su posición por id.
+     */
+    private void moverFila(Pedido p) {
+        int id = p.getId();
+        ListView<String> destino = columnaPara(p.getCodigoEstado());
+        String nueva = filaPara(p);
+
+        ListView<String> origen = columnaDe.get(id);
+        String vieja = filaDe.get(id);
+        if (origen == destino && nueva.equals(vieja)) return;
+
+        if (origen != null) {
+            int pos = posicionDe(origen.getItems(), id);
+            if (pos < origen.getItems().size() && origen.getItems().get(pos).equals(vieja)) {
+                origen.getItems().remove(pos);
+            } else {
+                origen.getItems().remove(vieja);
+            }
+        }
+
+        destino.getItems().add(posicionDe(destino.getItems(), id), nueva);
+        recordarFila(p, destino, nueva);
+    }
+
+    /**
+     * Búsqueda binaria: las columnas están ordenadas por id.
+     * Devuelve la posición de la fila con ese id o donde debería insertarse.
+     */
+    private int posicionDe(List<String> filas, int id) {
+        int bajo = 0, alto = filas.size();
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (idDeFila(filas.get(medio)) < id) bajo = medio + 1;
+            else alto = medio;
+        }
+        return bajo;
+    }
+
+    private int idDeFila(String fila) {
+        int i = fila.indexOf('#');
+        if (i < 0) return -1;
+        int id = 0;
+        for (int j = i + 1; j < fila.length() && Character.isDigit(fila.charAt(j)); j++) {
+            id = id * 10 + (fila.charAt(j) - '0');
+        }
+        return id;
+    }
+
+    private ListView<String> columnaPara(CodigoEstado estado) {
+        switch (estado) {
+            case PREPARANDO: return view.listaPreparando;
+            case HORNEANDO:  return view.listaHorneando;
+            case TERMINADO:  return view.listaTerminado;
+            case ENTREGADO:  return view.listaEntregado;
+            case CANCELADO:  return view.listaRecibido;
+            default:         return view.listaRecibido;
+        }
+    }
+
+    private String formatearFila(Pedido p) {
+        String id4 = String.format("%04d", p.getId());
+
+        String textoBase = String.format(
+                "Pedido #%s - Pizza personalizada\nTotal: %s",
+                id4,
+                Dinero.formatear(p.getTotalCentavos())
+        );
+
+        return p.esCancelado()
+                ? "[CANCELADO] " + textoBase
+                : textoBase;
+    }
+
+    /**
+     * Une dos listas ya ordenadas por id en una sola, también ordenada.
+     */
+    private List<Pedido> mezclarPorId(List<Pedido> a, List<Pedido> b) {
+        List<Pedido> resultado = new ArrayList<>(a.size() + b.size());
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            resultado.add(a.get(i).getId() <= b.get(j).getId() ? a.get(i++) : b.get(j++));
+        }
+        while (i < a.size()) resultado.add(a.get(i++));
+        while (j < b.size()) resultado.add(b.get(j++));
+        return resultado;
+    }
+
     // =========================================================
     // Abrir detalle (Delegación limpia)
     // =========================================================
@@ -201,15 +401,6 @@ public class PanelControlPedidosController {
     // Helpers
     // =========================================================
 
-    private String safeEstado(Pedido p) {
-        try {
-            String e = p.getNombreEstado();
-            return (e == null || e.isBlank()) ? "RECIBIDO" : e.trim();
-        } catch (Exception ex) {
-            return "RECIBIDO";
-        }
-    }
-
     private String ahora() {
         return LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
     }
@@ -242,15 +433,24 @@ public class PanelControlPedidosController {
     // =========================================================
     private void iniciarAutoRefresh() {
         detenerAutoRefresh();
-        // Refrescar cada 2 segundos para ver cambios de otros usuarios/hilos
+
+        // Los cambios llegan por el feed del dominio (altas y transiciones)
+        enVivo = true;
+        servicioPedidos.suscribirCambios(oyenteCambios);
+
+        // Respaldo: cada tanto se reconcilia contra las cubetas por si se perdió algo
         autoRefresh = new Timeline(
-                new KeyFrame(Duration.seconds(2), e -> cargarPedidosDesdeServicio())
+                new KeyFrame(Duration.seconds(SEGUNDOS_RECONCILIACION), e -> cargarPedidosDesdeServicio())
         );
         autoRefresh.setCycleCount(Timeline.INDEFINITE);
         autoRefresh.play();
     }
 
     private void detenerAutoRefresh() {
+        enVivo = false;
+        servicioPedidos.desuscribirCambios(oyenteCambios);
+        cambiosPendientes.clear();
+
         if (autoRefresh != null) {
             autoRefresh.stop();
             autoRefresh = null;
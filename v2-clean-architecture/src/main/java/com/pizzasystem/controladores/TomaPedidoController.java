@@ -12,11 +12,10 @@ import java.util.List;
 
 // Modelo y Patrones
 import negocio.abstractas.PizzaBuilder;
+import negocio.modelo.Dinero;
 import negocio.modelo.Pedido;
 import negocio.modelo.Pizza;
 import negocio.patrones.builder.PizzaPersonalizadaBuilder;
-import negocio.patrones.strategy.PrecioEstandar;
-import negocio.patrones.strategy.PrecioPromocion;
 import negocio.servicios.ServicioPedidos;
 
 public class TomaPedidoController {
@@ -37,6 +36,9 @@ public class TomaPedidoController {
         view.btnConfirmar.setOnAction(e -> confirmarPedido());
         view.btnGestionar.setOnAction(e -> abrirPanelControl());
 
+        // Pizzas de la casa: se piden tal cual, con la pizza y el precio de la plantilla
+        view.setPizzasDeLaCasa(servicioPedidos.listarPizzasDeLaCasa());
+
         // Al cambiar cualquier selección de pizza, recalcular preview
         view.setOnCambioSeleccion(this::recalcularTotalPreview);
 
@@ -62,6 +64,13 @@ public class TomaPedidoController {
     private void recalcularTotalPreview() {
         if (view == null) return;
 
+        String deLaCasa = view.getPizzaCasaSeleccionada();
+        if (deLaCasa != null) {
+            long total = servicioPedidos.cotizarDeLaCasaCentavos(deLaCasa, estrategiaPromoActiva());
+            view.actualizarTotal(Dinero.aDouble(total));
+            return;
+        }
+
         // Validación básica visual
         if (view.getMasaSeleccionada() == null
                 || view.getSalsaSeleccionada() == null
@@ -88,12 +97,10 @@ public class TomaPedidoController {
 
         Pizza pizzaTemp = builder.build();
 
-        // Calculamos precio temporal
-        double total = estrategiaPromoActiva()
-                ? new PrecioPromocion().calcularTotal(pizzaTemp)
-                : new PrecioEstandar().calcularTotal(pizzaTemp);
+        // Calculamos precio temporal (con la caché de precios del servicio)
+        long total = servicioPedidos.cotizarCentavos(pizzaTemp, estrategiaPromoActiva());
 
-        view.actualizarTotal(total);
+        view.actualizarTotal(Dinero.aDouble(total));
     }
 
     /**
@@ -103,31 +110,37 @@ public class TomaPedidoController {
      */
     private void confirmarPedido() {
 
+        String deLaCasa = view.getPizzaCasaSeleccionada();
+
         // 1. Validación UI
-        if (view.getMasaSeleccionada() == null
+        if (deLaCasa == null && (view.getMasaSeleccionada() == null
                 || view.getSalsaSeleccionada() == null
                 || view.getQuesoSeleccionado() == null
-                || view.getOrillaSeleccionada() == null) {
+                || view.getOrillaSeleccionada() == null)) {
 
             mostrarAlerta("Error", "Selección incompleta", "Seleccione todos los elementos base.");
             return;
         }
 
-        List<String> ingredientes = new ArrayList<>(view.getIngredientesSeleccionados());
-        List<String> condimentos = new ArrayList<>(view.getCondimentosSeleccionados());
-
         // 2. Configurar Estrategia en el negocio
         servicioPedidos.cambiarEstrategiaPromocion(estrategiaPromoActiva());
 
         // 3. Crear Pedido (El Servicio guarda en memoria y en la "Base de Datos" principal)
-        Pedido pedido = servicioPedidos.crearPedidoDesdeDatosSimples(
-                view.getMasaSeleccionada(),
-                view.getSalsaSeleccionada(),
-                view.getQuesoSeleccionado(),
-                view.getOrillaSeleccionada(),
-                ingredientes,
-                condimentos
-        );
+        Pedido pedido;
+        if (deLaCasa != null) {
+            pedido = servicioPedidos.crearPedidoDeLaCasa(deLaCasa);
+        } else {
+            List<String> ingredientes = new ArrayList<>(view.getIngredientesSeleccionados());
+            List<String> condimentos = new ArrayList<>(view.getCondimentosSeleccionados());
+            pedido = servicioPedidos.crearPedidoDesdeDatosSimples(
+                    view.getMasaSeleccionada(),
+                    view.getSalsaSeleccionada(),
+                    view.getQuesoSeleccionado(),
+                    view.getOrillaSeleccionada(),
+                    ingredientes,
+                    condimentos
+            );
+        }
 
         String numeroPedido = String.format("PED%04d", pedido.getId());
 
@@ -135,6 +148,7 @@ public class TomaPedidoController {
         try {
             // Preparamos la lista de specs para imprimir en el ticket
             List<String> specsTicket = new ArrayList<>();
+            if (deLaCasa != null) specsTicket.add("Pizza de la casa: " + deLaCasa);
             specsTicket.add("Masa: " + pedido.getPizza().getMasa());
             specsTicket.add("Salsa: " + pedido.getPizza().getSalsa());
             specsTicket.add("Queso: " + pedido.getPizza().getQueso());
@@ -151,7 +165,7 @@ public class TomaPedidoController {
                     numeroPedido, 
                     pedido.getNombreEstado(), 
                     specsTicket, 
-                    String.format("$%.2f", pedido.getTotal())
+                    Dinero.formatear(pedido.getTotalCentavos())
             );
 
         } catch (Exception ex) {
@@ -164,7 +178,7 @@ public class TomaPedidoController {
         alert.setHeaderText("¡Pedido creado correctamente!");
         alert.setContentText(
                 "Número de pedido: " + numeroPedido + "\n"
-                        + String.format("Total: $%.2f", pedido.getTotal())
+                        + "Total: " + Dinero.formatear(pedido.getTotalCentavos())
                         + "\n\nEl pedido ha sido enviado a cocina."
         );
 
@@ -9,6 +9,8 @@ import javafx.stage.Stage;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.util.List;
+
 /**
  * Clase que gestiona la vista de Toma de Pedidos (Punto de Venta).
  * Vista "tonta": NO calcula precio. Solo muestra y captura selección.
@@ -20,6 +22,10 @@ public class TomaPedidoView {
     // ✅ Strategy selector (en NUEVO PEDIDO)
     public ComboBox<String> cmbEstrategiaPrecio;
 
+    // Pizza de la casa (plantilla) o "Personalizada"
+    public static final String PERSONALIZADA = "Personalizada";
+    public ComboBox<String> cmbPizzaCasa;
+
     // --- Componentes UI ---
 
     // Área Izquierda: Selección de base
@@ -32,6 +38,9 @@ public class TomaPedidoView {
     public ListView<CheckBox> lstIngredientes;
     public ListView<CheckBox> lstCondimentos;
 
+    // Se deshabilita al elegir una pizza de la casa
+    private VBox panelAñadidos;
+
     // Área Inferior: Totales y Botones
     public Label lblTotal;
     public Button btnConfirmar;
@@ -126,6 +135,7 @@ public class TomaPedidoView {
 
         VBox centerPanel = crearPanelAñadidos();
         centerPanel.setPrefWidth(400);
+        panelAñadidos = centerPanel;
 
         topRow.getChildren().addAll(leftPanel, centerPanel);
 
@@ -151,12 +161,14 @@ public class TomaPedidoView {
         Label tituloSeccion = new Label("Base de Pizza");
         tituloSeccion.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
 
+        VBox casaBox = crearSelector("Pizza de la Casa:", cmbPizzaCasa = new ComboBox<>());
+
         VBox masaBox = crearSelector("Tipo de Masa:", cmbMasa = new ComboBox<>());
         VBox salsaBox = crearSelector("Salsa Base:", cmbSalsa = new ComboBox<>());
         VBox quesoBox = crearSelector("Queso Principal:", cmbQueso = new ComboBox<>());
         VBox orillaBox = crearSelector("Tipo de Orilla:", cmbTipoOrilla = new ComboBox<>());
 
-        panel.getChildren().addAll(tituloSeccion, masaBox, salsaBox, quesoBox, orillaBox);
+        panel.getChildren().addAll(tituloSeccion, casaBox, masaBox, salsaBox, quesoBox, orillaBox);
         return panel;
     }
 
@@ -263,6 +275,10 @@ public class TomaPedidoView {
         cmbEstrategiaPrecio.setItems(FXCollections.observableArrayList("Estándar", "Promoción"));
         cmbEstrategiaPrecio.getSelectionModel().selectFirst();
 
+        // Las pizzas de la casa las pone el Controller (setPizzasDeLaCasa)
+        cmbPizzaCasa.setItems(FXCollections.observableArrayList(PERSONALIZADA));
+        cmbPizzaCasa.getSelectionModel().selectFirst();
+
         ObservableList<String> masas = FXCollections.observableArrayList(
                 "Masa Tradicional", "Masa Delgada", "Masa Integral", "Sin Gluten"
         );
@@ -335,6 +351,12 @@ public class TomaPedidoView {
         cmbQueso.valueProperty().addListener((obs, oldVal, newVal) -> dispararCambioSeleccion());
         cmbTipoOrilla.valueProperty().addListener((obs, oldVal, newVal) -> dispararCambioSeleccion());
 
+        // Con una pizza de la casa no se arma nada: se deshabilita lo demás
+        cmbPizzaCasa.valueProperty().addListener((obs, oldVal, newVal) -> {
+            setPersonalizacionHabilitada(getPizzaCasaSeleccionada() == null);
+            dispararCambioSeleccion();
+        });
+
         // ✅ estrategia también dispara recalculo
         if (cmbEstrategiaPrecio != null) {
             cmbEstrategiaPrecio.valueProperty().addListener((obs, oldVal, newVal) -> dispararCambioEstrategia());
@@ -371,6 +393,22 @@ public class TomaPedidoView {
         lblTotal.setText(String.format("$%.2f", total));
     }
 
+    private void setPersonalizacionHabilitada(boolean habilitada) {
+        cmbMasa.setDisable(!habilitada);
+        cmbSalsa.setDisable(!habilitada);
+        cmbQueso.setDisable(!habilitada);
+        cmbTipoOrilla.setDisable(!habilitada);
+        panelAñadidos.setDisable(!habilitada);
+    }
+
+    /** Llena el selector con las pizzas de la casa (después de "Personalizada"). */
+    public void setPizzasDeLaCasa(List<String> nombres) {
+        ObservableList<String> opciones = FXCollections.observableArrayList(PERSONALIZADA);
+        opciones.addAll(nombres);
+        cmbPizzaCasa.setItems(opciones);
+        cmbPizzaCasa.getSelectionModel().selectFirst();
+    }
+
     // --- Hook para el Controller ---
     public void setOnCambioSeleccion(Runnable r) {
         this.onCambioSeleccion = r;
@@ -388,6 +426,12 @@ public class TomaPedidoView {
     public String getQuesoSeleccionado() { return cmbQueso.getValue(); }
     public String getOrillaSeleccionada() { return cmbTipoOrilla.getValue(); }
 
+    /** Nombre de la pizza de la casa elegida, o null si es personalizada. */
+    public String getPizzaCasaSeleccionada() {
+        String valor = cmbPizzaCasa.getValue();
+        return (valor == null || PERSONALIZADA.equals(valor)) ? null : valor;
+    }
+
     // ✅ estrategia seleccionada
     public String getEstrategiaSeleccionada() {
         return (cmbEstrategiaPrecio == null) ? null : cmbEstrategiaPrecio.getValue();
@@ -445,6 +489,7 @@ public class TomaPedidoView {
      */
     public void limpiarSeleccion() {
         cmbEstrategiaPrecio.getSelectionModel().selectFirst();
+        cmbPizzaCasa.getSelectionModel().selectFirst();
 
         cmbMasa.getSelectionModel().selectFirst();
         cmbSalsa.getSelectionModel().selectFirst();
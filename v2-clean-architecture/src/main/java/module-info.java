@@ -1,7 +1,15 @@
 module com.mycompany.pizzasystemnuevo {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.sql;
 
     opens com.mycompany.pizzasystemnuevo to javafx.fxml;
     exports com.mycompany.pizzasystemnuevo;
+
+    // Formatos del almacén de pedidos (ver persistencia.ProveedorRepositorioPedidos)
+    uses persistencia.ProveedorRepositorioPedidos;
+    provides persistencia.ProveedorRepositorioPedidos with
+            persistencia.ProveedoresIncluidos.Txt,
+            persistencia.ProveedoresIncluidos.Binario,
+            persistencia.ProveedoresIncluidos.Jdbc;
 }
@@ -0,0 +1,50 @@
+package negocio.abstractas;
+
+/**
+ * Identidad de cada estado del pedido.
+ * Comparar estados es comparar enums (==) u ordinales, no cadenas.
+ * El orden de declaración sigue el ciclo de vida del pedido.
+ */
+public enum CodigoEstado {
+    RECIBIDO,
+    PREPARANDO,
+    HORNEANDO,
+    TERMINADO,
+    ENTREGADO,
+    CANCELADO;
+
+    private static final CodigoEstado[] VALORES = values();
+
+    /**
+     * ENTREGADO y CANCELADO son estados finales: ya no avanzan.
+     */
+    public boolean esFinal() {
+        return this == ENTREGADO || this == CANCELADO;
+    }
+
+    /**
+     * Convierte el nombre guardado en archivo ("PREPARANDO", " preparando ", ...)
+     * sin crear cadenas intermedias. Nombre desconocido o vacío = RECIBIDO.
+     */
+    public static CodigoEstado porNombre(String nombre) {
+        if (nombre == null) return RECIBIDO;
+
+        int inicio = 0;
+        int fin = nombre.length();
+        while (inicio < fin && Character.isWhitespace(nombre.charAt(inicio))) inicio++;
+        while (fin > inicio && Character.isWhitespace(nombre.charAt(fin - 1))) fin--;
+
+        int largo = fin - inicio;
+        for (CodigoEstado c : VALORES) {
+            String n = c.name();
+            if (n.length() == largo && nombre.regionMatches(true, inicio, n, 0, largo)) {
+                return c;
+            }
+        }
+        return RECIBIDO;
+    }
+
+    public static CodigoEstado porOrdinal(int ordinal) {
+        return VALORES[ordinal];
+    }
+}
@@ -14,4 +14,5 @@ import negocio.modelo.Pedido;
 public interface EstadoPedido {
     void avanzar(Pedido pedido);
     String getNombreEstado();
+    CodigoEstado getCodigo();
 }
@@ -4,12 +4,44 @@
  */
 package negocio.abstractas;
 
+import negocio.modelo.Dinero;
+import negocio.modelo.LotePizzas;
 import negocio.modelo.Pizza;
 
 /**
  *
  * @author ARTX
+ *
+ * Los precios se calculan en centavos (long): sin error de redondeo y sin
+ * crear objetos. calcularTotal queda para quien todavía usa double.
  */
 public interface EstrategiaPrecio {
-    double calcularTotal(Pizza pizza);
+
+    long calcularTotalCentavos(Pizza pizza);
+
+    default double calcularTotal(Pizza pizza) {
+        return Dinero.aDouble(calcularTotalCentavos(pizza));
+    }
+
+    /**
+     * Precios de muchas pizzas de una sola pasada (totales[i] = pizza i).
+     * Por defecto una por una; las estrategias por tabla recorren el lote
+     * por columnas y, si es grande, en paralelo.
+     */
+    default long[] calcularTotalesCentavos(LotePizzas lote) {
+        long[] totales = new long[lote.tamano()];
+        for (int i = 0; i < totales.length; i++) {
+            totales[i] = calcularTotalCentavos(lote.getPizza(i));
+        }
+        return totales;
+    }
+
+    /**
+     * Cambia cada vez que la misma pizza puede pasar a tener otro precio
+     * (nueva carta, promoción que empieza o termina). La usan las cachés de
+     * precios como parte de la clave. 0 = el precio depende solo de la pizza.
+     */
+    default long getVersion() {
+        return 0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package negocio.abstractas;
+
+import negocio.modelo.Pedido;
+
+/**
+ * Observador a nivel de GestorPedidos (no de un pedido en particular):
+ * recibe el "feed" de cambios de todos los pedidos.
+ * Lo usa el tablero de cocina para actualizarse por diferencias.
+ *
+ * Se puede llamar desde cualquier hilo.
+ */
+public interface ObservadorCambiosPedidos {
+
+    void pedidoRegistrado(Pedido pedido);
+
+    void estadoCambiado(Pedido pedido, CodigoEstado estadoAnterior);
+
+    /** El total cambió (re-precio de pedidos abiertos). Por defecto no hace nada. */
+    default void totalCambiado(Pedido pedido, long totalAnteriorCentavos) {
+    }
+}
@@ -32,4 +32,13 @@ public interface PizzaBuilder {
     PizzaBuilder conTipoOrilla(String tipoOrilla);
 
     Pizza build();
+
+    /**
+     * Vuelve a empezar con una pizza vacía (para reusar el mismo builder).
+     * Por defecto no se puede: un builder de un solo uso no necesita
+     * implementarlo, pero entonces el Director necesita uno nuevo por pizza.
+     */
+    default PizzaBuilder reiniciar() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " no se puede reiniciar");
+    }
 }
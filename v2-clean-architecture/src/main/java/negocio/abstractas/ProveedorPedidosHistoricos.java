@@ -0,0 +1,43 @@
+package negocio.abstractas;
+
+import negocio.modelo.Pedido;
+
+/**
+ * Acceso a pedidos que NO están en memoria (finalizados que quedaron en disco).
+ * GestorPedidos lo consulta cuando buscarPorId no encuentra el pedido entre
+ * los que tiene cargados.
+ */
+public interface ProveedorPedidosHistoricos {
+
+    /** El pedido guardado con ese id, o null si no está. */
+    Pedido buscarPorId(int id);
+
+    /** Id más alto guardado (0 si no hay ninguno): los ids nuevos van después. */
+    int getIdMaximo();
+
+    /**
+     * Consulta los proveedores en orden hasta que uno encuentra el pedido.
+     */
+    static ProveedorPedidosHistoricos encadenar(ProveedorPedidosHistoricos... proveedores) {
+        ProveedorPedidosHistoricos[] copia = proveedores.clone();
+        return new ProveedorPedidosHistoricos() {
+            @Override
+            public Pedido buscarPorId(int id) {
+                for (ProveedorPedidosHistoricos p : copia) {
+                    Pedido pedido = p.buscarPorId(id);
+                    if (pedido != null) return pedido;
+                }
+                return null;
+            }
+
+            @Override
+            public int getIdMaximo() {
+                int maximo = 0;
+                for (ProveedorPedidosHistoricos p : copia) {
+                    maximo = Math.max(maximo, p.getIdMaximo());
+                }
+                return maximo;
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package negocio.abstractas;
+
+/**
+ * Vínculo entre un observador y un pedido.
+ *
+ * El pedido guarda al observador con referencia débil: mientras quien se
+ * suscribe mantenga vivo al observador (la ventana abierta, un campo estático)
+ * recibe avisos; si deja de usarlo, el recolector lo libera y la suscripción
+ * se poda sola. close() la corta en el momento, sin esperar al recolector.
+ */
+public interface Suscripcion extends AutoCloseable {
+
+    /** Deja de recibir avisos. Se puede llamar varias veces. */
+    @Override
+    void close();
+
+    /** true mientras no se haya cerrado y el observador siga vivo. */
+    boolean estaActiva();
+}
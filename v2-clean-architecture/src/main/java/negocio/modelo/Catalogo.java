@@ -0,0 +1,79 @@
+package negocio.modelo;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nombres de masas, salsas, quesos, orillas, ingredientes y condimentos con
+ * un número chico cada uno. Pizza guarda esos números (un byte por opción
+ * base, un bit por topping) en vez de los textos.
+ *
+ * Los nombres se agregan solos la primera vez que aparecen (pantalla,
+ * archivo de pedidos) y nunca se quitan, así que un número no cambia de
+ * significado mientras corre el programa. En los archivos se siguen
+ * guardando los nombres, no los números.
+ *
+ * Es seguro entre hilos: buscar no bloquea y registrar se sincroniza.
+ */
+public final class Catalogo {
+
+    /** Opciones base: se guardan en un byte (0 = sin elegir). */
+    public static final Catalogo MASAS = new Catalogo("masas", 255);
+    public static final Catalogo SALSAS = new Catalogo("salsas", 255);
+    public static final Catalogo QUESOS = new Catalogo("quesos", 255);
+    public static final Catalogo ORILLAS = new Catalogo("orillas", 255);
+
+    /** Toppings: un bit de un long cada uno. */
+    public static final Catalogo INGREDIENTES = new Catalogo("ingredientes", Long.SIZE);
+    public static final Catalogo CONDIMENTOS = new Catalogo("condimentos", Long.SIZE);
+
+    private final String descripcion;
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    // Se escribe antes de publicar el id en el mapa; quien tiene un id ya ve su nombre
+    private final String[] nombres;
+    private int cantidad;
+
+    private Catalogo(String descripcion, int limite) {
+        this.descripcion = descripcion;
+        this.nombres = new String[limite];
+    }
+
+    /** Número del nombre, o -1 si todavía no está en el catálogo. */
+    public int buscar(String nombre) {
+        Integer id = ids.get(nombre);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Número del nombre; si es nuevo lo agrega.
+     * @return -1 si el catálogo ya está lleno.
+     */
+    public int registrar(String nombre) {
+        Integer id = ids.get(nombre);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(nombre);
+            if (id != null) return id;
+            if (cantidad == nombres.length) return -1;
+            nombres[cantidad] = nombre;
+            ids.put(nombre, cantidad);
+            return cantidad++;
+        }
+    }
+
+    public String nombre(int id) {
+        return nombres[id];
+    }
+
+    public int getLimite() {
+        return nombres.length;
+    }
+
+    public synchronized int tamano() {
+        return cantidad;
+    }
+
+    @Override
+    public String toString() {
+        return "Catalogo[" + descripcion + ", " + tamano() + "/" + nombres.length + "]";
+    }
+}
@@ -0,0 +1,107 @@
+package negocio.modelo;
+
+/**
+ * Montos de dinero como centavos en un long (sin double ni objetos):
+ * sumar es sumar longs, no hay error de redondeo acumulado y nada de esto
+ * crea objetos salvo formatear (que devuelve un String).
+ *
+ * Texto en los archivos: "123.45" (siempre dos decimales). Al leer también
+ * se aceptan los totales viejos guardados como double ("160.0", "1.2E3").
+ */
+public final class Dinero {
+
+    private Dinero() {}
+
+    /** Redondea al centavo (mitad hacia arriba). Solo para datos viejos en double. */
+    public static long deDouble(double monto) {
+        return Math.round(monto * 100.0);
+    }
+
+    public static double aDouble(long centavos) {
+        return centavos / 100.0;
+    }
+
+    public static long deUnidades(long unidades) {
+        return unidades * 100;
+    }
+
+    /**
+     * Porcentaje del monto, redondeado al centavo (mitad hacia arriba).
+     * Ej.: porcentaje(11500, 90) = 10350.
+     */
+    public static long porcentaje(long centavos, int porciento) {
+        long producto = centavos * porciento;
+        return (producto >= 0) ? (producto + 50) / 100 : -((-producto + 50) / 100);
+    }
+
+    /** Escribe "123.45" sin pasar por double ni String.format. */
+    public static StringBuilder escribir(StringBuilder sb, long centavos) {
+        if (centavos < 0) {
+            sb.append('-');
+            centavos = -centavos;
+        }
+        long resto = centavos % 100;
+        sb.append(centavos / 100).append('.');
+        if (resto < 10) sb.append('0');
+        return sb.append(resto);
+    }
+
+    /** "$123.45" (tickets y pantallas); negativo: "-$5.00". */
+    public static String formatear(long centavos) {
+        StringBuilder sb = new StringBuilder(12);
+        if (centavos < 0) sb.append('-');
+        return escribir(sb.append('$'), Math.abs(centavos)).toString();
+    }
+
+    /**
+     * Lee "123", "123.4", "123.45" sin crear objetos. Si el texto trae
+     * exponente o más de dos decimales (double viejo), se redondea como double.
+     * @throws NumberFormatException si no es un número.
+     */
+    public static long parsear(CharSequence texto) {
+        return parsear(texto, 0, texto.length());
+    }
+
+    /** Igual, sobre texto[desde, hasta) (un campo de una línea sin recortarlo antes). */
+    public static long parsear(CharSequence texto, int desde, int hasta) {
+        int i = desde;
+        int n = hasta;
+        while (i < n && texto.charAt(i) == ' ') i++;
+        while (n > i && texto.charAt(n - 1) == ' ') n--;
+        if (i == n) throw new NumberFormatException("monto vacío");
+
+        boolean negativo = texto.charAt(i) == '-';
+        if (negativo || texto.charAt(i) == '+') i++;
+
+        long entero = 0;
+        int digitos = 0;
+        while (i < n && esDigito(texto.charAt(i))) {
+            entero = entero * 10 + (texto.charAt(i++) - '0');
+            digitos++;
+        }
+
+        long decimales = 0;
+        int cantDecimales = 0;
+        if (i < n && texto.charAt(i) == '.') {
+            i++;
+            while (i < n && esDigito(texto.charAt(i)) && cantDecimales < 2) {
+                decimales = decimales * 10 + (texto.charAt(i++) - '0');
+                cantDecimales++;
+            }
+            // "160.0000": ceros de más no cambian nada
+            while (i < n && texto.charAt(i) == '0') i++;
+        }
+
+        if (i < n || digitos + cantDecimales == 0 || digitos > 16) {
+            // Formato de double (exponente, más decimales): camino lento
+            return deDouble(Double.parseDouble(texto.subSequence(desde, hasta).toString()));
+        }
+        if (cantDecimales == 1) decimales *= 10;
+        long centavos = entero * 100 + decimales;
+        return negativo ? -centavos : centavos;
+    }
+
+    private static boolean esDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
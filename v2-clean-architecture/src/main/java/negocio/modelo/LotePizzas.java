@@ -0,0 +1,89 @@
+package negocio.modelo;
+
+import java.util.List;
+
+/**
+ * Muchas pizzas en columnas (un arreglo por campo) para calcular precios en
+ * lote: el cálculo recorre cada columna de corrido en vez de saltar de
+ * objeto en objeto.
+ *
+ * Ingredientes y condimentos van aplanados en un solo arreglo cada uno; los
+ * de la pizza i están entre inicio[i] e inicio[i + 1].
+ *
+ * Se arma una vez y no se modifica, así que varios hilos pueden leer
+ * partes distintas a la vez.
+ */
+public final class LotePizzas {
+
+    private final Pizza[] pizzas;
+    private final String[] masas;
+    private final String[] salsas;
+    private final String[] quesos;
+    private final String[] orillas;
+    private final String[] ingredientes;
+    private final int[] inicioIngredientes;
+    private final String[] condimentos;
+    private final int[] inicioCondimentos;
+
+    private LotePizzas(List<Pizza> origen) {
+        int n = origen.size();
+        this.pizzas = origen.toArray(new Pizza[0]);
+        this.masas = new String[n];
+        this.salsas = new String[n];
+        this.quesos = new String[n];
+        this.orillas = new String[n];
+        this.inicioIngredientes = new int[n + 1];
+        this.inicioCondimentos = new int[n + 1];
+
+        int totalIng = 0;
+        int totalCon = 0;
+        for (int i = 0; i < n; i++) {
+            Pizza p = pizzas[i];
+            masas[i] = p.getMasa();
+            salsas[i] = p.getSalsa();
+            quesos[i] = p.getQueso();
+            orillas[i] = p.getTipoOrilla();
+            inicioIngredientes[i] = totalIng;
+            inicioCondimentos[i] = totalCon;
+            totalIng += p.contarIngredientes();
+            totalCon += p.contarCondimentos();
+        }
+        inicioIngredientes[n] = totalIng;
+        inicioCondimentos[n] = totalCon;
+
+        this.ingredientes = new String[totalIng];
+        this.condimentos = new String[totalCon];
+        for (int i = 0; i < n; i++) {
+            // Sin armar las vistas de la pizza: se copia topping por topping
+            Pizza p = pizzas[i];
+            int desde = inicioIngredientes[i];
+            for (int j = 0, m = p.contarIngredientes(); j < m; j++) ingredientes[desde + j] = p.ingrediente(j);
+            desde = inicioCondimentos[i];
+            for (int j = 0, m = p.contarCondimentos(); j < m; j++) condimentos[desde + j] = p.condimento(j);
+        }
+    }
+
+    public static LotePizzas de(List<Pizza> pizzas) {
+        return new LotePizzas(pizzas);
+    }
+
+    public int tamano() {
+        return pizzas.length;
+    }
+
+    /** La pizza original (para las estrategias que no trabajan por columnas). */
+    public Pizza getPizza(int i) {
+        return pizzas[i];
+    }
+
+    public String getMasa(int i) { return masas[i]; }
+    public String getSalsa(int i) { return salsas[i]; }
+    public String getQueso(int i) { return quesos[i]; }
+    public String getOrilla(int i) { return orillas[i]; }
+
+    public int inicioIngredientes(int i) { return inicioIngredientes[i]; }
+    public String getIngrediente(int k) { return ingredientes[k]; }
+
+    public int inicioCondimentos(int i) { return inicioCondimentos[i]; }
+    public String getCondimento(int k) { return condimentos[k]; }
+}
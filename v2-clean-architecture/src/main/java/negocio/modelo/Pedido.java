@@ -1,10 +1,13 @@
 package negocio.modelo;
 
+import negocio.abstractas.CodigoEstado;
 import negocio.abstractas.ObservadorPedido;
 import negocio.abstractas.EstadoPedido;
+import negocio.abstractas.Suscripcion;
+import negocio.patrones.observer.DespachadorEventos;
+import negocio.patrones.observer.RegistroSuscripciones;
 import negocio.patrones.state.EstadoRecibido;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -19,15 +22,26 @@ public class Pedido {
     private int id;
     private Date fechaHora;
     private Pizza pizza;
-    private double total;
-    private EstadoPedido estadoActual;
-    private final List<ObservadorPedido> observadores = new ArrayList<>();
-
+    // volatile: un re-precio masivo lo cambia mientras el tablero lo muestra
+    private volatile long totalCentavos;
+    // volatile: el tablero lo lee desde otro hilo mientras una terminal lo cambia
+    private volatile EstadoPedido estadoActual;
+    // Momento (ms) en que llegó a ENTREGADO o CANCELADO; 0 = no finalizado o desconocido
+    private volatile long finalizadoEnMs;
+    // Observadores con referencia débil: una ventana cerrada o un observador
+    // descartado no quedan retenidos por el pedido
+    private final RegistroSuscripciones observadores = new RegistroSuscripciones();
+
+    /** Total en pesos con decimales (se redondea al centavo). */
     public Pedido(Pizza pizza, double total) {
+        this(pizza, Dinero.deDouble(total));
+    }
+
+    public Pedido(Pizza pizza, long totalCentavos) {
         this.pizza = pizza;
-        this.total = total;
+        this.totalCentavos = totalCentavos;
         this.fechaHora = new Date();              // fecha/hora al crear el pedido
-        this.estadoActual = new EstadoRecibido(); // estado inicial
+        this.estadoActual = EstadoRecibido.INSTANCIA; // estado inicial (compartido)
     }
 
     public int getId() {
@@ -46,13 +60,22 @@ public class Pedido {
         return pizza;
     }
 
+    /** Para mostrar; para sumar o comparar usar getTotalCentavos. */
     public double getTotal() {
-        return total;
+        return Dinero.aDouble(totalCentavos);
+    }
+
+    public long getTotalCentavos() {
+        return totalCentavos;
     }
 
     /** Útil si en algún momento recalculas/ajustas total (Strategy) */
     public void setTotal(double total) {
-        this.total = total;
+        this.totalCentavos = Dinero.deDouble(total);
+    }
+
+    public void setTotalCentavos(long totalCentavos) {
+        this.totalCentavos = totalCentavos;
     }
 
     public EstadoPedido getEstadoActual() {
@@ -63,6 +86,15 @@ public class Pedido {
         return (estadoActual != null) ? estadoActual.getNombreEstado() : "";
     }
 
+    /**
+     * Identidad del estado como enum: para comparar sin cadenas.
+     * Sin estado cuenta como RECIBIDO.
+     */
+    public CodigoEstado getCodigoEstado() {
+        EstadoPedido e = estadoActual;
+        return (e != null) ? e.getCodigo() : CodigoEstado.RECIBIDO;
+    }
+
     /**
      * Cambia el estado actual.
      * IMPORTANTE: aquí también notificamos para que las ventanas se refresquen
@@ -70,9 +102,32 @@ public class Pedido {
      */
     public void setEstadoActual(EstadoPedido nuevo) {
         this.estadoActual = nuevo;
+        if (finalizadoEnMs == 0 && esFinalizado()) finalizadoEnMs = System.currentTimeMillis();
         notificarObservadores();
     }
 
+    /**
+     * Pone el estado leído del almacén sin notificar: al cargar el pedido no
+     * cambió y nadie está suscrito todavía. Solo para los repositorios; los
+     * cambios de verdad pasan por setEstadoActual o avanzarEstado.
+     */
+    public void restaurarEstado(EstadoPedido estado) {
+        this.estadoActual = estado;
+    }
+
+    /**
+     * Momento (ms) en que el pedido se finalizó, o 0 si no está finalizado o
+     * se cargó de un formato que no lo guardaba.
+     */
+    public long getFinalizadoEnMs() {
+        return finalizadoEnMs;
+    }
+
+    /** Como restaurarEstado: el momento de finalización leído del almacén. */
+    public void restaurarFinalizadoEn(long ms) {
+        this.finalizadoEnMs = Math.max(0, ms);
+    }
+
     /**
      * Avanza el estado del pedido delegando en el objeto EstadoPedido actual.
      * Después de avanzar, notifica a todos los observadores.
@@ -81,7 +136,7 @@ public class Pedido {
         if (estadoActual == null) return;
 
         // No avanza si ya está en un estado final
-        if (esCancelado() || esEntregado()) {
+        if (esFinalizado()) {
             return;
         }
 
@@ -90,40 +145,71 @@ public class Pedido {
     }
 
     public boolean esCancelado() {
-        return "CANCELADO".equalsIgnoreCase(getNombreEstado());
+        return getCodigoEstado() == CodigoEstado.CANCELADO;
     }
 
     public boolean esEntregado() {
-        return "ENTREGADO".equalsIgnoreCase(getNombreEstado());
+        return getCodigoEstado() == CodigoEstado.ENTREGADO;
     }
 
     public boolean esFinalizado() {
-        return esCancelado() || esEntregado();
+        return getCodigoEstado().esFinal();
+    }
+
+    /**
+     * Suscribe un observador a los cambios de este pedido.
+     * El pedido lo guarda con referencia débil: quien se suscribe debe mantenerlo
+     * vivo mientras quiera avisos, y puede cortar con close().
+     * En un pedido ya finalizado no habrá más avisos: se devuelve cerrada.
+     */
+    public Suscripcion suscribir(ObservadorPedido o) {
+        if (o == null || esFinalizado()) {
+            return SUSCRIPCION_CERRADA;
+        }
+        return observadores.suscribir(o);
     }
 
     public void agregarObservador(ObservadorPedido o) {
-    if (o != null && !observadores.contains(o)) {
-        observadores.add(o);
+        suscribir(o);
     }
-}
 
-public void quitarObservador(ObservadorPedido o) {
-    if (o != null) {
-        observadores.remove(o);
+    public void quitarObservador(ObservadorPedido o) {
+        if (o != null) {
+            observadores.quitar(o);
+        }
     }
-}
 
-public void notificarObservadores() {
-    // Copia defensiva para evitar problemas si un observador se quita/añade durante la notificación
-    List<ObservadorPedido> copia = new ArrayList<>(observadores);
-    for (ObservadorPedido o : copia) {
-        try {
-            o.actualizar(this);
-        } catch (Exception ex) {
-            // No dejamos que un observador "mate" el flujo del sistema
-            System.err.println("Error notificando observador: " + ex.getMessage());
+    /** Cuántos observadores siguen vivos en este pedido (métrica de memoria). */
+    public int contarObservadoresVivos() {
+        return observadores.contarVivos();
+    }
+
+    /**
+     * Publica el aviso en el bus de eventos: cada observador lo recibe en su
+     * propio buzón, en orden, desde un hilo del despachador. Este método vuelve
+     * enseguida sin importar cuántos observadores haya ni lo que tarden.
+     * Al llegar a un estado final se entrega el último aviso y se sueltan todas
+     * las suscripciones.
+     */
+    public void notificarObservadores() {
+        DespachadorEventos bus = DespachadorEventos.getInstancia();
+        List<ObservadorPedido> vivos = observadores.vivos();
+        for (ObservadorPedido o : vivos) {
+            bus.publicar(o, this);
+        }
+        if (esFinalizado()) {
+            observadores.cerrarTodas();
         }
     }
-}
 
+    private static final Suscripcion SUSCRIPCION_CERRADA = new Suscripcion() {
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean estaActiva() {
+            return false;
+        }
+    };
 }
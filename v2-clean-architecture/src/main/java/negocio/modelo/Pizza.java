@@ -1,78 +1,516 @@
 package negocio.modelo;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Representa una pizza personalizada.
  * Esta clase se alinea con el modelo conceptual del diagrama UML.
+ *
+ * Representación compacta: masa, salsa, queso y orilla son un byte cada uno
+ * (su número en el Catalogo, 0 = sin elegir) y los ingredientes y
+ * condimentos son un bit por topping en un long. Los textos viven una sola
+ * vez en el catálogo, no una vez por pedido (~48 bytes por pizza en vez de
+ * dos ArrayList y sus arreglos).
+ *
+ * getIngredientes() / getCondimentos() devuelven vistas tipo List sobre esos
+ * bits: se pueden recorrer y se les puede agregar o quitar, igual que antes,
+ * en el orden en que se agregaron y con repetidos (doble pepperoni se cobra
+ * dos veces). Mientras los toppings se agreguen en orden de catálogo y sin
+ * repetir alcanza con los bits; si no, se guarda además el orden como un
+ * byte por topping. Si algún catálogo se llenara (más de 64 toppings o 255
+ * opciones base distintas), los que no entran se guardan aparte como texto,
+ * después de los demás.
+ *
+ * Para recorrer sin armar la vista (cálculo de precios): contarIngredientes()
+ * e ingrediente(i), ídem condimentos.
+ *
+ * equals/hashCode comparan la configuración (no el id ni el nombre) y no
+ * crean objetos: sirven de clave en cachés y conteos. Cuentan el orden de
+ * los toppings; para el precio, que no depende de él, están
+ * claveConfiguracion() y mismaConfiguracion().
+ *
+ * copiaInmutable() da una pizza que no se puede modificar (las pizzas de la
+ * casa se comparten entre pedidos); new Pizza(otra) vuelve a dar una copia
+ * modificable.
  */
 public class Pizza {
 
     private int id;
     private String nombre;
 
-    private String masa;
-    private String salsa;
-    private String queso;
-    private String tipoOrilla;
+    private byte masa;
+    private byte salsa;
+    private byte queso;
+    private byte tipoOrilla;
 
-    private List<String> ingredientes = new ArrayList<>();
-    private List<String> condimentos = new ArrayList<>();
+    private long ingredientes;
+    private long condimentos;
+    // Orden de agregado (números del catálogo, con repetidos); null si es el
+    // de los bits: de menor a mayor y sin repetir
+    private byte[] ordenIngredientes;
+    private byte[] ordenCondimentos;
+
+    // Solo si el catálogo de toppings se llenó (normalmente null)
+    private String[] ingredientesExtra;
+    private String[] condimentosExtra;
+    // Ídem para las opciones base: [masa, salsa, queso, orilla] (normalmente null)
+    private String[] basesExtra;
+
+    private static final int MASA = 0;
+    private static final int SALSA = 1;
+    private static final int QUESO = 2;
+    private static final int ORILLA = 3;
+
+    public Pizza() {
+    }
+
+    /** Copia de la configuración (el id y el nombre también se copian). */
+    public Pizza(Pizza otra) {
+        this.id = otra.id;
+        this.nombre = otra.nombre;
+        this.masa = otra.masa;
+        this.salsa = otra.salsa;
+        this.queso = otra.queso;
+        this.tipoOrilla = otra.tipoOrilla;
+        this.ingredientes = otra.ingredientes;
+        this.condimentos = otra.condimentos;
+        this.ordenIngredientes = otra.ordenIngredientes;   // tampoco los de orden
+        this.ordenCondimentos = otra.ordenCondimentos;
+        this.ingredientesExtra = otra.ingredientesExtra;   // los arreglos extra nunca se modifican
+        this.condimentosExtra = otra.condimentosExtra;
+        this.basesExtra = otra.basesExtra;
+    }
+
+    /** Copia que lanza UnsupportedOperationException ante cualquier cambio. */
+    public Pizza copiaInmutable() {
+        return new PizzaInmutable(this);
+    }
+
+    public boolean esInmutable() {
+        return false;
+    }
+
+    // PizzaInmutable lo redefine; todo cambio pasa por acá
+    void verificarModificable() {
+    }
 
     public int getId() {
         return id;
     }
 
     public void setId(int id) {
+        verificarModificable();
         this.id = id;
     }
 
-    public String getNombre() { 
-        return nombre; 
+    public String getNombre() {
+        return nombre;
     }
 
     public void setNombre(String nombre) {
+        verificarModificable();
         this.nombre = nombre;
     }
 
-    public String getMasa() { 
-        return masa; 
+    public String getMasa() {
+        return nombreBase(Catalogo.MASAS, masa, MASA);
     }
 
-    public void setMasa(String masa) { 
-        this.masa = masa; 
+    public void setMasa(String masa) {
+        verificarModificable();
+        this.masa = codigoBase(Catalogo.MASAS, masa, MASA);
     }
 
-    public String getSalsa() { 
-        return salsa; 
+    public String getSalsa() {
+        return nombreBase(Catalogo.SALSAS, salsa, SALSA);
     }
 
-    public void setSalsa(String salsa) { 
-        this.salsa = salsa; 
+    public void setSalsa(String salsa) {
+        verificarModificable();
+        this.salsa = codigoBase(Catalogo.SALSAS, salsa, SALSA);
     }
 
-    public String getQueso() { 
-        return queso; 
+    public String getQueso() {
+        return nombreBase(Catalogo.QUESOS, queso, QUESO);
     }
 
-    public void setQueso(String queso) { 
-        this.queso = queso; 
+    public void setQueso(String queso) {
+        verificarModificable();
+        this.queso = codigoBase(Catalogo.QUESOS, queso, QUESO);
     }
 
-    public String getTipoOrilla() { 
-        return tipoOrilla; 
+    public String getTipoOrilla() {
+        return nombreBase(Catalogo.ORILLAS, tipoOrilla, ORILLA);
     }
 
-    public void setTipoOrilla(String tipoOrilla) { 
-        this.tipoOrilla = tipoOrilla; 
+    public void setTipoOrilla(String tipoOrilla) {
+        verificarModificable();
+        this.tipoOrilla = codigoBase(Catalogo.ORILLAS, tipoOrilla, ORILLA);
     }
 
-    public List<String> getIngredientes() { 
-        return ingredientes; 
+    public List<String> getIngredientes() {
+        return new Toppings(true);
     }
 
     public List<String> getCondimentos() {
+        return new Toppings(false);
+    }
+
+    /**
+     * Igual que getIngredientes().add(nombre), sin armar la vista
+     * (lo usan el builder y los cargadores).
+     * @return false si nombre es null.
+     */
+    public boolean agregarIngrediente(String nombre) {
+        return agregar(true, nombre);
+    }
+
+    public boolean agregarCondimento(String nombre) {
+        return agregar(false, nombre);
+    }
+
+    /** Igual que getIngredientes().size(), sin armar la vista. */
+    public int contarIngredientes() {
+        return contar(true);
+    }
+
+    public int contarCondimentos() {
+        return contar(false);
+    }
+
+    /** Igual que getIngredientes().get(i), sin armar la vista. */
+    public String ingrediente(int i) {
+        return topping(true, i);
+    }
+
+    public String condimento(int i) {
+        return topping(false, i);
+    }
+
+    /**
+     * Bit i = ingrediente i de Catalogo.INGREDIENTES (para análisis y cachés).
+     * Dice cuáles hay, no en qué orden ni cuántas veces.
+     */
+    public long getMascaraIngredientes() {
+        return ingredientes;
+    }
+
+    public long getMascaraCondimentos() {
         return condimentos;
     }
+
+    /**
+     * Misma masa, salsa, queso, orilla, ingredientes y condimentos.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Pizza)) return false;
+        Pizza p = (Pizza) o;
+        return masa == p.masa && salsa == p.salsa && queso == p.queso && tipoOrilla == p.tipoOrilla
+                && ingredientes == p.ingredientes && condimentos == p.condimentos
+                && Arrays.equals(ordenIngredientes, p.ordenIngredientes)
+                && Arrays.equals(ordenCondimentos, p.ordenCondimentos)
+                && Arrays.equals(ingredientesExtra, p.ingredientesExtra)
+                && Arrays.equals(condimentosExtra, p.condimentosExtra)
+                && Arrays.equals(basesExtra, p.basesExtra);
+    }
+
+    @Override
+    public int hashCode() {
+        long h = ((masa & 0xFFL) << 24) | ((salsa & 0xFFL) << 16) | ((queso & 0xFFL) << 8) | (tipoOrilla & 0xFFL);
+        h = h * 0x9E3779B97F4A7C15L + ingredientes;
+        h = h * 0x9E3779B97F4A7C15L + condimentos;
+        h ^= h >>> 32;
+        int r = (int) h;
+        if (ordenIngredientes != null) r = 31 * r + Arrays.hashCode(ordenIngredientes);
+        if (ordenCondimentos != null) r = 31 * r + Arrays.hashCode(ordenCondimentos);
+        if (ingredientesExtra != null) r = 31 * r + Arrays.hashCode(ingredientesExtra);
+        if (condimentosExtra != null) r = 31 * r + Arrays.hashCode(condimentosExtra);
+        if (basesExtra != null) r = 31 * r + Arrays.hashCode(basesExtra);
+        return r;
+    }
+
+    /**
+     * Clave de la configuración sin el orden de los toppings: opciones base,
+     * bits de toppings y cuántas veces está cada uno ({Jamón, Piña} y
+     * {Piña, Jamón} dan la misma; doble pepperoni no da la de uno solo).
+     * No crea objetos.
+     */
+    public long claveConfiguracion() {
+        long h = ((masa & 0xFFL) << 24) | ((salsa & 0xFFL) << 16) | ((queso & 0xFFL) << 8) | (tipoOrilla & 0xFFL);
+        h = h * 0x9E3779B97F4A7C15L + ingredientes;
+        h = h * 0x9E3779B97F4A7C15L + condimentos;
+        h = h * 0x9E3779B97F4A7C15L + sumaRepetidos(ordenIngredientes, ingredientes);
+        h = h * 0x9E3779B97F4A7C15L + sumaRepetidos(ordenCondimentos, condimentos);
+        h = h * 0x9E3779B97F4A7C15L + sumaTextos(ingredientesExtra);
+        h = h * 0x9E3779B97F4A7C15L + sumaTextos(condimentosExtra);
+        if (basesExtra != null) h = h * 0x9E3779B97F4A7C15L + Arrays.hashCode(basesExtra);
+        return h;
+    }
+
+    /**
+     * Como equals pero sin el orden de los toppings (sí cuenta los repetidos).
+     */
+    public boolean mismaConfiguracion(Pizza p) {
+        if (this == p) return true;
+        return p != null
+                && masa == p.masa && salsa == p.salsa && queso == p.queso && tipoOrilla == p.tipoOrilla
+                && ingredientes == p.ingredientes && condimentos == p.condimentos
+                && mismasVeces(ordenIngredientes, p.ordenIngredientes, ingredientes)
+                && mismasVeces(ordenCondimentos, p.ordenCondimentos, condimentos)
+                && mismosTextos(ingredientesExtra, p.ingredientesExtra)
+                && mismosTextos(condimentosExtra, p.condimentosExtra)
+                && Arrays.equals(basesExtra, p.basesExtra);
+    }
+
+    // Suma (no depende del orden) de los toppings que están más de una vez;
+    // 0 si cada uno está una sola vez, con o sin arreglo de orden
+    private static long sumaRepetidos(byte[] orden, long mascara) {
+        if (orden == null) return 0;
+        long suma = 0;
+        for (byte codigo : orden) suma += mezclarCodigo(codigo);
+        for (long m = mascara; m != 0; m &= m - 1) suma -= mezclarCodigo(Long.numberOfTrailingZeros(m));
+        return suma;
+    }
+
+    private static long mezclarCodigo(int codigo) {
+        long z = (codigo + 1) * 0x9E3779B97F4A7C15L;
+        return z ^ (z >>> 29);
+    }
+
+    private static long sumaTextos(String[] textos) {
+        if (textos == null) return 0;
+        long suma = 0;
+        for (String t : textos) suma += mezclarCodigo(t.hashCode());
+        return suma;
+    }
+
+    // Con la misma máscara: cada topping está las mismas veces en los dos (null = una vez cada uno)
+    private static boolean mismasVeces(byte[] a, byte[] b, long mascara) {
+        int largoA = (a == null) ? Long.bitCount(mascara) : a.length;
+        int largoB = (b == null) ? Long.bitCount(mascara) : b.length;
+        if (largoA != largoB) return false;
+        if (a == null || b == null) return true;   // mismo largo que la máscara: ninguno repetido
+        for (long m = mascara; m != 0; m &= m - 1) {
+            int codigo = Long.numberOfTrailingZeros(m);
+            if (veces(a, codigo) != veces(b, codigo)) return false;
+        }
+        return true;
+    }
+
+    private static int veces(byte[] orden, int codigo) {
+        int n = 0;
+        for (byte c : orden) if (c == codigo) n++;
+        return n;
+    }
+
+    private static boolean mismosTextos(String[] a, String[] b) {
+        int largoA = (a == null) ? 0 : a.length;
+        int largoB = (b == null) ? 0 : b.length;
+        if (largoA != largoB) return false;
+        for (int i = 0; i < largoA; i++) {
+            if (veces(a, a[i]) != veces(b, a[i])) return false;
+        }
+        return true;
+    }
+
+    private static int veces(String[] textos, String texto) {
+        int n = 0;
+        for (String t : textos) if (t.equals(texto)) n++;
+        return n;
+    }
+
+    // =========================================================
+    // Códigos del catálogo
+    // =========================================================
+
+    private String nombreBase(Catalogo catalogo, byte codigo, int opcion) {
+        if (codigo != 0) return catalogo.nombre((codigo & 0xFF) - 1);
+        return (basesExtra == null) ? null : basesExtra[opcion];
+    }
+
+    /** Código de la opción; si el catálogo está lleno, 0 y el nombre queda como texto. */
+    private byte codigoBase(Catalogo catalogo, String nombre, int opcion) {
+        int id = (nombre == null) ? -1 : catalogo.registrar(nombre);
+        String texto = (nombre != null && id < 0) ? nombre : null;
+        if (texto != null || (basesExtra != null && basesExtra[opcion] != null)) {
+            // Copia: el arreglo puede estar compartido con otra pizza (new Pizza(otra))
+            String[] nuevo = (basesExtra == null) ? new String[4] : basesExtra.clone();
+            nuevo[opcion] = texto;
+            boolean vacio = true;
+            for (String n : nuevo) vacio &= (n == null);
+            basesExtra = vacio ? null : nuevo;
+        }
+        return (id < 0) ? 0 : (byte) (id + 1);
+    }
+
+    // =========================================================
+    // Toppings (bits + orden + extra)
+    // =========================================================
+
+    private static Catalogo catalogoDe(boolean sonIngredientes) {
+        return sonIngredientes ? Catalogo.INGREDIENTES : Catalogo.CONDIMENTOS;
+    }
+
+    private long mascaraDe(boolean sonIngredientes) {
+        return sonIngredientes ? ingredientes : condimentos;
+    }
+
+    private byte[] ordenDe(boolean sonIngredientes) {
+        return sonIngredientes ? ordenIngredientes : ordenCondimentos;
+    }
+
+    private String[] extraDe(boolean sonIngredientes) {
+        return sonIngredientes ? ingredientesExtra : condimentosExtra;
+    }
+
+    // Los arreglos no se modifican después de guardarlos (las copias los comparten)
+    private void guardar(boolean sonIngredientes, long mascara, byte[] orden, String[] extra) {
+        verificarModificable();
+        if (sonIngredientes) {
+            ingredientes = mascara;
+            ordenIngredientes = orden;
+            ingredientesExtra = extra;
+        } else {
+            condimentos = mascara;
+            ordenCondimentos = orden;
+            condimentosExtra = extra;
+        }
+    }
+
+    private int contarCodigos(boolean sonIngredientes) {
+        byte[] orden = ordenDe(sonIngredientes);
+        return (orden != null) ? orden.length : Long.bitCount(mascaraDe(sonIngredientes));
+    }
+
+    private int contar(boolean sonIngredientes) {
+        String[] extra = extraDe(sonIngredientes);
+        return contarCodigos(sonIngredientes) + (extra == null ? 0 : extra.length);
+    }
+
+    private String topping(boolean sonIngredientes, int i) {
+        int enCodigos = contarCodigos(sonIngredientes);
+        if (i < 0 || i >= contar(sonIngredientes)) {
+            throw new IndexOutOfBoundsException("Índice " + i + ", tamaño " + contar(sonIngredientes));
+        }
+        if (i >= enCodigos) return extraDe(sonIngredientes)[i - enCodigos];
+        byte[] orden = ordenDe(sonIngredientes);
+        if (orden != null) return catalogoDe(sonIngredientes).nombre(orden[i]);
+        long m = mascaraDe(sonIngredientes);
+        for (int k = 0; k < i; k++) m &= m - 1;   // se saltean los i bits más bajos
+        return catalogoDe(sonIngredientes).nombre(Long.numberOfTrailingZeros(m));
+    }
+
+    private boolean agregar(boolean sonIngredientes, String nombre) {
+        verificarModificable();
+        if (nombre == null) return false;
+        int id = catalogoDe(sonIngredientes).registrar(nombre);
+        long mascara = mascaraDe(sonIngredientes);
+        byte[] orden = ordenDe(sonIngredientes);
+        String[] extra = extraDe(sonIngredientes);
+        if (id < 0) {
+            String[] nuevo = (extra == null) ? new String[1] : Arrays.copyOf(extra, extra.length + 1);
+            nuevo[nuevo.length - 1] = nombre;
+            guardar(sonIngredientes, mascara, orden, nuevo);
+        } else if (orden == null && (mascara >>> id) == 0) {
+            // Mayor que todos los que hay: el orden sigue siendo el de los bits
+            guardar(sonIngredientes, mascara | (1L << id), null, extra);
+        } else {
+            byte[] base = (orden != null) ? orden : enOrdenDeBits(mascara);
+            byte[] nuevo = Arrays.copyOf(base, base.length + 1);
+            nuevo[base.length] = (byte) id;
+            guardar(sonIngredientes, mascara | (1L << id), nuevo, extra);
+        }
+        return true;
+    }
+
+    private void quitar(boolean sonIngredientes, int i) {
+        int enCodigos = contarCodigos(sonIngredientes);
+        long mascara = mascaraDe(sonIngredientes);
+        byte[] orden = ordenDe(sonIngredientes);
+        String[] extra = extraDe(sonIngredientes);
+        if (i >= enCodigos) {
+            int j = i - enCodigos;
+            String[] nuevo = new String[extra.length - 1];
+            System.arraycopy(extra, 0, nuevo, 0, j);
+            System.arraycopy(extra, j + 1, nuevo, j, nuevo.length - j);
+            guardar(sonIngredientes, mascara, orden, nuevo.length == 0 ? null : nuevo);
+        } else if (orden == null) {
+            long m = mascara;
+            for (int k = 0; k < i; k++) m &= m - 1;
+            guardar(sonIngredientes, mascara & ~Long.lowestOneBit(m), null, extra);
+        } else {
+            byte[] nuevo = new byte[orden.length - 1];
+            System.arraycopy(orden, 0, nuevo, 0, i);
+            System.arraycopy(orden, i + 1, nuevo, i, nuevo.length - i);
+            long m = 0;
+            boolean creciente = true;
+            for (int k = 0; k < nuevo.length; k++) {
+                m |= 1L << nuevo[k];
+                if (k > 0 && nuevo[k] <= nuevo[k - 1]) creciente = false;
+            }
+            // Si volvió a ser el orden de los bits no hace falta guardarlo
+            guardar(sonIngredientes, m, creciente ? null : nuevo, extra);
+        }
+    }
+
+    private static byte[] enOrdenDeBits(long mascara) {
+        byte[] orden = new byte[Long.bitCount(mascara)];
+        for (int k = 0; mascara != 0; k++, mascara &= mascara - 1) {
+            orden[k] = (byte) Long.numberOfTrailingZeros(mascara);
+        }
+        return orden;
+    }
+
+    /**
+     * Vista de ingredientes o condimentos en el orden en que se agregaron
+     * (los extra al final). Se arma en cada llamada; no guarda nada.
+     */
+    private final class Toppings extends AbstractList<String> {
+        private final boolean sonIngredientes;
+
+        Toppings(boolean sonIngredientes) {
+            this.sonIngredientes = sonIngredientes;
+        }
+
+        @Override
+        public int size() {
+            return contar(sonIngredientes);
+        }
+
+        @Override
+        public String get(int i) {
+            return topping(sonIngredientes, i);
+        }
+
+        /** Agrega el topping al final, aunque ya estuviera (como un ArrayList). */
+        @Override
+        public boolean add(String nombre) {
+            return agregar(sonIngredientes, nombre);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof String)) return false;
+            int id = catalogoDe(sonIngredientes).buscar((String) o);
+            if (id >= 0) return (mascaraDe(sonIngredientes) & (1L << id)) != 0;
+            String[] extra = extraDe(sonIngredientes);
+            return extra != null && Arrays.asList(extra).contains(o);
+        }
+
+        @Override
+        public String remove(int i) {
+            String nombre = get(i);
+            quitar(sonIngredientes, i);
+            return nombre;
+        }
+
+        @Override
+        public void clear() {
+            guardar(sonIngredientes, 0, null, null);
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package negocio.modelo;
+
+/**
+ * Pizza que no se puede cambiar (ver Pizza.copiaInmutable). Es una subclase
+ * y no un campo más en Pizza para que las pizzas comunes no ocupen más.
+ */
+final class PizzaInmutable extends Pizza {
+
+    PizzaInmutable(Pizza origen) {
+        super(origen);
+    }
+
+    @Override
+    public Pizza copiaInmutable() {
+        return this;
+    }
+
+    @Override
+    public boolean esInmutable() {
+        return true;
+    }
+
+    @Override
+    void verificarModificable() {
+        throw new UnsupportedOperationException("Pizza inmutable: usar new Pizza(pizza) para modificarla");
+    }
+}
@@ -0,0 +1,104 @@
+package negocio.modelo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Una sola instancia por texto repetido ("Tradicional", "Tomate",
+ * "Mozzarella", los toppings...). Al leer un archivo de pedidos cada campo
+ * sería un String nuevo; con canonico(linea, desde, hasta) se compara el
+ * trozo de la línea contra el texto ya guardado y, si coincide, se devuelve
+ * ese mismo sin crear nada.
+ *
+ * Tamaño fijo (potencia de 2) de dos vías, como PrecioConCache: un texto
+ * nuevo desplaza al más viejo de su par de lugares, así que nunca crece sin
+ * límite aunque entren nombres raros. Los String son inmutables, por eso se
+ * lee y escribe sin bloqueos desde varios hilos (carga en paralelo); en el
+ * peor caso dos hilos guardan el mismo texto y uno de los dos se pierde.
+ */
+public final class TextosCanonicos {
+
+    /** El que usan el cargador de texto y el builder. */
+    public static final TextosCanonicos COMPARTIDO = new TextosCanonicos(1024);
+
+    private final String[] tabla;
+    private final int mascara;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    /**
+     * @param capacidad textos como máximo (se redondea a potencia de 2)
+     */
+    public TextosCanonicos(int capacidad) {
+        int tam = Integer.highestOneBit(Math.max(16, capacidad - 1) << 1);
+        this.tabla = new String[tam];
+        this.mascara = tam - 1;
+    }
+
+    /** La instancia guardada igual a texto (o texto mismo, que queda guardado). */
+    public String canonico(String texto) {
+        if (texto == null || texto.isEmpty()) return texto;
+        int pos = posicion(texto.hashCode());
+        String s = tabla[pos];
+        if (texto.equals(s)) return contarAcierto(s);
+        s = tabla[pos + 1];
+        if (texto.equals(s)) return contarAcierto(s);
+        return guardar(pos, texto);
+    }
+
+    /**
+     * Texto de texto[desde, hasta) sin los espacios de los extremos (como
+     * trim). Si ya estaba guardado no crea ningún objeto.
+     */
+    public String canonico(CharSequence texto, int desde, int hasta) {
+        while (desde < hasta && texto.charAt(desde) <= ' ') desde++;
+        while (hasta > desde && texto.charAt(hasta - 1) <= ' ') hasta--;
+        if (desde == hasta) return "";
+
+        // Mismo hash que String.hashCode, para que las dos formas coincidan
+        int h = 0;
+        for (int i = desde; i < hasta; i++) h = 31 * h + texto.charAt(i);
+        int pos = posicion(h);
+        String s = tabla[pos];
+        if (coincide(s, texto, desde, hasta)) return contarAcierto(s);
+        s = tabla[pos + 1];
+        if (coincide(s, texto, desde, hasta)) return contarAcierto(s);
+        return guardar(pos, texto.subSequence(desde, hasta).toString());
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public int getCapacidad() {
+        return tabla.length;
+    }
+
+    private int posicion(int hash) {
+        return (hash ^ (hash >>> 16)) & mascara & ~1;
+    }
+
+    private String contarAcierto(String s) {
+        aciertos.increment();
+        return s;
+    }
+
+    private String guardar(int pos, String texto) {
+        fallos.increment();
+        tabla[pos + 1] = tabla[pos];
+        tabla[pos] = texto;
+        return texto;
+    }
+
+    private static boolean coincide(String s, CharSequence texto, int desde, int hasta) {
+        if (s == null || s.length() != hasta - desde) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != texto.charAt(desde + i)) return false;
+        }
+        return true;
+    }
+}
@@ -4,6 +4,10 @@
  */
 package negocio.patrones.builder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import negocio.abstractas.PizzaBuilder;
 import negocio.modelo.Pizza;
 
@@ -11,9 +15,30 @@ import negocio.modelo.Pizza;
  * Director del patrón Builder.
  * Se encarga de orquestar los pasos de construcción de una pizza
  * usando un PizzaBuilder.
+ *
+ * Además guarda las pizzas de la casa (básica, vegetariana, carnes,
+ * hawaiana) como plantillas compartidas: pedir una tal cual no arma una
+ * pizza nueva ni recalcula el precio; personalizarla copia la plantilla
+ * recién al primer cambio.
  */
 public class DirectorConstructorPizza {
 
+    public static final String BASICA = "Básica";
+    public static final String VEGETARIANA = "Vegetariana";
+    public static final String CARNES = "Carnes";
+    public static final String HAWAIANA = "Hawaiana";
+
+    // Son pocas: se recorren (sin crear nada) y al registrar se reemplaza el arreglo
+    private static volatile PlantillaPizza[] plantillas = new PlantillaPizza[0];
+
+    static {
+        DirectorConstructorPizza d = new DirectorConstructorPizza(new PizzaPersonalizadaBuilder());
+        registrarPlantilla(BASICA, d.construirPizzaBasica());
+        registrarPlantilla(VEGETARIANA, d.construirVegetariana());
+        registrarPlantilla(CARNES, d.construirCarnes());
+        registrarPlantilla(HAWAIANA, d.construirHawaiana());
+    }
+
     private PizzaBuilder builder;
 
     public DirectorConstructorPizza(PizzaBuilder builder) {
@@ -29,7 +54,7 @@ public class DirectorConstructorPizza {
      * Corresponde al método construirPizzaBasica() del diagrama UML.
      */
     public Pizza construirPizzaBasica() {
-        return builder
+        return builder.reiniciar()
                 .conMasa("Tradicional")
                 .conSalsa("Tomate")
                 .conQueso("Mozzarella")
@@ -37,8 +62,93 @@ public class DirectorConstructorPizza {
                 .build();
     }
 
+    public Pizza construirVegetariana() {
+        return builder.reiniciar()
+                .conMasa("Masa Integral")
+                .conSalsa("Salsa de Tomate Clásica")
+                .conQueso("Mozzarella")
+                .conTipoOrilla("Orilla Tradicional")
+                .agregarIngrediente("Champiñones (+$15)")
+                .agregarIngrediente("Pimientos (+$15)")
+                .agregarIngrediente("Cebolla (+$15)")
+                .agregarIngrediente("Aceitunas (+$15)")
+                .agregarCondimento("Orégano")
+                .build();
+    }
+
+    public Pizza construirCarnes() {
+        return builder.reiniciar()
+                .conMasa("Masa Tradicional")
+                .conSalsa("Salsa BBQ")
+                .conQueso("Doble Queso")
+                .conTipoOrilla("Orilla Rellena de Queso")
+                .agregarIngrediente("Pepperoni (+$15)")
+                .agregarIngrediente("Jamón (+$15)")
+                .agregarIngrediente("Tocino (+$15)")
+                .agregarIngrediente("Salchicha (+$15)")
+                .agregarCondimento("Hojuelas de Chile")
+                .build();
+    }
+
+    public Pizza construirHawaiana() {
+        return builder.reiniciar()
+                .conMasa("Masa Tradicional")
+                .conSalsa("Salsa de Tomate Clásica")
+                .conQueso("Mozzarella")
+                .conTipoOrilla("Orilla Tradicional")
+                .agregarIngrediente("Jamón (+$15)")
+                .agregarIngrediente("Piña (+$15)")
+                .build();
+    }
+
+    // =========================================================
+    // Pizzas de la casa (plantillas compartidas)
+    // =========================================================
+
+    /** La plantilla con ese nombre (sin importar mayúsculas), o null. */
+    public static PlantillaPizza plantilla(String nombre) {
+        for (PlantillaPizza p : plantillas) {
+            if (p.getNombre().equalsIgnoreCase(nombre)) return p;
+        }
+        return null;
+    }
+
+    /** La pizza compartida de la plantilla, para pedirla tal cual (no se puede modificar). */
+    public static Pizza pizzaDeLaCasa(String nombre) {
+        PlantillaPizza p = plantilla(nombre);
+        return (p == null) ? null : p.getPizza();
+    }
+
+    /** Builder que parte de la plantilla (copia al escribir), o null si no existe. */
+    public static PizzaPersonalizadaBuilder personalizar(String nombre) {
+        PlantillaPizza p = plantilla(nombre);
+        return (p == null) ? null : p.personalizar();
+    }
+
     /**
-     * Si quisieras, puedes añadir otros métodos para construir
-     * variaciones predefinidas (por ejemplo: vegetariana, de carnes, etc.).
+     * Agrega o reemplaza una pizza de la casa; se guarda una copia inmutable.
      */
+    public static synchronized PlantillaPizza registrarPlantilla(String nombre, Pizza pizza) {
+        PlantillaPizza nueva = new PlantillaPizza(nombre, pizza);
+        PlantillaPizza[] actuales = plantillas;
+        for (int i = 0; i < actuales.length; i++) {
+            if (actuales[i].getNombre().equalsIgnoreCase(nombre)) {
+                PlantillaPizza[] copia = actuales.clone();
+                copia[i] = nueva;
+                plantillas = copia;
+                return nueva;
+            }
+        }
+        PlantillaPizza[] copia = Arrays.copyOf(actuales, actuales.length + 1);
+        copia[actuales.length] = nueva;
+        plantillas = copia;
+        return nueva;
+    }
+
+    /** Nombres de las pizzas de la casa, en el orden en que se registraron. */
+    public static List<String> nombresPlantillas() {
+        List<String> nombres = new ArrayList<>();
+        for (PlantillaPizza p : plantillas) nombres.add(p.getNombre());
+        return nombres;
+    }
 }
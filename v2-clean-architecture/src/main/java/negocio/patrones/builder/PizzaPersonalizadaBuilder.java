@@ -2,59 +2,102 @@ package negocio.patrones.builder;
 
 import negocio.abstractas.PizzaBuilder;
 import negocio.modelo.Pizza;
+import negocio.modelo.TextosCanonicos;
 
 /**
  * Implementación concreta del Builder para pizzas personalizadas.
  * Aplica el patrón Builder descrito en el diagrama UML.
+ *
+ * Los nombres pasan por TextosCanonicos: la pantalla y el cargador de
+ * pedidos terminan usando las mismas instancias.
+ *
+ * Se puede reusar: build() entrega una copia y el builder sigue armando.
+ * Si parte de una pizza de la casa (ver DirectorConstructorPizza) la copia
+ * recién se hace al primer cambio; sin cambios, build() devuelve la misma
+ * pizza inmutable compartida.
  */
 public class PizzaPersonalizadaBuilder implements PizzaBuilder {
 
     private Pizza pizza;
+    // true = pizza es la inmutable de la que se partió (todavía sin copiar)
+    private boolean compartida;
 
     public PizzaPersonalizadaBuilder() {
         this.pizza = new Pizza();
     }
 
+    /** Parte de una pizza ya armada; base no se modifica. */
+    public PizzaPersonalizadaBuilder(Pizza base) {
+        this.pizza = base.copiaInmutable();
+        this.compartida = true;
+    }
+
     @Override
     public PizzaBuilder conMasa(String masa) {
-        pizza.setMasa(masa);
+        paraModificar().setMasa(TextosCanonicos.COMPARTIDO.canonico(masa));
         return this;
     }
 
     @Override
     public PizzaBuilder conSalsa(String salsa) {
-        pizza.setSalsa(salsa);
+        paraModificar().setSalsa(TextosCanonicos.COMPARTIDO.canonico(salsa));
         return this;
     }
 
     @Override
     public PizzaBuilder conQueso(String queso) {
-        pizza.setQueso(queso);
+        paraModificar().setQueso(TextosCanonicos.COMPARTIDO.canonico(queso));
         return this;
     }
 
     @Override
     public PizzaBuilder agregarIngrediente(String ingrediente) {
-        pizza.getIngredientes().add(ingrediente);
+        paraModificar().agregarIngrediente(TextosCanonicos.COMPARTIDO.canonico(ingrediente));
         return this;
     }
 
     @Override
     public PizzaBuilder agregarCondimento(String condimento) {
-        pizza.getCondimentos().add(condimento);
+        paraModificar().agregarCondimento(TextosCanonicos.COMPARTIDO.canonico(condimento));
         return this;
     }
 
     @Override
     public PizzaBuilder conTipoOrilla(String tipoOrilla) {
-        pizza.setTipoOrilla(tipoOrilla);
+        paraModificar().setTipoOrilla(TextosCanonicos.COMPARTIDO.canonico(tipoOrilla));
+        return this;
+    }
+
+    /** Quita un ingrediente de la pizza de partida (si lo tenía). */
+    public PizzaPersonalizadaBuilder quitarIngrediente(String ingrediente) {
+        if (pizza.getIngredientes().contains(ingrediente)) paraModificar().getIngredientes().remove(ingrediente);
+        return this;
+    }
+
+    public PizzaPersonalizadaBuilder quitarCondimento(String condimento) {
+        if (pizza.getCondimentos().contains(condimento)) paraModificar().getCondimentos().remove(condimento);
         return this;
     }
 
     @Override
     public Pizza build() {
-        // Podrías clonar si quisieras que el builder sea reusable;
-        // por ahora devolvemos la instancia que se fue armando.
+        // Sin cambios sobre una pizza compartida: es inmutable, se entrega tal cual
+        return compartida ? pizza : new Pizza(pizza);
+    }
+
+    @Override
+    public PizzaBuilder reiniciar() {
+        pizza = new Pizza();
+        compartida = false;
+        return this;
+    }
+
+    // Copia al escribir: la pizza compartida se copia antes del primer cambio
+    private Pizza paraModificar() {
+        if (compartida) {
+            pizza = new Pizza(pizza);
+            compartida = false;
+        }
         return pizza;
     }
 }
@@ -0,0 +1,78 @@
+package negocio.patrones.builder;
+
+import java.util.Arrays;
+
+import negocio.abstractas.EstrategiaPrecio;
+import negocio.modelo.Pizza;
+
+/**
+ * Pizza de la casa (vegetariana, carnes, ...): un nombre y una pizza
+ * inmutable que comparten todos los pedidos que la piden tal cual.
+ *
+ * El precio se calcula una vez por estrategia y se vuelve a calcular solo
+ * si la estrategia cambia de versión (otra carta de precios, entra o sale
+ * una promoción). Los precios guardados son inmutables y se reemplaza el
+ * arreglo completo, así que se leen sin bloqueos.
+ */
+public final class PlantillaPizza {
+
+    private final String nombre;
+    private final Pizza pizza;
+
+    private volatile Precio[] precios = new Precio[0];
+
+    PlantillaPizza(String nombre, Pizza pizza) {
+        this.nombre = nombre;
+        this.pizza = pizza.copiaInmutable();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /** La pizza compartida (inmutable): se puede poner en un pedido tal cual. */
+    public Pizza getPizza() {
+        return pizza;
+    }
+
+    /** Builder que parte de esta pizza; la copia se hace recién al primer cambio. */
+    public PizzaPersonalizadaBuilder personalizar() {
+        return new PizzaPersonalizadaBuilder(pizza);
+    }
+
+    /** Precio con esa estrategia; sin crear nada si ya se calculó para su versión actual. */
+    public long precioCentavos(EstrategiaPrecio estrategia) {
+        long version = estrategia.getVersion();
+        Precio[] actuales = precios;
+        for (Precio p : actuales) {
+            if (p.estrategia == estrategia && p.version == version) return p.centavos;
+        }
+
+        long centavos = estrategia.calcularTotalCentavos(pizza);
+        Precio[] nuevos = new Precio[actuales.length + 1];
+        int n = 0;
+        for (Precio p : actuales) {
+            if (p.estrategia != estrategia) nuevos[n++] = p;   // el de la versión vieja se descarta
+        }
+        nuevos[n++] = new Precio(estrategia, version, centavos);
+        precios = (n == nuevos.length) ? nuevos : Arrays.copyOf(nuevos, n);
+        return centavos;
+    }
+
+    @Override
+    public String toString() {
+        return nombre;
+    }
+
+    private static final class Precio {
+        final EstrategiaPrecio estrategia;
+        final long version;
+        final long centavos;
+
+        Precio(EstrategiaPrecio estrategia, long version, long centavos) {
+            this.estrategia = estrategia;
+            this.version = version;
+            this.centavos = centavos;
+        }
+    }
+}
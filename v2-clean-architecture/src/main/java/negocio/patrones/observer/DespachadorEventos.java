@@ -0,0 +1,218 @@
+package negocio.patrones.observer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import negocio.abstractas.ObservadorPedido;
+import negocio.modelo.Pedido;
+
+/**
+ * Bus de eventos para el patrón Observer: entrega las notificaciones de
+ * Pedido en hilos propios, así un observador lento (consola, ventanas)
+ * no retrasa el cambio de estado ni la escritura a disco.
+ *
+ * Garantías:
+ * - Cada observador tiene su propio buzón y recibe sus avisos EN ORDEN,
+ *   nunca dos a la vez (un solo hilo drena su buzón en cada momento).
+ * - Los buzones están acotados; si uno se llena se aplica la política de
+ *   desborde configurada.
+ * - El aviso lleva el Pedido: el observador lee el estado al recibirlo, por
+ *   eso juntar (coalescer) avisos repetidos del mismo pedido no pierde nada.
+ *
+ * Propiedades del sistema:
+ *   pizzeria.eventos.hilos      (2)
+ *   pizzeria.eventos.capacidad  (64 avisos por observador)
+ *   pizzeria.eventos.politica   (COALESCER | DESCARTAR_ANTIGUO | DESCARTAR_NUEVO)
+ *   pizzeria.eventos.sincronos  (false; true = avisar en el mismo hilo, como antes)
+ */
+public final class DespachadorEventos {
+
+    public enum PoliticaDesborde {
+        /** Si el pedido ya está en el buzón no se repite; si aun así está lleno, sale el más viejo. */
+        COALESCER,
+        /** Si está lleno se descarta el aviso más viejo. */
+        DESCARTAR_ANTIGUO,
+        /** Si está lleno se descarta el aviso nuevo. */
+        DESCARTAR_NUEVO
+    }
+
+    private static final DespachadorEventos INSTANCIA = new DespachadorEventos(
+            Integer.getInteger("pizzeria.eventos.hilos", 2),
+            Integer.getInteger("pizzeria.eventos.capacidad", 64),
+            politicaConfigurada(),
+            Boolean.getBoolean("pizzeria.eventos.sincronos"));
+
+    private final ExecutorService ejecutor;
+    private final int capacidad;
+    private final PoliticaDesborde politica;
+    private final boolean sincrono;
+
+    // Un buzón por observador con avisos pendientes (se quita cuando queda vacío)
+    private final ConcurrentHashMap<ObservadorPedido, Buzon> buzones = new ConcurrentHashMap<>();
+
+    private final LongAdder entregados = new LongAdder();
+    private final LongAdder coalescidos = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+
+    private DespachadorEventos(int hilos, int capacidad, PoliticaDesborde politica, boolean sincrono) {
+        this.capacidad = Math.max(1, capacidad);
+        this.politica = politica;
+        this.sincrono = sincrono;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(Math.max(1, hilos), r -> {
+            Thread t = new Thread(r, "despachador-pedidos-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Un valor mal escrito no debe impedir que arranque la aplicación: se usa COALESCER. */
+    private static PoliticaDesborde politicaConfigurada() {
+        String valor = System.getProperty("pizzeria.eventos.politica", "COALESCER");
+        try {
+            return PoliticaDesborde.valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Política de eventos desconocida '" + valor + "', se usa COALESCER");
+            return PoliticaDesborde.COALESCER;
+        }
+    }
+
+    public static DespachadorEventos getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Deja el aviso en el buzón del observador y vuelve de inmediato.
+     */
+    public void publicar(ObservadorPedido observador, Pedido pedido) {
+        if (observador == null || pedido == null) return;
+
+        if (sincrono) {
+            entregar(observador, pedido);
+            return;
+        }
+
+        Buzon[] porProgramar = new Buzon[1];
+        // compute() es atómico por observador: no se cruza con drenar()
+        buzones.compute(observador, (obs, buzon) -> {
+            if (buzon == null) buzon = new Buzon(obs);
+            buzon.encolar(pedido);
+            if (!buzon.programado) {
+                buzon.programado = true;
+                porProgramar[0] = buzon;
+            }
+            return buzon;
+        });
+
+        if (porProgramar[0] != null) {
+            Buzon b = porProgramar[0];
+            ejecutor.execute(() -> drenar(b));
+        }
+    }
+
+    // =========================================================
+    // Métricas
+    // =========================================================
+
+    public long getEntregados() {
+        return entregados.sum();
+    }
+
+    public long getCoalescidos() {
+        return coalescidos.sum();
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /** Observadores que tienen avisos pendientes en este momento. */
+    public int getBuzonesActivos() {
+        return buzones.size();
+    }
+
+    // =========================================================
+    // Internos
+    // =========================================================
+
+    private void drenar(Buzon buzon) {
+        while (true) {
+            Pedido siguiente = buzon.tomar();
+            if (siguiente != null) {
+                entregar(buzon.observador, siguiente);
+                continue;
+            }
+
+            // Buzón vacío: se retira del mapa, salvo que justo haya llegado algo
+            boolean[] seguir = new boolean[1];
+            buzones.compute(buzon.observador, (obs, actual) -> {
+                if (actual != buzon) return actual;
+                if (buzon.estaVacio()) {
+                    buzon.programado = false;
+                    return null;
+                }
+                seguir[0] = true;
+                return buzon;
+            });
+            if (!seguir[0]) return;
+        }
+    }
+
+    private void entregar(ObservadorPedido observador, Pedido pedido) {
+        try {
+            observador.actualizar(pedido);
+            entregados.increment();
+        } catch (Exception ex) {
+            // No dejamos que un observador "mate" el flujo del sistema
+            System.err.println("Error notificando observador: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Cola acotada de avisos de un observador.
+     * programado solo se toca dentro de buzones.compute().
+     */
+    private final class Buzon {
+
+        final ObservadorPedido observador;
+        private final ArrayDeque<Pedido> pendientes = new ArrayDeque<>();
+        boolean programado;
+
+        Buzon(ObservadorPedido observador) {
+            this.observador = observador;
+        }
+
+        synchronized void encolar(Pedido pedido) {
+            if (politica == PoliticaDesborde.COALESCER && contiene(pedido)) {
+                coalescidos.increment();
+                return;
+            }
+            if (pendientes.size() >= capacidad) {
+                descartados.increment();
+                if (politica == PoliticaDesborde.DESCARTAR_NUEVO) return;
+                pendientes.pollFirst();
+            }
+            pendientes.addLast(pedido);
+        }
+
+        synchronized Pedido tomar() {
+            return pendientes.pollFirst();
+        }
+
+        synchronized boolean estaVacio() {
+            return pendientes.isEmpty();
+        }
+
+        private boolean contiene(Pedido pedido) {
+            for (Pedido p : pendientes) {
+                if (p == pedido) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package negocio.patrones.observer;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import negocio.abstractas.ObservadorPedido;
+import negocio.abstractas.Suscripcion;
+
+/**
+ * Observadores de un pedido, guardados con referencias débiles.
+ *
+ * Antes el pedido retenía a sus observadores para siempre (ventanas de
+ * seguimiento ya cerradas, observadores de consola creados por pedido), así
+ * que la memoria y el costo de notificar crecían con cada pedido atendido.
+ * Ahora:
+ * - Un observador que ya nadie usa lo libera el recolector; su entrada llega
+ *   a una ReferenceQueue común y se quita del registro en la siguiente
+ *   suscripción o notificación (de cualquier pedido).
+ * - Suscripcion.close() la quita en el acto.
+ * - cerrarTodas() vacía el registro (el pedido lo hace al llegar a un estado final).
+ */
+public final class RegistroSuscripciones {
+
+    // Cola común: el recolector deja aquí las entradas cuyo observador murió
+    private static final ReferenceQueue<ObservadorPedido> MUERTAS = new ReferenceQueue<>();
+
+    private static final LongAdder VIVAS = new LongAdder();
+    private static final LongAdder PODADAS = new LongAdder();
+
+    private final CopyOnWriteArrayList<Entrada> entradas = new CopyOnWriteArrayList<>();
+
+    /**
+     * Suscribe al observador. Si ya estaba suscrito devuelve la misma suscripción.
+     */
+    public synchronized Suscripcion suscribir(ObservadorPedido observador) {
+        podarRecolectadas();
+        for (Entrada e : entradas) {
+            if (e.get() == observador) return e;
+        }
+        Entrada nueva = new Entrada(observador, this);
+        entradas.add(nueva);
+        VIVAS.increment();
+        return nueva;
+    }
+
+    public void quitar(ObservadorPedido observador) {
+        for (Entrada e : entradas) {
+            if (e.get() == observador) e.close();
+        }
+    }
+
+    public void cerrarTodas() {
+        for (Entrada e : entradas) {
+            e.close();
+        }
+    }
+
+    /**
+     * Observadores vivos en este momento (las entradas cuyo observador ya fue
+     * recolectado no se cuentan aunque todavía no se hayan podado).
+     */
+    public List<ObservadorPedido> vivos() {
+        podarRecolectadas();
+        List<ObservadorPedido> lista = new ArrayList<>(entradas.size());
+        for (Entrada e : entradas) {
+            ObservadorPedido o = e.get();
+            if (o != null) lista.add(o);
+        }
+        return lista;
+    }
+
+    public int contarVivos() {
+        int n = 0;
+        for (Entrada e : entradas) {
+            if (e.get() != null) n++;
+        }
+        return n;
+    }
+
+    // =========================================================
+    // Métricas globales (todos los pedidos)
+    // =========================================================
+
+    /** Suscripciones abiertas en todo el sistema. */
+    public static long getSuscripcionesVivas() {
+        podarRecolectadas();
+        return VIVAS.sum();
+    }
+
+    /** Suscripciones quitadas porque el recolector liberó al observador. */
+    public static long getSuscripcionesPodadas() {
+        return PODADAS.sum();
+    }
+
+    /**
+     * Quita de sus registros las entradas cuyo observador ya fue recolectado.
+     */
+    public static void podarRecolectadas() {
+        Reference<? extends ObservadorPedido> ref;
+        while ((ref = MUERTAS.poll()) != null) {
+            if (((Entrada) ref).cerrar()) {
+                PODADAS.increment();
+            }
+        }
+    }
+
+    // =========================================================
+    // Entrada = referencia débil + la suscripción que ve el cliente
+    // =========================================================
+
+    private static final class Entrada extends WeakReference<ObservadorPedido> implements Suscripcion {
+
+        private final RegistroSuscripciones registro;
+        private final AtomicBoolean cerrada = new AtomicBoolean();
+
+        Entrada(ObservadorPedido observador, RegistroSuscripciones registro) {
+            super(observador, MUERTAS);
+            this.registro = registro;
+        }
+
+        @Override
+        public void close() {
+            if (cerrar()) clear();
+        }
+
+        @Override
+        public boolean estaActiva() {
+            return !cerrada.get() && get() != null;
+        }
+
+        /** Solo la primera llamada hace algo; devuelve si fue esta. */
+        boolean cerrar() {
+            if (!cerrada.compareAndSet(false, true)) return false;
+            registro.entradas.remove(this);
+            VIVAS.decrement();
+            return true;
+        }
+    }
+}
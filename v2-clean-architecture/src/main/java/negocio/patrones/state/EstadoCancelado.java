@@ -9,6 +9,7 @@ package negocio.patrones.state;
  * @author fende
  */
 
+import negocio.abstractas.CodigoEstado;
 import negocio.abstractas.EstadoPedido;
 import negocio.modelo.Pedido;
 
@@ -18,6 +19,11 @@ import negocio.modelo.Pedido;
  */
 public class EstadoCancelado implements EstadoPedido {
 
+    /** Única instancia (flyweight): el estado no guarda datos del pedido. */
+    public static final EstadoCancelado INSTANCIA = new EstadoCancelado();
+
+    private EstadoCancelado() {}
+
     @Override
     public void avanzar(Pedido pedido) {
         // Un pedido cancelado NO avanza a ningún otro estado
@@ -27,4 +33,9 @@ public class EstadoCancelado implements EstadoPedido {
     public String getNombreEstado() {
         return "CANCELADO";
     }
+
+    @Override
+    public CodigoEstado getCodigo() {
+        return CodigoEstado.CANCELADO;
+    }
 }
@@ -1,5 +1,6 @@
 package negocio.patrones.state;
 
+import negocio.abstractas.CodigoEstado;
 import negocio.abstractas.EstadoPedido;
 import negocio.modelo.Pedido;
 
@@ -9,6 +10,11 @@ import negocio.modelo.Pedido;
  */
 public class EstadoEntregado implements EstadoPedido {
 
+    /** Única instancia (flyweight): el estado no guarda datos del pedido. */
+    public static final EstadoEntregado INSTANCIA = new EstadoEntregado();
+
+    private EstadoEntregado() {}
+
     @Override
     public void avanzar(Pedido pedido) {
         // Estado final, ya no hay transición.
@@ -19,4 +25,9 @@ public class EstadoEntregado implements EstadoPedido {
     public String getNombreEstado() {
         return "ENTREGADO";
     }
+
+    @Override
+    public CodigoEstado getCodigo() {
+        return CodigoEstado.ENTREGADO;
+    }
 }
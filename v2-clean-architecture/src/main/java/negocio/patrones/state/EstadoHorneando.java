@@ -1,5 +1,6 @@
 package negocio.patrones.state;
 
+import negocio.abstractas.CodigoEstado;
 import negocio.abstractas.EstadoPedido;
 import negocio.modelo.Pedido;
 
@@ -9,10 +10,15 @@ import negocio.modelo.Pedido;
  */
 public class EstadoHorneando implements EstadoPedido {
 
+    /** Única instancia (flyweight): el estado no guarda datos del pedido. */
+    public static final EstadoHorneando INSTANCIA = new EstadoHorneando();
+
+    private EstadoHorneando() {}
+
     @Override
     public void avanzar(Pedido pedido) {
         // De HORNEANDO pasa a TERMINADO
-        pedido.setEstadoActual(new EstadoTerminado());
+        pedido.setEstadoActual(EstadoTerminado.INSTANCIA);
         // La notificación se hace en Pedido.avanzarEstado()
     }
 
@@ -20,4 +26,9 @@ public class EstadoHorneando implements EstadoPedido {
     public String getNombreEstado() {
         return "HORNEANDO";
     }
+
+    @Override
+    public CodigoEstado getCodigo() {
+        return CodigoEstado.HORNEANDO;
+    }
 }
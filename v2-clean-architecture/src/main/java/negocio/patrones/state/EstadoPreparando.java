@@ -1,5 +1,6 @@
 package negocio.patrones.state;
 
+import negocio.abstractas.CodigoEstado;
 import negocio.abstractas.EstadoPedido;
 import negocio.modelo.Pedido;
 
@@ -9,10 +10,15 @@ import negocio.modelo.Pedido;
  */
 public class EstadoPreparando implements EstadoPedido {
 
+    /** Única instancia (flyweight): el estado no guarda datos del pedido. */
+    public static final EstadoPreparando INSTANCIA = new EstadoPreparando();
+
+    private EstadoPreparando() {}
+
     @Override
     public void avanzar(Pedido pedido) {
         // De PREPARANDO pasa a HORNEANDO
-        pedido.setEstadoActual(new EstadoHorneando());
+        pedido.setEstadoActual(EstadoHorneando.INSTANCIA);
         // La notificación se hace en Pedido.avanzarEstado()
     }
 
@@ -20,4 +26,9 @@ public class EstadoPreparando implements EstadoPedido {
     public String getNombreEstado() {
         return "PREPARANDO";
     }
+
+    @Override
+    public CodigoEstado getCodigo() {
+        return CodigoEstado.PREPARANDO;
+    }
 }
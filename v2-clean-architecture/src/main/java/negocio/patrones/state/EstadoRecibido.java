@@ -1,5 +1,6 @@
 package negocio.patrones.state;
 
+import negocio.abstractas.CodigoEstado;
 import negocio.abstractas.EstadoPedido;
 import negocio.modelo.Pedido;
 
@@ -9,10 +10,15 @@ import negocio.modelo.Pedido;
  */
 public class EstadoRecibido implements EstadoPedido {
 
+    /** Única instancia (flyweight): el estado no guarda datos del pedido. */
+    public static final EstadoRecibido INSTANCIA = new EstadoRecibido();
+
+    private EstadoRecibido() {}
+
     @Override
     public void avanzar(Pedido pedido) {
         // De RECIBIDO pasa a PREPARANDO
-        pedido.setEstadoActual(new EstadoPreparando());
+        pedido.setEstadoActual(EstadoPreparando.INSTANCIA);
         // La notificación se hace en Pedido.avanzarEstado()
     }
 
@@ -20,4 +26,9 @@ public class EstadoRecibido implements EstadoPedido {
     public String getNombreEstado() {
         return "RECIBIDO";
     }
+
+    @Override
+    public CodigoEstado getCodigo() {
+        return CodigoEstado.RECIBIDO;
+    }
 }
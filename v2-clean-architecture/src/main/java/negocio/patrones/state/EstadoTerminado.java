@@ -1,5 +1,6 @@
 package negocio.patrones.state;
 
+import negocio.abstractas.CodigoEstado;
 import negocio.abstractas.EstadoPedido;
 import negocio.modelo.Pedido;
 
@@ -9,10 +10,15 @@ import negocio.modelo.Pedido;
  */
 public class EstadoTerminado implements EstadoPedido {
 
+    /** Única instancia (flyweight): el estado no guarda datos del pedido. */
+    public static final EstadoTerminado INSTANCIA = new EstadoTerminado();
+
+    private EstadoTerminado() {}
+
     @Override
     public void avanzar(Pedido pedido) {
         // De TERMINADO pasa a ENTREGADO
-        pedido.setEstadoActual(new EstadoEntregado());
+        pedido.setEstadoActual(EstadoEntregado.INSTANCIA);
         // La notificación se hace en Pedido.avanzarEstado()
     }
 
@@ -20,4 +26,9 @@ public class EstadoTerminado implements EstadoPedido {
     public String getNombreEstado() {
         return "TERMINADO";
     }
+
+    @Override
+    public CodigoEstado getCodigo() {
+        return CodigoEstado.TERMINADO;
+    }
 }
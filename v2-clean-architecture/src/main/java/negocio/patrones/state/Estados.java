@@ -0,0 +1,39 @@
+package negocio.patrones.state;
+
+import negocio.abstractas.CodigoEstado;
+import negocio.abstractas.EstadoPedido;
+
+/**
+ * Catálogo de los estados compartidos (flyweights), indexado por ordinal.
+ * Obtener un estado nunca crea objetos.
+ */
+public final class Estados {
+
+    private static final EstadoPedido[] POR_ORDINAL = new EstadoPedido[CodigoEstado.values().length];
+
+    static {
+        registrar(EstadoRecibido.INSTANCIA);
+        registrar(EstadoPreparando.INSTANCIA);
+        registrar(EstadoHorneando.INSTANCIA);
+        registrar(EstadoTerminado.INSTANCIA);
+        registrar(EstadoEntregado.INSTANCIA);
+        registrar(EstadoCancelado.INSTANCIA);
+    }
+
+    private Estados() {}
+
+    private static void registrar(EstadoPedido estado) {
+        POR_ORDINAL[estado.getCodigo().ordinal()] = estado;
+    }
+
+    public static EstadoPedido de(CodigoEstado codigo) {
+        return POR_ORDINAL[codigo.ordinal()];
+    }
+
+    /**
+     * Estado a partir del nombre guardado en archivo (desconocido = RECIBIDO).
+     */
+    public static EstadoPedido porNombre(String nombre) {
+        return de(CodigoEstado.porNombre(nombre));
+    }
+}
@@ -0,0 +1,145 @@
+package negocio.patrones.strategy;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import negocio.abstractas.EstrategiaPrecio;
+import negocio.modelo.LotePizzas;
+import negocio.modelo.Pizza;
+
+/**
+ * Decorador que recuerda el precio de cada configuración de pizza.
+ *
+ * La clave sale de las opciones base, los bits de toppings y cuántas veces
+ * está cada topping (Pizza.claveConfiguracion: el orden en que se eligieron
+ * no cambia el precio, así que {Jamón, Piña} y {Piña, Jamón} comparten
+ * entrada) más la versión de la estrategia: si cambia la carta de precios o
+ * entra/sale una promoción, la versión cambia y las entradas viejas dejan
+ * de coincidir solas.
+ *
+ * Tabla de tamaño fijo (potencia de 2) de dos vías: cada clave puede estar
+ * en dos lugares vecinos; una entrada nueva va al primero y la que estaba
+ * ahí pasa al segundo (se pierde la más vieja). Las entradas son inmutables,
+ * así que se leen y escriben sin bloqueos; en un acierto se compara la
+ * configuración guardada (Pizza.mismaConfiguracion, también sin orden) para
+ * no confundir dos pizzas con el mismo hash. Un acierto no crea objetos.
+ */
+public class PrecioConCache implements EstrategiaPrecio {
+
+    private final EstrategiaPrecio estrategia;
+    private final Entrada[] tabla;
+    private final int mascara;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    /**
+     * @param capacidad entradas como máximo (se redondea a potencia de 2)
+     */
+    public PrecioConCache(EstrategiaPrecio estrategia, int capacidad) {
+        this.estrategia = estrategia;
+        int tam = Integer.highestOneBit(Math.max(16, capacidad - 1) << 1);
+        this.tabla = new Entrada[tam];
+        this.mascara = tam - 1;
+    }
+
+    public EstrategiaPrecio getEstrategia() {
+        return estrategia;
+    }
+
+    @Override
+    public long getVersion() {
+        return estrategia.getVersion();
+    }
+
+    @Override
+    public long calcularTotalCentavos(Pizza pizza) {
+        long version = estrategia.getVersion();
+        long hash = claveCanonica(pizza, version);
+        int pos = (int) (hash ^ (hash >>> 32)) & mascara & ~1;
+
+        Entrada e = tabla[pos];
+        if (e == null || !e.es(hash, version, pizza)) e = tabla[pos + 1];
+        if (e != null && e.es(hash, version, pizza)) {
+            aciertos.increment();
+            return e.centavos;
+        }
+
+        fallos.increment();
+        long centavos = estrategia.calcularTotalCentavos(pizza);
+        tabla[pos + 1] = tabla[pos];
+        tabla[pos] = new Entrada(hash, version, pizza, centavos);
+        return centavos;
+    }
+
+    /**
+     * Un lote va directo a la estrategia (que ya lo recorre por columnas):
+     * llenar la caché con miles de pizzas de una sola vez solo desplazaría
+     * las del mostrador.
+     */
+    @Override
+    public long[] calcularTotalesCentavos(LotePizzas lote) {
+        return estrategia.calcularTotalesCentavos(lote);
+    }
+
+    /** Vacía la caché (las métricas se conservan). */
+    public void invalidar() {
+        for (int i = 0; i < tabla.length; i++) tabla[i] = null;
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    /** Aciertos sobre consultas (0 si todavía no hubo ninguna). */
+    public double getTasaAciertos() {
+        long a = aciertos.sum();
+        long total = a + fallos.sum();
+        return (total == 0) ? 0.0 : (double) a / total;
+    }
+
+    public int getCapacidad() {
+        return tabla.length;
+    }
+
+    // =========================================================
+    // Clave canónica
+    // =========================================================
+
+    /**
+     * Clave de la configuración (opciones base, bits de toppings y veces que
+     * está cada uno; no el orden en que se eligieron) + versión.
+     */
+    static long claveCanonica(Pizza pizza, long version) {
+        return mezclar(mezclar(version) * 31 + pizza.claveConfiguracion());
+    }
+
+    // Mezclador de 64 bits (splitmix64): reparte bien hashes parecidos
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Entrada {
+        final long hash;
+        final long version;
+        // Copia: la pizza original se puede seguir modificando (preview)
+        final Pizza configuracion;
+        final long centavos;
+
+        Entrada(long hash, long version, Pizza pizza, long centavos) {
+            this.hash = hash;
+            this.version = version;
+            this.configuracion = new Pizza(pizza);
+            this.centavos = centavos;
+        }
+
+        boolean es(long hash, long version, Pizza p) {
+            return this.hash == hash && this.version == version && configuracion.mismaConfiguracion(p);
+        }
+    }
+}
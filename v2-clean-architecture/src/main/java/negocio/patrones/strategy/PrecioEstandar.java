@@ -5,25 +5,31 @@
 package negocio.patrones.strategy;
 
 import negocio.abstractas.EstrategiaPrecio;
+import negocio.modelo.LotePizzas;
 import negocio.modelo.Pizza;
 
 /**
  *
  * @author ARTX
+ *
+ * Precio según la carta vigente (TarifaPrecios): base, extras por masa,
+ * salsa, queso, orilla e ingredientes, combos y promociones por horario.
+ * Sin archivo de precios se usan las reglas originales.
  */
 public class PrecioEstandar implements EstrategiaPrecio {
 
     @Override
-    public double calcularTotal(Pizza pizza) {
-        double total = 100.0; // precio base de la pizza
-
-        // reglas muy sencillas a modo de ejemplo
-        if (pizza.getMasa() != null && pizza.getMasa().equalsIgnoreCase("rellena")) {
-            total += 20.0;
-        }
+    public long calcularTotalCentavos(Pizza pizza) {
+        return TarifaPrecios.vigente().calcularCentavos(pizza);
+    }
 
-        total += pizza.getIngredientes().size() * 15.0;
+    @Override
+    public long[] calcularTotalesCentavos(LotePizzas lote) {
+        return TarifaPrecios.vigente().calcularLote(lote, System.currentTimeMillis());
+    }
 
-        return total;
+    @Override
+    public long getVersion() {
+        return TarifaPrecios.vigente().getVersionVigente();
     }
 }
\ No newline at end of file
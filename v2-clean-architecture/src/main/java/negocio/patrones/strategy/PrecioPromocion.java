@@ -6,6 +6,8 @@ package negocio.patrones.strategy;
 
 import negocio.patrones.strategy.PrecioEstandar;
 import negocio.abstractas.EstrategiaPrecio;
+import negocio.modelo.Dinero;
+import negocio.modelo.LotePizzas;
 import negocio.modelo.Pizza;
 
 /**
@@ -14,12 +16,28 @@ import negocio.modelo.Pizza;
  */
 public class PrecioPromocion implements EstrategiaPrecio {
 
+    // Sin estado: una sola instancia para todas las llamadas
+    private static final EstrategiaPrecio BASE = new PrecioEstandar();
+
     @Override
-    public double calcularTotal(Pizza pizza) {
-        EstrategiaPrecio base = new PrecioEstandar();
-        double totalBase = base.calcularTotal(pizza);
+    public long calcularTotalCentavos(Pizza pizza) {
+        long totalBase = BASE.calcularTotalCentavos(pizza);
+
+        // ejemplo: 10% de descuento (redondeado al centavo)
+        return Dinero.porcentaje(totalBase, 90);
+    }
 
-        // ejemplo: 10% de descuento
-        return totalBase * 0.90;
+    @Override
+    public long[] calcularTotalesCentavos(LotePizzas lote) {
+        long[] totales = BASE.calcularTotalesCentavos(lote);
+        for (int i = 0; i < totales.length; i++) {
+            totales[i] = Dinero.porcentaje(totales[i], 90);
+        }
+        return totales;
+    }
+
+    @Override
+    public long getVersion() {
+        return BASE.getVersion();
     }
 }
\ No newline at end of file
@@ -0,0 +1,584 @@
+package negocio.patrones.strategy;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import negocio.modelo.Dinero;
+import negocio.modelo.LotePizzas;
+import negocio.modelo.Pizza;
+
+/**
+ * Lista de precios "compilada": la carta (precio por masa, salsa, queso,
+ * orilla, ingrediente y condimento), los combos y las promociones por horario,
+ * convertidos al cargar en tablas planas.
+ *
+ * calcularCentavos no crea objetos: cada nombre se busca en una tabla de
+ * direccionamiento abierto sin pasar a minúsculas (se compara carácter por
+ * carácter), los combos son máscaras de bits sobre los ingredientes y el
+ * descuento por promociones vigentes se recalcula a lo sumo una vez por minuto
+ * (y en el instante en que una promoción empieza o termina).
+ *
+ * Es inmutable: una recarga arma otra tarifa y la publica (publicar), así
+ * que un cálculo en curso nunca ve una mezcla de precios viejos y nuevos.
+ *
+ * Los nombres se comparan sin mayúsculas y sin lo que venga entre paréntesis,
+ * así "Pepperoni (+$15)" de la pantalla es el mismo que "pepperoni" de la carta.
+ */
+public final class TarifaPrecios {
+
+    /** Días de la semana como bits (lunes = bit 0). */
+    public static final int TODOS_LOS_DIAS = 0x7F;
+
+    private static final long MINUTO_MS = 60_000L;
+
+    // Lotes de al menos el doble de esto se reparten entre los núcleos
+    private static final int PIZZAS_POR_TRAMO = 4096;
+
+    // Tarifa que usan PrecioEstandar y PrecioPromocion
+    private static volatile TarifaPrecios vigente = porDefecto().compilar(1);
+
+    private final long version;
+    private final long base;
+    private final TablaNombres masas;
+    private final TablaNombres salsas;
+    private final TablaNombres quesos;
+    private final TablaNombres orillas;
+    private final TablaNombres ingredientes;
+    private final TablaNombres condimentos;
+    private final long ingredientePorDefecto;
+    private final long condimentoPorDefecto;
+
+    // Combos: se aplican en orden y cada uno "consume" sus ingredientes
+    private final long[] combosMascara;
+    private final long[] combosDescuento;
+
+    // Promociones por fecha/horario (no se acumulan: gana el mayor descuento)
+    private final Promocion[] promociones;
+    private final ZoneId zona;
+    private volatile PorcentajeVigente porcentajeVigente = new PorcentajeVigente(0, 0, 100);
+
+    private TarifaPrecios(Compilador c, long version) {
+        this.version = version;
+        this.base = c.base;
+        this.masas = new TablaNombres(c.masas, null);
+        this.salsas = new TablaNombres(c.salsas, null);
+        this.quesos = new TablaNombres(c.quesos, null);
+        this.orillas = new TablaNombres(c.orillas, null);
+        this.condimentos = new TablaNombres(c.condimentos, null);
+        this.ingredientePorDefecto = c.ingredientePorDefecto;
+        this.condimentoPorDefecto = c.condimentoPorDefecto;
+
+        // Cada ingrediente que aparece en algún combo recibe un bit
+        Map<String, Long> precios = new LinkedHashMap<>(c.ingredientes);
+        Map<String, Integer> bits = new LinkedHashMap<>();
+        this.combosMascara = new long[c.combos.size()];
+        this.combosDescuento = new long[c.combos.size()];
+        for (int i = 0; i < c.combos.size(); i++) {
+            Combo combo = c.combos.get(i);
+            long mascara = 0;
+            for (String ing : combo.ingredientes) {
+                String clave = TablaNombres.normalizar(ing);
+                Integer bit = bits.get(clave);
+                if (bit == null) {
+                    if (bits.size() == Long.SIZE) {
+                        throw new IllegalArgumentException("Los combos usan más de 64 ingredientes distintos");
+                    }
+                    bit = bits.size();
+                    bits.put(clave, bit);
+                    precios.putIfAbsent(clave, ingredientePorDefecto);
+                }
+                mascara |= 1L << bit;
+            }
+            combosMascara[i] = mascara;
+            combosDescuento[i] = combo.descuento;
+        }
+        this.ingredientes = new TablaNombres(precios, bits);
+
+        this.promociones = c.promociones.toArray(new Promocion[0]);
+        this.zona = c.zona;
+    }
+
+    // =========================================================
+    // Tarifa vigente
+    // =========================================================
+
+    public static TarifaPrecios vigente() {
+        return vigente;
+    }
+
+    /**
+     * Compila y pone en uso una nueva lista de precios. La versión es la del
+     * archivo si es mayor que la vigente; si no, la vigente + 1 (siempre crece).
+     */
+    public static synchronized TarifaPrecios publicar(Compilador compilador) {
+        long version = Math.max(compilador.version, vigente.version + 1);
+        TarifaPrecios nueva = compilador.compilar(version);
+        vigente = nueva;
+        return nueva;
+    }
+
+    /**
+     * Precios originales (antes estaban fijos en PrecioEstandar):
+     * base $100, masa rellena +$20 y $15 por ingrediente.
+     */
+    public static Compilador porDefecto() {
+        return new Compilador()
+                .base(Dinero.deUnidades(100))
+                .masa("Rellena", Dinero.deUnidades(20))
+                .ingredientePorDefecto(Dinero.deUnidades(15));
+    }
+
+    // =========================================================
+    // Cálculo
+    // =========================================================
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Versión de la carta junto con el porcentaje de promoción vigente ahora
+     * (7 bits bajos): cambia al recargar la carta y también cuando una
+     * promoción empieza o termina.
+     */
+    public long getVersionVigente() {
+        int porciento = (promociones.length == 0) ? 100 : porcentajeEn(System.currentTimeMillis());
+        return (version << 7) | porciento;
+    }
+
+    /**
+     * Total con combos y promociones vigentes ahora. La hora solo se lee si
+     * la carta tiene promociones.
+     */
+    public long calcularCentavos(Pizza pizza) {
+        long total = calcularSinPromocion(pizza);
+        if (promociones.length == 0) return total;
+        int porciento = porcentajeEn(System.currentTimeMillis());
+        return (porciento == 100) ? total : Dinero.porcentaje(total, porciento);
+    }
+
+    /**
+     * Total con combos y promociones vigentes en el instante indicado.
+     */
+    public long calcularCentavos(Pizza pizza, long instanteMs) {
+        long total = calcularSinPromocion(pizza);
+        int porciento = porcentajeEn(instanteMs);
+        return (porciento == 100) ? total : Dinero.porcentaje(total, porciento);
+    }
+
+    /**
+     * Carta + combos, sin promociones por horario.
+     */
+    public long calcularSinPromocion(Pizza pizza) {
+        long total = base
+                + masas.precio(pizza.getMasa(), 0)
+                + salsas.precio(pizza.getSalsa(), 0)
+                + quesos.precio(pizza.getQueso(), 0)
+                + orillas.precio(pizza.getTipoOrilla(), 0);
+
+        long presentes = 0;
+        for (int i = 0, n = pizza.contarIngredientes(); i < n; i++) {
+            int pos = ingredientes.buscar(pizza.ingrediente(i));
+            if (pos < 0) {
+                total += ingredientePorDefecto;
+            } else {
+                total += ingredientes.precios[pos];
+                presentes |= ingredientes.bits[pos];
+            }
+        }
+
+        for (int i = 0, n = pizza.contarCondimentos(); i < n; i++) {
+            total += condimentos.precio(pizza.condimento(i), condimentoPorDefecto);
+        }
+
+        return Math.max(0, total - descuentoCombos(presentes));
+    }
+
+    private long descuentoCombos(long presentes) {
+        long descuento = 0;
+        for (int i = 0; i < combosMascara.length; i++) {
+            long m = combosMascara[i];
+            if ((presentes & m) == m) {
+                descuento += combosDescuento[i];
+                presentes &= ~m;
+            }
+        }
+        return descuento;
+    }
+
+    /**
+     * Precios de todo el lote con las promociones del instante indicado
+     * (mismo resultado que calcularCentavos pizza por pizza). Se recorre
+     * columna por columna; si el lote es grande, por tramos en paralelo
+     * (fork-join, pool común).
+     */
+    public long[] calcularLote(LotePizzas lote, long instanteMs) {
+        int n = lote.tamano();
+        long[] totales = new long[n];
+        int porciento = porcentajeEn(instanteMs);
+        if (n >= 2 * PIZZAS_POR_TRAMO && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            ForkJoinPool.commonPool().invoke(new TramoLote(lote, 0, n, totales, porciento));
+        } else {
+            calcularTramo(lote, 0, n, totales, porciento);
+        }
+        return totales;
+    }
+
+    private void calcularTramo(LotePizzas lote, int desde, int hasta, long[] t, int porciento) {
+        for (int i = desde; i < hasta; i++) t[i] = base + masas.precio(lote.getMasa(i), 0);
+        for (int i = desde; i < hasta; i++) t[i] += salsas.precio(lote.getSalsa(i), 0);
+        for (int i = desde; i < hasta; i++) t[i] += quesos.precio(lote.getQueso(i), 0);
+        for (int i = desde; i < hasta; i++) t[i] += orillas.precio(lote.getOrilla(i), 0);
+
+        for (int i = desde; i < hasta; i++) {
+            long suma = 0;
+            for (int k = lote.inicioCondimentos(i), fin = lote.inicioCondimentos(i + 1); k < fin; k++) {
+                suma += condimentos.precio(lote.getCondimento(k), condimentoPorDefecto);
+            }
+            t[i] += suma;
+        }
+
+        for (int i = desde; i < hasta; i++) {
+            long suma = 0;
+            long presentes = 0;
+            for (int k = lote.inicioIngredientes(i), fin = lote.inicioIngredientes(i + 1); k < fin; k++) {
+                int pos = ingredientes.buscar(lote.getIngrediente(k));
+                if (pos < 0) {
+                    suma += ingredientePorDefecto;
+                } else {
+                    suma += ingredientes.precios[pos];
+                    presentes |= ingredientes.bits[pos];
+                }
+            }
+            long total = Math.max(0, t[i] + suma - descuentoCombos(presentes));
+            t[i] = (porciento == 100) ? total : Dinero.porcentaje(total, porciento);
+        }
+    }
+
+    /** Un tramo del lote; se parte en dos hasta llegar a PIZZAS_POR_TRAMO. */
+    private final class TramoLote extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final LotePizzas lote;
+        private final int desde;
+        private final int hasta;
+        private final long[] totales;
+        private final int porciento;
+
+        TramoLote(LotePizzas lote, int desde, int hasta, long[] totales, int porciento) {
+            this.lote = lote;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.totales = totales;
+            this.porciento = porciento;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= PIZZAS_POR_TRAMO) {
+                calcularTramo(lote, desde, hasta, totales, porciento);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TramoLote(lote, desde, medio, totales, porciento),
+                      new TramoLote(lote, medio, hasta, totales, porciento));
+        }
+    }
+
+    /**
+     * Porcentaje a cobrar (100 = sin promoción) en ese instante.
+     * El resultado del minuto en curso queda guardado: en el camino normal
+     * (la hora actual) no se crean objetos. Si una promoción empieza o
+     * termina dentro de ese minuto (fechas con segundos), lo guardado se corta
+     * en ese instante.
+     */
+    public int porcentajeEn(long instanteMs) {
+        if (promociones.length == 0) return 100;
+        PorcentajeVigente p = porcentajeVigente;
+        if (instanteMs >= p.desdeMs && instanteMs < p.hastaMs) return p.porciento;
+
+        int porciento = calcularPorcentaje(instanteMs);
+        if (instanteMs >= p.hastaMs) {
+            // Solo avanza: una consulta sobre el pasado (what-if) no pisa el minuto actual
+            long desde = Math.floorDiv(instanteMs, MINUTO_MS) * MINUTO_MS;
+            long hasta = desde + MINUTO_MS;
+            for (Promocion promo : promociones) {
+                desde = limiteAnterior(desde, promo.desdeMs, instanteMs);
+                desde = limiteAnterior(desde, promo.hastaMs, instanteMs);
+                hasta = limiteSiguiente(hasta, promo.desdeMs, instanteMs);
+                hasta = limiteSiguiente(hasta, promo.hastaMs, instanteMs);
+            }
+            porcentajeVigente = new PorcentajeVigente(desde, hasta, porciento);
+        }
+        return porciento;
+    }
+
+    // El cambio más cercano antes (o en) el instante, si cae dentro del minuto
+    private static long limiteAnterior(long desde, long limiteMs, long instanteMs) {
+        return (limiteMs > desde && limiteMs <= instanteMs) ? limiteMs : desde;
+    }
+
+    // El cambio más cercano después del instante, si cae dentro del minuto
+    private static long limiteSiguiente(long hasta, long limiteMs, long instanteMs) {
+        return (limiteMs > instanteMs && limiteMs < hasta) ? limiteMs : hasta;
+    }
+
+    private int calcularPorcentaje(long instanteMs) {
+        ZonedDateTime momento = ZonedDateTime.ofInstant(Instant.ofEpochMilli(instanteMs), zona);
+        int minutoDelDia = momento.getHour() * 60 + momento.getMinute();
+        int dia = 1 << (momento.getDayOfWeek().getValue() - 1);
+
+        int mayorDescuento = 0;
+        for (Promocion promo : promociones) {
+            if (promo.aplica(instanteMs, minutoDelDia, dia)) {
+                mayorDescuento = Math.max(mayorDescuento, promo.descuento);
+            }
+        }
+        return 100 - mayorDescuento;
+    }
+
+    // =========================================================
+    // Armado (lo usa quien lee el archivo de precios)
+    // =========================================================
+
+    /**
+     * Acumula las reglas tal como vienen del archivo; compilar arma las tablas.
+     */
+    public static final class Compilador {
+        private long version;
+        private long base;
+        private final Map<String, Long> masas = new LinkedHashMap<>();
+        private final Map<String, Long> salsas = new LinkedHashMap<>();
+        private final Map<String, Long> quesos = new LinkedHashMap<>();
+        private final Map<String, Long> orillas = new LinkedHashMap<>();
+        private final Map<String, Long> ingredientes = new LinkedHashMap<>();
+        private final Map<String, Long> condimentos = new LinkedHashMap<>();
+        private long ingredientePorDefecto;
+        private long condimentoPorDefecto;
+        private final List<Combo> combos = new ArrayList<>();
+        private final List<Promocion> promociones = new ArrayList<>();
+        private ZoneId zona = ZoneId.systemDefault();
+
+        public Compilador version(long version) { this.version = version; return this; }
+        public Compilador base(long centavos) { this.base = centavos; return this; }
+        public Compilador masa(String nombre, long centavos) { return poner(masas, nombre, centavos); }
+        public Compilador salsa(String nombre, long centavos) { return poner(salsas, nombre, centavos); }
+        public Compilador queso(String nombre, long centavos) { return poner(quesos, nombre, centavos); }
+        public Compilador orilla(String nombre, long centavos) { return poner(orillas, nombre, centavos); }
+        public Compilador ingrediente(String nombre, long centavos) { return poner(ingredientes, nombre, centavos); }
+        public Compilador condimento(String nombre, long centavos) { return poner(condimentos, nombre, centavos); }
+        public Compilador ingredientePorDefecto(long centavos) { this.ingredientePorDefecto = centavos; return this; }
+        public Compilador condimentoPorDefecto(long centavos) { this.condimentoPorDefecto = centavos; return this; }
+        public Compilador zona(ZoneId zona) { this.zona = zona; return this; }
+
+        /** Si la pizza lleva todos esos ingredientes, se descuenta el monto (una vez). */
+        public Compilador combo(String nombre, long descuento, List<String> ingredientes) {
+            if (ingredientes.isEmpty()) throw new IllegalArgumentException("Combo sin ingredientes: " + nombre);
+            combos.add(new Combo(descuento, List.copyOf(ingredientes)));
+            return this;
+        }
+
+        /**
+         * Descuento porcentual entre dos instantes (Long.MIN_VALUE/MAX_VALUE = sin límite),
+         * en una franja diaria [minutoDesde, minutoHasta) (-1 = todo el día) y ciertos días.
+         */
+        public Compilador promocion(String nombre, int descuento, long desdeMs, long hastaMs,
+                                    int minutoDesde, int minutoHasta, int dias) {
+            if (descuento < 0 || descuento > 100) {
+                throw new IllegalArgumentException("Descuento fuera de rango en " + nombre + ": " + descuento);
+            }
+            promociones.add(new Promocion(descuento, desdeMs, hastaMs, minutoDesde, minutoHasta, dias));
+            return this;
+        }
+
+        private Compilador poner(Map<String, Long> tabla, String nombre, long centavos) {
+            tabla.put(TablaNombres.normalizar(nombre), centavos);
+            return this;
+        }
+
+        TarifaPrecios compilar(long version) {
+            return new TarifaPrecios(this, version);
+        }
+    }
+
+    /** Bits de día (lunes = 1) para promocion(). */
+    public static int bitDia(DayOfWeek dia) {
+        return 1 << (dia.getValue() - 1);
+    }
+
+    private static final class Combo {
+        final long descuento;
+        final List<String> ingredientes;
+
+        Combo(long descuento, List<String> ingredientes) {
+            this.descuento = descuento;
+            this.ingredientes = ingredientes;
+        }
+    }
+
+    private static final class Promocion {
+        final int descuento;
+        final long desdeMs;
+        final long hastaMs;
+        final int minutoDesde;
+        final int minutoHasta;
+        final int dias;
+
+        Promocion(int descuento, long desdeMs, long hastaMs, int minutoDesde, int minutoHasta, int dias) {
+            this.descuento = descuento;
+            this.desdeMs = desdeMs;
+            this.hastaMs = hastaMs;
+            this.minutoDesde = minutoDesde;
+            this.minutoHasta = minutoHasta;
+            this.dias = dias;
+        }
+
+        boolean aplica(long instanteMs, int minutoDelDia, int dia) {
+            if (instanteMs < desdeMs || instanteMs >= hastaMs) return false;
+            if ((dias & dia) == 0) return false;
+            if (minutoDesde < 0) return true;
+            if (minutoDesde <= minutoHasta) {
+                return minutoDelDia >= minutoDesde && minutoDelDia < minutoHasta;
+            }
+            // Franja que cruza la medianoche (ej. 22:00-02:00)
+            return minutoDelDia >= minutoDesde || minutoDelDia < minutoHasta;
+        }
+    }
+
+    private static final class PorcentajeVigente {
+        final long desdeMs;
+        final long hastaMs;
+        final int porciento;
+
+        PorcentajeVigente(long desdeMs, long hastaMs, int porciento) {
+            this.desdeMs = desdeMs;
+            this.hastaMs = hastaMs;
+            this.porciento = porciento;
+        }
+    }
+
+    /**
+     * Tabla nombre -> precio con direccionamiento abierto. Las claves se
+     * guardan normalizadas y la búsqueda normaliza "al vuelo" mientras
+     * calcula el hash, sin crear Strings.
+     *
+     * Como normalizar recorre el texto varias veces, delante hay una memoria
+     * chica de correspondencia directa por el hashCode del texto tal cual
+     * (que el String ya trae calculado): las etiquetas de la pantalla son
+     * siempre las mismas, así que casi todo se resuelve con un equals.
+     */
+    static final class TablaNombres {
+        private static final int ALIAS = 128;
+
+        private final String[] claves;
+        final long[] precios;
+        final long[] bits;
+        private final int mascara;
+        private final boolean vacia;
+
+        // Escritura sin bloqueo: Alias es inmutable, un lector ve null o la entrada completa
+        private final Alias[] alias = new Alias[ALIAS];
+
+        private static final class Alias {
+            final String texto;
+            final int pos;
+
+            Alias(String texto, int pos) {
+                this.texto = texto;
+                this.pos = pos;
+            }
+        }
+
+        TablaNombres(Map<String, Long> entradas, Map<String, Integer> bitsPorClave) {
+            int capacidad = Integer.highestOneBit(Math.max(4, entradas.size() * 3)) << 1;
+            this.claves = new String[capacidad];
+            this.precios = new long[capacidad];
+            this.bits = new long[capacidad];
+            this.mascara = capacidad - 1;
+            this.vacia = entradas.isEmpty();
+            for (Map.Entry<String, Long> e : entradas.entrySet()) {
+                int pos = hash(e.getKey()) & mascara;
+                while (claves[pos] != null) pos = (pos + 1) & mascara;
+                claves[pos] = e.getKey();
+                precios[pos] = e.getValue();
+                Integer bit = (bitsPorClave == null) ? null : bitsPorClave.get(e.getKey());
+                bits[pos] = (bit == null) ? 0 : 1L << bit;
+            }
+        }
+
+        long precio(String nombre, long siNoEsta) {
+            int pos = buscar(nombre);
+            return (pos < 0) ? siNoEsta : precios[pos];
+        }
+
+        int buscar(String nombre) {
+            if (vacia || nombre == null) return -1;
+            int h = nombre.hashCode();
+            int ranura = (h ^ (h >>> 16)) & (ALIAS - 1);
+            Alias a = alias[ranura];
+            if (a != null && (a.texto == nombre || a.texto.equals(nombre))) return a.pos;
+
+            int pos = buscarNormalizado(nombre);
+            alias[ranura] = new Alias(nombre, pos);
+            return pos;
+        }
+
+        private int buscarNormalizado(String nombre) {
+            int pos = hash(nombre) & mascara;
+            String clave;
+            while ((clave = claves[pos]) != null) {
+                if (igual(clave, nombre)) return pos;
+                pos = (pos + 1) & mascara;
+            }
+            return -1;
+        }
+
+        /** Minúsculas, sin espacios de los extremos y sin "(...)" del final. */
+        static String normalizar(String nombre) {
+            int ini = inicio(nombre);
+            int fin = fin(nombre, ini);
+            StringBuilder sb = new StringBuilder(fin - ini);
+            for (int i = ini; i < fin; i++) sb.append(Character.toLowerCase(nombre.charAt(i)));
+            return sb.toString();
+        }
+
+        private static int hash(String nombre) {
+            int ini = inicio(nombre);
+            int fin = fin(nombre, ini);
+            int h = 0;
+            for (int i = ini; i < fin; i++) h = 31 * h + Character.toLowerCase(nombre.charAt(i));
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean igual(String clave, String nombre) {
+            int ini = inicio(nombre);
+            int fin = fin(nombre, ini);
+            if (fin - ini != clave.length()) return false;
+            for (int i = ini; i < fin; i++) {
+                if (clave.charAt(i - ini) != Character.toLowerCase(nombre.charAt(i))) return false;
+            }
+            return true;
+        }
+
+        private static int inicio(String s) {
+            int i = 0;
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+            return i;
+        }
+
+        private static int fin(String s, int ini) {
+            int fin = s.indexOf('(', ini);
+            if (fin < 0) fin = s.length();
+            while (fin > ini && Character.isWhitespace(s.charAt(fin - 1))) fin--;
+            return fin;
+        }
+    }
+}
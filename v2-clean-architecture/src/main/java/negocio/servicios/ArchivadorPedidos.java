@@ -0,0 +1,101 @@
+package negocio.servicios;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import negocio.abstractas.CodigoEstado;
+import negocio.abstractas.ObservadorCambiosPedidos;
+import negocio.modelo.Pedido;
+import persistencia.ArchivoPedidos;
+
+/**
+ * Pasa al archivo frío (ArchivoPedidos) los pedidos que llevan cierto tiempo
+ * finalizados y los saca de memoria.
+ *
+ * El momento de finalización viaja con el pedido (Pedido.getFinalizadoEnMs)
+ * y se guarda en el almacén, así que un reinicio no lo pierde: la espera se
+ * cuenta desde ahí y el segmento es el del día en que se finalizó. Un pedido
+ * finalizado de un archivo anterior a ese campo no tiene momento conocido:
+ * se archiva en la primera pasada, en el segmento del día de esa pasada.
+ *
+ * Orden de un archivado: 1) se escribe el segmento del día, 2) se sacan de
+ * memoria, 3) el llamador reescribe el almacén (snapshot) sin ellos.
+ */
+final class ArchivadorPedidos implements ObservadorCambiosPedidos {
+
+    private final GestorPedidos gestor;
+    private final ArchivoPedidos archivo;
+    private final long esperaMs;
+
+    // id -> momento en que se finalizó (ms); SIN_MOMENTO si no se sabe
+    private final Map<Integer, Long> finalizadosEn = new ConcurrentHashMap<>();
+
+    private static final long SIN_MOMENTO = 0L;
+
+    ArchivadorPedidos(GestorPedidos gestor, ArchivoPedidos archivo, long esperaMs) {
+        this.gestor = gestor;
+        this.archivo = archivo;
+        this.esperaMs = Math.max(0, esperaMs);
+    }
+
+    /** Toma los pedidos finalizados que ya están en memoria (cargados del disco). */
+    void registrarFinalizadosExistentes() {
+        for (CodigoEstado estado : CodigoEstado.values()) {
+            if (!estado.esFinal()) continue;
+            for (Pedido p : gestor.getPedidosEnEstado(estado)) {
+                finalizadosEn.putIfAbsent(p.getId(), p.getFinalizadoEnMs());
+            }
+        }
+    }
+
+    @Override
+    public void pedidoRegistrado(Pedido pedido) {
+        if (pedido.esFinalizado()) finalizadosEn.putIfAbsent(pedido.getId(), pedido.getFinalizadoEnMs());
+    }
+
+    @Override
+    public void estadoCambiado(Pedido pedido, CodigoEstado estadoAnterior) {
+        if (pedido.esFinalizado()) finalizadosEn.putIfAbsent(pedido.getId(), pedido.getFinalizadoEnMs());
+    }
+
+    /**
+     * Archiva los pedidos finalizados hace más de 'esperaMs', agrupados por
+     * el día en que se finalizaron (los de momento desconocido, en el de 'ahora').
+     * @return Cantidad de pedidos que salieron de memoria.
+     */
+    synchronized int archivarVencidos(long ahora) {
+        long limite = ahora - esperaMs;
+        Map<LocalDate, List<Pedido>> porDia = new TreeMap<>();
+        for (Map.Entry<Integer, Long> e : finalizadosEn.entrySet()) {
+            if (e.getValue() > limite) continue;
+            Pedido p = gestor.buscarEnMemoria(e.getKey());
+            if (p == null) {
+                finalizadosEn.remove(e.getKey());   // ya no está en memoria
+                continue;
+            }
+            long momento = (e.getValue() == SIN_MOMENTO) ? ahora : e.getValue();
+            LocalDate dia = Instant.ofEpochMilli(momento).atZone(ZoneId.systemDefault()).toLocalDate();
+            porDia.computeIfAbsent(dia, d -> new ArrayList<>()).add(p);
+        }
+
+        int archivados = 0;
+        for (Map.Entry<LocalDate, List<Pedido>> e : porDia.entrySet()) {
+            List<Pedido> pedidos = e.getValue();
+            pedidos.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+            // Si no se pudo escribir, se quedan en memoria y se reintenta la próxima vez
+            if (!archivo.anexar(e.getKey(), pedidos)) continue;
+
+            archivados += gestor.quitarFinalizados(pedidos);
+            for (Pedido p : pedidos) {
+                finalizadosEn.remove(p.getId());
+            }
+        }
+        return archivados;
+    }
+}
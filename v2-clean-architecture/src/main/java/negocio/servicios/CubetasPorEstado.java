@@ -0,0 +1,117 @@
+package negocio.servicios;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import negocio.abstractas.CodigoEstado;
+import negocio.modelo.Pedido;
+
+/**
+ * Índices secundarios por estado: una "cubeta" por cada estado del pedido,
+ * ordenada por id, más un contador por cubeta. Se indexan por el ordinal
+ * de CodigoEstado (sin comparar cadenas).
+ *
+ * Cada cubeta lleva además una versión que sube en cada alta, baja o cambio
+ * de total de uno de sus pedidos: quien ya mostró una cubeta puede saber si
+ * hace falta volver a leerla sin copiarla ni compararla fila por fila.
+ *
+ * GestorPedidos la actualiza en cada alta y en cada transición, así el tablero
+ * puede pedir una sola columna y el pie de página puede contar los activos
+ * en O(1), sin recorrer todo el historial.
+ */
+final class CubetasPorEstado {
+
+    private static final int CANTIDAD = CodigoEstado.values().length;
+
+    private static final Comparator<Pedido> POR_ID = Comparator.comparingInt(Pedido::getId);
+
+    private final List<ConcurrentSkipListSet<Pedido>> cubetas = new ArrayList<>(CANTIDAD);
+    private final AtomicInteger[] conteos = new AtomicInteger[CANTIDAD];
+    private final AtomicLong[] versiones = new AtomicLong[CANTIDAD];
+
+    CubetasPorEstado() {
+        for (int i = 0; i < CANTIDAD; i++) {
+            cubetas.add(new ConcurrentSkipListSet<>(POR_ID));
+            conteos[i] = new AtomicInteger();
+            versiones[i] = new AtomicLong();
+        }
+    }
+
+    void agregar(Pedido pedido) {
+        int i = pedido.getCodigoEstado().ordinal();
+        if (cubetas.get(i).add(pedido)) {
+            conteos[i].incrementAndGet();
+            versiones[i].incrementAndGet();
+        }
+    }
+
+    /**
+     * Mueve el pedido de la cubeta de su estado anterior a la del actual.
+     */
+    void mover(Pedido pedido, CodigoEstado estadoAnterior) {
+        int desde = estadoAnterior.ordinal();
+        int hacia = pedido.getCodigoEstado().ordinal();
+        if (desde == hacia) return;
+
+        if (cubetas.get(desde).remove(pedido)) {
+            conteos[desde].decrementAndGet();
+            versiones[desde].incrementAndGet();
+        }
+        if (cubetas.get(hacia).add(pedido)) {
+            conteos[hacia].incrementAndGet();
+            versiones[hacia].incrementAndGet();
+        }
+    }
+
+    /**
+     * Un pedido de la cubeta cambió sin moverse (por ejemplo, su total).
+     */
+    void tocar(Pedido pedido) {
+        versiones[pedido.getCodigoEstado().ordinal()].incrementAndGet();
+    }
+
+    /**
+     * Saca el pedido de la cubeta de su estado (al archivarlo).
+     */
+    void quitar(Pedido pedido) {
+        int i = pedido.getCodigoEstado().ordinal();
+        if (cubetas.get(i).remove(pedido)) {
+            conteos[i].decrementAndGet();
+            versiones[i].incrementAndGet();
+        }
+    }
+
+    /**
+     * Copia ordenada por id de los pedidos que hoy están en ese estado.
+     */
+    List<Pedido> contenido(CodigoEstado estado) {
+        return new ArrayList<>(cubetas.get(estado.ordinal()));
+    }
+
+    /**
+     * Sube con cada cambio de la cubeta. Leerla ANTES de contenido(): si algo
+     * cambia en el medio, la próxima lectura ya no coincide.
+     */
+    long version(CodigoEstado estado) {
+        return versiones[estado.ordinal()].get();
+    }
+
+    int contar(CodigoEstado estado) {
+        return conteos[estado.ordinal()].get();
+    }
+
+    /**
+     * Pedidos no finalizados (ni ENTREGADO ni CANCELADO).
+     */
+    int contarActivos() {
+        int activos = 0;
+        for (int i = 0; i < conteos.length; i++) {
+            if (!CodigoEstado.porOrdinal(i).esFinal()) activos += conteos[i].get();
+        }
+        return activos;
+    }
+}
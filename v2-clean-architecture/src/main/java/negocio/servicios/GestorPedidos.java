@@ -1,12 +1,20 @@
 package negocio.servicios;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import negocio.patrones.state.EstadoCancelado;
+import negocio.abstractas.CodigoEstado;
 import negocio.abstractas.EstrategiaPrecio;
-import negocio.abstractas.EstadoPedido;
+import negocio.abstractas.ObservadorCambiosPedidos;
+import negocio.abstractas.ProveedorPedidosHistoricos;
+import negocio.modelo.LotePizzas;
 import negocio.modelo.Pedido;
 import negocio.modelo.Pizza;
 import negocio.patrones.strategy.PrecioEstandar;
@@ -15,23 +23,64 @@ import negocio.patrones.strategy.PrecioEstandar;
  * Patrón Singleton
  * RESPONSABILIDAD: Mantener pedidos en MEMORIA y operar con OBJETOS (tiempo real).
  * La persistencia (TXT) se hace en ServicioPedidos.
+ *
+ * Es seguro entre hilos (varias terminales en la misma JVM):
+ * - los IDs salen de un contador atómico;
+ * - leer la lista (getPedidos) no bloquea a quien está dando de alta;
+ * - los cambios de estado toman un candado por "franja" de IDs, así que
+ *   avanzar dos pedidos distintos no compite por el mismo candado.
+ *
+ * Los cambios de estado deben pasar por avanzarEstado/cancelarPedido para
+ * que las cubetas por estado se mantengan al día.
  */
 public class GestorPedidos {
 
-    private static GestorPedidos instancia;
+    // Cantidad de candados para cambios de estado (potencia de 2).
+    // Los pedidos activos tienen IDs cercanos, así que caen en franjas distintas.
+    private static final int FRANJAS = 256;
 
-    private final List<Pedido> pedidos = new ArrayList<>();
-    private int siguienteId = 1;
+    // Inicialización perezosa y segura entre hilos (holder idiom)
+    private static class Contenedor {
+        private static final GestorPedidos INSTANCIA = new GestorPedidos();
+    }
 
-    private EstrategiaPrecio estrategia = new PrecioEstandar();
+    private final ListaPedidosConcurrente pedidos = new ListaPedidosConcurrente();
+    // Índice por id (O(1)); la lista de arriba conserva el orden de llegada
+    private final IndicePedidos indice = new IndicePedidos();
+    // Pedidos agrupados por estado (tablero de cocina y conteo de activos)
+    private final CubetasPorEstado cubetas = new CubetasPorEstado();
+    private final AtomicInteger siguienteId = new AtomicInteger(1);
 
-    private GestorPedidos() {}
+    private final ReentrantLock[] candados = new ReentrantLock[FRANJAS];
 
-    public static GestorPedidos getInstancia() {
-        if (instancia == null) {
-            instancia = new GestorPedidos();
+    private volatile EstrategiaPrecio estrategia = new PrecioEstandar();
+
+    // Pedidos que no se cargaron en memoria (finalizados en disco); null = todo está cargado
+    private volatile ProveedorPedidosHistoricos historico;
+
+    // Feed de cambios (altas y transiciones) para quien necesite todo el tablero
+    private final List<ObservadorCambiosPedidos> observadoresCambios = new CopyOnWriteArrayList<>();
+
+    private GestorPedidos() {
+        for (int i = 0; i < FRANJAS; i++) {
+            candados[i] = new ReentrantLock();
         }
-        return instancia;
+    }
+
+    public static GestorPedidos getInstancia() {
+        return Contenedor.INSTANCIA;
+    }
+
+    /**
+     * Gestor nuevo y vacío, independiente del Singleton.
+     * Solo para benchmarks y pruebas: no comparte pedidos con la aplicación.
+     */
+    public static GestorPedidos crearInstanciaAislada() {
+        return new GestorPedidos();
+    }
+
+    public EstrategiaPrecio getEstrategia() {
+        return estrategia;
     }
 
     public void setEstrategia(EstrategiaPrecio estrategia) {
@@ -45,10 +94,25 @@ public class GestorPedidos {
      * Calcula total con Strategy y asigna ID incremental.
      */
     public Pedido registrarPedido(Pizza pizza) {
-        double total = estrategia.calcularTotal(pizza);
+        return registrarPedido(pizza, estrategia.calcularTotalCentavos(pizza));
+    }
+
+    /**
+     * Igual, con el total ya calculado (pizzas de la casa, que guardan su
+     * precio con la estrategia vigente).
+     */
+    public Pedido registrarPedido(Pizza pizza, long total) {
         Pedido pedido = new Pedido(pizza, total);
-        pedido.setId(siguienteId++);
-        pedidos.add(pedido);
+        pedido.setId(siguienteId.getAndIncrement());
+        agregar(pedido);
+
+        for (ObservadorCambiosPedidos o : observadoresCambios) {
+            try {
+                o.pedidoRegistrado(pedido);
+            } catch (Exception ex) {
+                System.err.println("Error notificando alta: " + ex.getMessage());
+            }
+        }
         return pedido;
     }
 
@@ -59,60 +123,247 @@ public class GestorPedidos {
     public void registrarPedidoExistente(Pedido pedido) {
         if (pedido == null) return;
 
-        pedidos.add(pedido);
+        Pedido anterior = indice.buscar(pedido.getId());
+        if (anterior == pedido) return;
+        if (anterior != null) {
+            // Id repetido: gana el último, como al cargar. La cubeta compara por
+            // id, así que sin quitar el viejo el nuevo no entraría (o quedarían
+            // los dos si están en estados distintos)
+            pedidos.quitar(Set.of(pedido.getId()));
+            cubetas.quitar(anterior);
+        }
+        agregar(pedido);
+
+        // El siguiente ID nunca baja (marca de agua)
+        siguienteId.accumulateAndGet(pedido.getId() + 1, Math::max);
+    }
 
-        if (pedido.getId() >= siguienteId) {
-            siguienteId = pedido.getId() + 1;
+    /**
+     * Conecta el acceso a los pedidos que quedaron en disco: buscarPorId los
+     * encuentra aunque no estén en memoria, y los ids nuevos no los pisan.
+     */
+    public void setProveedorHistorico(ProveedorPedidosHistoricos proveedor) {
+        this.historico = proveedor;
+        if (proveedor != null) {
+            siguienteId.accumulateAndGet(proveedor.getIdMaximo() + 1, Math::max);
         }
     }
 
+    private void agregar(Pedido pedido) {
+        // Primero al índice: todo lo que se ve en la lista ya se puede buscar por id
+        indice.guardar(pedido.getId(), pedido);
+        pedidos.agregar(pedido);
+        cubetas.agregar(pedido);
+    }
+
+    /**
+     * Busca primero en memoria; si no está, en los pedidos históricos (disco).
+     * Un pedido histórico ya está finalizado: avanzarlo o cancelarlo no hace nada.
+     */
     public Pedido buscarPorId(int id) {
-        for (Pedido p : pedidos) {
-            if (p.getId() == id) return p;
+        Pedido p = indice.buscar(id);
+        if (p == null) {
+            ProveedorPedidosHistoricos h = historico;
+            if (h != null) p = h.buscarPorId(id);
         }
-        return null;
+        return p;
+    }
+
+    /** Solo entre los pedidos en memoria (sin ir al histórico). */
+    public Pedido buscarEnMemoria(int id) {
+        return indice.buscar(id);
     }
 
     /**
      * Avanza el estado si el pedido existe y NO está finalizado (ENTREGADO/CANCELADO).
+     * @return true si hubo transición (solo entonces hay algo que guardar).
      */
-    public void avanzarEstado(int idPedido) {
-        Pedido p = buscarPorId(idPedido);
-        if (p == null) return;
+    public boolean avanzarEstado(int idPedido) {
+        Pedido p = indice.buscar(idPedido);
+        if (p == null) return false;
 
-        if (p.esFinalizado()) return;
+        CodigoEstado anterior;
+        ReentrantLock candado = candadoDe(idPedido);
+        candado.lock();
+        try {
+            if (p.esFinalizado()) return false;
 
-        p.avanzarEstado(); // aquí ya notifica observadores
+            anterior = p.getCodigoEstado();
+            p.avanzarEstado(); // aquí ya notifica observadores
+            cubetas.mover(p, anterior);
+        } finally {
+            candado.unlock();
+        }
+        notificarCambioEstado(p, anterior);
+        return true;
     }
 
     /**
      * Cancela el pedido (solo si no está ya finalizado).
      * Esto dispara notificación porque setEstadoActual notifica.
+     * @return true si se canceló (false si no está en memoria o ya estaba finalizado).
      */
-    public void cancelarPedido(int idPedido) {
-    Pedido p = buscarPorId(idPedido);
-    if (p == null) return;
+    public boolean cancelarPedido(int idPedido) {
+        Pedido p = indice.buscar(idPedido);
+        if (p == null) return false;
 
-    if (p.esFinalizado()) return;
+        CodigoEstado anterior;
+        ReentrantLock candado = candadoDe(idPedido);
+        candado.lock();
+        try {
+            if (p.esFinalizado()) return false;
 
-    p.setEstadoActual(new EstadoCancelado());
-}
+            anterior = p.getCodigoEstado();
+            p.setEstadoActual(EstadoCancelado.INSTANCIA);
+            cubetas.mover(p, anterior);
+        } finally {
+            candado.unlock();
+        }
+        notificarCambioEstado(p, anterior);
+        return true;
+    }
+
+    /**
+     * Vuelve a calcular el total de todos los pedidos no finalizados con la
+     * estrategia indicada. Los precios se calculan en lote fuera de los
+     * candados; después se toman TODOS los candados (siempre en el mismo
+     * orden) y los totales se aplican juntos: ninguna terminal avanza ni
+     * cancela un pedido a mitad del cambio, y uno que se finalizó mientras
+     * tanto conserva su total.
+     * @return Los pedidos cuyo total cambió.
+     */
+    public List<Pedido> repreciarActivos(EstrategiaPrecio estrategia) {
+        List<Pedido> activos = new ArrayList<>();
+        for (CodigoEstado estado : CodigoEstado.values()) {
+            if (!estado.esFinal()) activos.addAll(cubetas.contenido(estado));
+        }
+        if (activos.isEmpty()) return List.of();
 
+        List<Pizza> pizzas = new ArrayList<>(activos.size());
+        for (Pedido p : activos) pizzas.add(p.getPizza());
+        long[] totales = estrategia.calcularTotalesCentavos(LotePizzas.de(pizzas));
 
+        List<Pedido> cambiados = new ArrayList<>();
+        long[] anteriores = new long[activos.size()];
+        for (ReentrantLock c : candados) c.lock();
+        try {
+            for (int i = 0; i < activos.size(); i++) {
+                Pedido p = activos.get(i);
+                long anterior = p.getTotalCentavos();
+                if (p.esFinalizado() || anterior == totales[i]) continue;
+                anteriores[cambiados.size()] = anterior;
+                p.setTotalCentavos(totales[i]);
+                cubetas.tocar(p);
+                cambiados.add(p);
+            }
+        } finally {
+            for (int i = candados.length - 1; i >= 0; i--) candados[i].unlock();
+        }
+
+        for (int i = 0; i < cambiados.size(); i++) {
+            notificarCambioTotal(cambiados.get(i), anteriores[i]);
+        }
+        return cambiados;
+    }
+
+    /**
+     * Saca de memoria pedidos finalizados que ya quedaron guardados en otro
+     * lado (archivo histórico). Los que no estén finalizados se ignoran.
+     * Primero salen de la lista y de las cubetas, al final del índice: lo que
+     * todavía se ve en la lista se puede seguir buscando por id.
+     * @return Cantidad de pedidos quitados.
+     */
+    public int quitarFinalizados(Collection<Pedido> salientes) {
+        Set<Integer> ids = new HashSet<>();
+        for (Pedido p : salientes) {
+            if (p != null && p.esFinalizado() && indice.buscar(p.getId()) == p) {
+                ids.add(p.getId());
+            }
+        }
+        if (ids.isEmpty()) return 0;
+
+        pedidos.quitar(ids);
+        for (Pedido p : salientes) {
+            if (ids.contains(p.getId())) cubetas.quitar(p);
+        }
+        for (Integer id : ids) {
+            indice.quitar(id);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Instantánea inmutable de los pedidos en orden de llegada.
+     * Se puede recorrer desde cualquier hilo sin bloquear a quien da de alta.
+     */
     public List<Pedido> getPedidos() {
-        return Collections.unmodifiableList(pedidos);
+        return pedidos.instantanea();
     }
 
-    // ===== Estado interno CANCELADO (sin archivo aquí) =====
-    private static class EstadoCancelado implements EstadoPedido {
-        @Override
-        public void avanzar(Pedido pedido) {
-            // Cancelado no avanza
+    /**
+     * Pedidos que hoy están en ese estado, ordenados por id.
+     * Solo recorre esa cubeta, no todo el historial.
+     */
+    public List<Pedido> getPedidosEnEstado(CodigoEstado estado) {
+        return cubetas.contenido(estado);
+    }
+
+    /**
+     * Versión de la cubeta de ese estado: cambia con cada alta, baja,
+     * transición o cambio de total de sus pedidos.
+     */
+    public long versionEstado(CodigoEstado estado) {
+        return cubetas.version(estado);
+    }
+
+    public int contarEnEstado(CodigoEstado estado) {
+        return cubetas.contar(estado);
+    }
+
+    /**
+     * Cantidad de pedidos no finalizados, en O(1).
+     */
+    public int contarActivos() {
+        return cubetas.contarActivos();
+    }
+
+    // =========================================================
+    // Feed de cambios
+    // =========================================================
+
+    public void agregarObservadorCambios(ObservadorCambiosPedidos o) {
+        if (o != null) observadoresCambios.add(o);
+    }
+
+    public void quitarObservadorCambios(ObservadorCambiosPedidos o) {
+        if (o != null) observadoresCambios.remove(o);
+    }
+
+    /**
+     * Se llama fuera del candado del pedido: un observador lento no
+     * retrasa a otra terminal que quiera mover el mismo pedido.
+     */
+    private void notificarCambioEstado(Pedido p, CodigoEstado anterior) {
+        for (ObservadorCambiosPedidos o : observadoresCambios) {
+            try {
+                o.estadoCambiado(p, anterior);
+            } catch (Exception ex) {
+                System.err.println("Error notificando cambio de estado: " + ex.getMessage());
+            }
         }
+    }
 
-        @Override
-        public String getNombreEstado() {
-            return "CANCELADO";
+    private void notificarCambioTotal(Pedido p, long anterior) {
+        for (ObservadorCambiosPedidos o : observadoresCambios) {
+            try {
+                o.totalCambiado(p, anterior);
+            } catch (Exception ex) {
+                System.err.println("Error notificando cambio de total: " + ex.getMessage());
+            }
         }
     }
+
+    private ReentrantLock candadoDe(int idPedido) {
+        return candados[idPedido & (FRANJAS - 1)];
+    }
 }
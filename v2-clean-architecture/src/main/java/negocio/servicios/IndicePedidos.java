@@ -0,0 +1,187 @@
+package negocio.servicios;
+
+import java.util.concurrent.locks.StampedLock;
+
+import negocio.modelo.Pedido;
+
+/**
+ * Índice id -> Pedido con direccionamiento abierto (sondeo lineal).
+ *
+ * Las claves se guardan como int primitivos (sin cajas Integer), así que
+ * buscar un pedido es O(1) y no genera basura. Un hueco libre se reconoce
+ * porque su valor es null.
+ *
+ * Es seguro entre hilos: las escrituras toman un StampedLock y las lecturas
+ * son optimistas (no bloquean); solo si una escritura se cruzó se repite
+ * la lectura con candado.
+ */
+public final class IndicePedidos {
+
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    /** Arreglos + máscara juntos, para que un lector siempre vea una combinación coherente. */
+    private static final class Tabla {
+        final int[] claves;
+        final Pedido[] valores;
+        final int mascara;
+
+        Tabla(int capacidad) {
+            this.claves = new int[capacidad];
+            this.valores = new Pedido[capacidad];
+            this.mascara = capacidad - 1;
+        }
+    }
+
+    private final StampedLock candado = new StampedLock();
+    private volatile Tabla tabla;
+    private int tamano;
+
+    public IndicePedidos() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    public IndicePedidos(int capacidadEsperada) {
+        this.tabla = new Tabla(potenciaDeDos(Math.max(CAPACIDAD_INICIAL, capacidadEsperada * 2)));
+    }
+
+    public Pedido buscar(int id) {
+        long sello = candado.tryOptimisticRead();
+        Pedido encontrado = buscarEn(tabla, id);
+        if (candado.validate(sello)) {
+            return encontrado;
+        }
+
+        sello = candado.readLock();
+        try {
+            return buscarEn(tabla, id);
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Agrega o reemplaza el pedido con ese id.
+     */
+    public void guardar(int id, Pedido pedido) {
+        if (pedido == null) return;
+
+        long sello = candado.writeLock();
+        try {
+            Tabla t = tabla;
+            int i = posicion(id, t.mascara);
+            while (t.valores[i] != null) {
+                if (t.claves[i] == id) {
+                    t.valores[i] = pedido;
+                    return;
+                }
+                i = (i + 1) & t.mascara;
+            }
+            t.claves[i] = id;
+            t.valores[i] = pedido;
+
+            // Factor de carga máximo 0.5: los sondeos se mantienen cortos
+            if (++tamano * 2 > t.valores.length) {
+                tabla = redimensionar(t, t.valores.length * 2);
+            }
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Quita el pedido con ese id. Usa "borrado hacia atrás" para no dejar
+     * lápidas: se recorren las entradas siguientes y se reacomodan.
+     */
+    public Pedido quitar(int id) {
+        long sello = candado.writeLock();
+        try {
+            Tabla t = tabla;
+            int i = posicion(id, t.mascara);
+            Pedido v;
+            while ((v = t.valores[i]) != null) {
+                if (t.claves[i] == id) {
+                    cerrarHueco(t, i);
+                    tamano--;
+                    return v;
+                }
+                i = (i + 1) & t.mascara;
+            }
+            return null;
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    public int tamano() {
+        long sello = candado.readLock();
+        try {
+            return tamano;
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    // =========================================================
+    // Internos
+    // =========================================================
+
+    private static Pedido buscarEn(Tabla t, int id) {
+        int i = posicion(id, t.mascara);
+        // Como mucho se recorre la tabla una vez (una lectura optimista
+        // podría ver la tabla a medio modificar; validate() lo descarta)
+        for (int pasos = 0; pasos <= t.mascara; pasos++) {
+            Pedido v = t.valores[i];
+            if (v == null) return null;
+            if (t.claves[i] == id) return v;
+            i = (i + 1) & t.mascara;
+        }
+        return null;
+    }
+
+    private static void cerrarHueco(Tabla t, int hueco) {
+        int i = hueco;
+        while (true) {
+            i = (i + 1) & t.mascara;
+            Pedido v = t.valores[i];
+            if (v == null) break;
+
+            int ideal = posicion(t.claves[i], t.mascara);
+            // ¿La entrada en i puede moverse al hueco sin quedar antes de su posición ideal?
+            boolean mover = (hueco <= i)
+                    ? (ideal <= hueco || ideal > i)
+                    : (ideal <= hueco && ideal > i);
+            if (mover) {
+                t.claves[hueco] = t.claves[i];
+                t.valores[hueco] = v;
+                hueco = i;
+            }
+        }
+        t.valores[hueco] = null;
+    }
+
+    private static Tabla redimensionar(Tabla vieja, int capacidad) {
+        Tabla nueva = new Tabla(capacidad);
+        for (int j = 0; j < vieja.valores.length; j++) {
+            Pedido v = vieja.valores[j];
+            if (v == null) continue;
+            int i = posicion(vieja.claves[j], nueva.mascara);
+            while (nueva.valores[i] != null) {
+                i = (i + 1) & nueva.mascara;
+            }
+            nueva.claves[i] = vieja.claves[j];
+            nueva.valores[i] = v;
+        }
+        return nueva;
+    }
+
+    private static int posicion(int id, int mascara) {
+        // Mezcla de bits (Fibonacci) para que IDs consecutivos no se amontonen
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    private static int potenciaDeDos(int n) {
+        int p = Integer.highestOneBit(n);
+        return (p == n) ? p : p << 1;
+    }
+}
@@ -0,0 +1,100 @@
+package negocio.servicios;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import negocio.modelo.Pedido;
+
+/**
+ * Lista de pedidos en orden de llegada, pensada para muchos lectores
+ * y pocos escritores.
+ *
+ * - Agregar es O(1) amortizado y se serializa entre escritores.
+ * - Leer (instantanea) no bloquea nunca: se toma el contenido publicado en
+ *   ese momento (arreglo + tamaño, juntos) y se recorre sin candados. Lo que
+ *   se agregue o se quite después no aparece en esa instantánea, pero tampoco
+ *   la rompe.
+ * - Quitar (archivado) copia los que quedan a un arreglo nuevo: el arreglo
+ *   que ya tiene un lector nunca se compacta.
+ */
+final class ListaPedidosConcurrente {
+
+    /** Arreglo y tamaño publicados a la vez (una sola escritura volatile). */
+    private static final class Contenido {
+        final Pedido[] arr;
+        final int n;
+
+        Contenido(Pedido[] arr, int n) {
+            this.arr = arr;
+            this.n = n;
+        }
+    }
+
+    private volatile Contenido contenido = new Contenido(new Pedido[64], 0);
+
+    synchronized void agregar(Pedido pedido) {
+        Contenido c = contenido;
+        Pedido[] arr = c.arr;
+        if (c.n == arr.length) {
+            arr = Arrays.copyOf(arr, c.n * 2);
+        }
+        // Quien ya tiene el contenido anterior no mira más allá de su tamaño
+        arr[c.n] = pedido;
+        contenido = new Contenido(arr, c.n + 1);
+    }
+
+    /**
+     * Quita los pedidos con esos ids, conservando el orden de los demás.
+     * @return Cantidad de pedidos quitados.
+     */
+    synchronized int quitar(Set<Integer> ids) {
+        if (ids.isEmpty()) return 0;
+        Contenido c = contenido;
+        Pedido[] quedan = new Pedido[Math.max(64, c.arr.length)];
+        int m = 0;
+        for (int i = 0; i < c.n; i++) {
+            if (!ids.contains(c.arr[i].getId())) quedan[m++] = c.arr[i];
+        }
+        contenido = new Contenido(quedan, m);
+        return c.n - m;
+    }
+
+    int tamano() {
+        return contenido.n;
+    }
+
+    /**
+     * Vista inmutable de los pedidos existentes en este instante.
+     */
+    List<Pedido> instantanea() {
+        Contenido c = contenido;
+        return new Vista(c.arr, c.n);
+    }
+
+    private static final class Vista extends AbstractList<Pedido> implements RandomAccess {
+
+        private final Pedido[] arr;
+        private final int n;
+
+        Vista(Pedido[] arr, int n) {
+            this.arr = arr;
+            this.n = n;
+        }
+
+        @Override
+        public Pedido get(int index) {
+            if (index < 0 || index >= n) {
+                throw new IndexOutOfBoundsException("Índice " + index + ", tamaño " + n);
+            }
+            return arr[index];
+        }
+
+        @Override
+        public int size() {
+            return n;
+        }
+    }
+}
@@ -1,22 +1,46 @@
 package negocio.servicios;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 // Importaciones del modelo y abstractas
+import negocio.abstractas.CodigoEstado;
+import negocio.abstractas.EstrategiaPrecio;
+import negocio.abstractas.ObservadorCambiosPedidos;
+import negocio.abstractas.ObservadorPedido;
 import negocio.abstractas.PizzaBuilder;
+import negocio.abstractas.ProveedorPedidosHistoricos;
+import negocio.modelo.LotePizzas;
 import negocio.modelo.Pedido;
 import negocio.modelo.Pizza;
 
 // Importaciones de patrones
+import negocio.patrones.builder.DirectorConstructorPizza;
 import negocio.patrones.builder.PizzaPersonalizadaBuilder;
+import negocio.patrones.builder.PlantillaPizza;
 import negocio.patrones.observer.PanelControlEmpleado;
 import negocio.patrones.observer.PantallaEstadoCliente;
+import negocio.patrones.observer.RegistroSuscripciones;
+import negocio.patrones.strategy.PrecioConCache;
 import negocio.patrones.strategy.PrecioEstandar;
 import negocio.patrones.strategy.PrecioPromocion;
 
 // IMPORTANTE: Importamos los repositorios del paquete persistencia
-import persistencia.RepositorioPedidosTxt;
+import persistencia.ArchivoPedidos;
+import persistencia.ConfiguracionPersistencia;
+import persistencia.EscritorDiferido;
+import persistencia.EventoPedido;
+import persistencia.FabricaRepositorioPedidos;
+import persistencia.HistoricoPedidos;
+import persistencia.RepositorioPedidos;
+import persistencia.RepositorioPrecios;
 import persistencia.RepositorioTickets;
 
 /**
@@ -31,20 +55,61 @@ public class ServicioPedidos {
     private final GestorPedidos gestor = GestorPedidos.getInstancia();
     
     // Repositorios (Capa de datos)
-    private final RepositorioPedidosTxt repoPedidos;
+    // El de pedidos es compartido: lleva la cuenta de eventos de la bitácora
+    // y todas las pantallas escriben sobre el mismo archivo.
+    // (texto o binario según pizzeria.persistencia.formato)
+    private static final RepositorioPedidos repoPedidos = FabricaRepositorioPedidos.crear();
     private final RepositorioTickets repoTickets;
 
+    // Pedidos finalizados que quedaron en disco (modo de carga perezosa)
+    private static final HistoricoPedidos historico = new HistoricoPedidos();
+
+    // Archivo frío: los finalizados salen de memoria pasado un tiempo (un segmento por día)
+    private static final ArchivoPedidos archivo = new ArchivoPedidos();
+    private static ArchivadorPedidos archivador;
+
+    // Carta de precios (precios.txt); se recarga sola si cambia el archivo
+    private static final RepositorioPrecios repoPrecios = new RepositorioPrecios();
+
+    // Una instancia (con su caché) por estrategia: el preview y el alta de
+    // pedidos comparten los precios ya calculados
+    private static final EstrategiaPrecio PRECIO_ESTANDAR = conCache(new PrecioEstandar());
+    private static final EstrategiaPrecio PRECIO_PROMOCION = conCache(new PrecioPromocion());
+
+    // Tareas periódicas de fondo (archivado, fsync periódico y recarga de precios), un solo hilo
+    private static ScheduledExecutorService tareasFondo;
+    // Cuánto se espera al cerrar a que termine la tarea de fondo que esté corriendo
+    private static final long SEGUNDOS_ESPERA_TAREAS = 30;
+
+    // Escritura diferida (write-behind): la UI solo encola, el disco va en otro hilo
+    private static final EscritorDiferido escritor = crearEscritor();
+
+    // Observadores de consola: uno solo para todos los pedidos (antes se creaban
+    // dos por pedido y nunca se soltaban)
+    private static final ObservadorPedido PANTALLA_CLIENTE = new PantallaEstadoCliente();
+    private static final ObservadorPedido PANEL_EMPLEADO = new PanelControlEmpleado();
+
     // Bandera estática para cargar el archivo principal solo una vez por ejecución
     private static boolean pedidosCargadosDesdeArchivo = false;
 
     public ServicioPedidos() {
         // Inicializamos los repositorios
-        this.repoPedidos = new RepositorioPedidosTxt();
         this.repoTickets = new RepositorioTickets();
 
         // Al iniciar el servicio, verificamos si ya cargamos los datos del TXT principal
+        cargarPedidosUnaVez(gestor);
+    }
+
+    /**
+     * Sincronizado: si dos terminales abren su servicio a la vez,
+     * solo una lee el archivo.
+     */
+    private static synchronized void cargarPedidosUnaVez(GestorPedidos gestor) {
         if (!pedidosCargadosDesdeArchivo) {
             List<Pedido> pedidosDelDisco = repoPedidos.cargarPedidos();
+            if (ConfiguracionPersistencia.cargaPerezosa()) {
+                pedidosDelDisco = moverFinalizadosAlHistorico(pedidosDelDisco);
+            }
             
             // Los registramos en el Gestor de memoria como "existentes"
             for (Pedido p : pedidosDelDisco) {
@@ -52,10 +117,132 @@ public class ServicioPedidos {
                 // Opcional: Si quieres reactivar observadores al reiniciar
                 // p.agregarObservador(new PantallaEstadoCliente());
             }
+            // buscarPorId sigue encontrando los pedidos viejos (y los ids nuevos no los pisan)
+            gestor.setProveedorHistorico(ProveedorPedidosHistoricos.encadenar(historico, archivo));
+            iniciarArchivado(gestor);
+            iniciarCartaDePrecios();
+            iniciarFsyncPeriodico();
+            gestor.setEstrategia(PRECIO_ESTANDAR);
             pedidosCargadosDesdeArchivo = true;
         }
     }
 
+    /**
+     * Revisa cada minuto si hay pedidos finalizados para archivar
+     * (pizzeria.archivo.minutosTrasFinalizar; negativo = desactivado, que es lo que viene por defecto).
+     */
+    private static void iniciarArchivado(GestorPedidos gestor) {
+        long minutos = ConfiguracionPersistencia.minutosHastaArchivar();
+        if (minutos < 0) return;
+
+        archivador = new ArchivadorPedidos(gestor, archivo, TimeUnit.MINUTES.toMillis(minutos));
+        archivador.registrarFinalizadosExistentes();
+        gestor.agregarObservadorCambios(archivador);
+
+        tareasFondo().scheduleWithFixedDelay(ServicioPedidos::archivarFinalizados, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Lee precios.txt (si existe) y, según pizzeria.precios.recargaMs, revisa
+     * periódicamente si cambió para recargarlo sin reiniciar.
+     */
+    private static void iniciarCartaDePrecios() {
+        repoPrecios.cargar();
+
+        long cadaMs = ConfiguracionPersistencia.recargaPreciosMs();
+        if (cadaMs <= 0) return;
+        tareasFondo().scheduleWithFixedDelay(() -> {
+            try {
+                repoPrecios.recargarSiCambio();
+            } catch (RuntimeException ex) {
+                System.err.println("Error recargando precios: " + ex.getMessage());
+            }
+        }, cadaMs, cadaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Con fsync PERIODICO, fuerza a disco cada fsyncCadaMs lo que se anexó
+     * sin fsync (si después no se escribe nada más, nadie más lo haría).
+     */
+    private static void iniciarFsyncPeriodico() {
+        long cadaMs = ConfiguracionPersistencia.fsyncCadaMs();
+        if (ConfiguracionPersistencia.politicaFsync() != ConfiguracionPersistencia.PoliticaFsync.PERIODICO
+                || cadaMs <= 0) {
+            return;
+        }
+        tareasFondo().scheduleWithFixedDelay(() -> {
+            try {
+                repoPedidos.sincronizar();
+            } catch (RuntimeException ex) {
+                System.err.println("Error en fsync periódico: " + ex.getMessage());
+            }
+        }, cadaMs, cadaMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static synchronized ScheduledExecutorService tareasFondo() {
+        if (tareasFondo == null) {
+            tareasFondo = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "tareas-pedidos");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return tareasFondo;
+    }
+
+    /**
+     * Vuelve a leer precios.txt ahora mismo (sin esperar a la revisión periódica).
+     * @return true si se publicó una carta nueva.
+     */
+    public boolean recargarPrecios() {
+        return repoPrecios.cargar();
+    }
+
+    /**
+     * Pasa al archivo los pedidos que ya cumplieron el tiempo y reescribe el
+     * almacén sin ellos. Lo llama la tarea periódica; también se puede llamar a mano.
+     * @return Cantidad de pedidos archivados.
+     */
+    public static int archivarFinalizados() {
+        ArchivadorPedidos a = archivador;
+        if (a == null) return 0;
+        try {
+            int archivados = a.archivarVencidos(System.currentTimeMillis());
+            if (archivados > 0) {
+                escritor.snapshot();
+                System.out.println("Archivados " + archivados + " pedidos finalizados");
+            }
+            return archivados;
+        } catch (RuntimeException ex) {
+            // Que un error no cancele la tarea periódica
+            System.err.println("Error archivando pedidos: " + ex.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Carga perezosa: los finalizados se pasan al histórico y el almacén se
+     * reescribe solo con los activos. Así el próximo arranque solo lee lo que
+     * se finalizó desde el anterior, no todo el historial.
+     * @return Los pedidos que se quedan en memoria.
+     */
+    private static List<Pedido> moverFinalizadosAlHistorico(List<Pedido> pedidos) {
+        List<Pedido> activos = new ArrayList<>();
+        List<Pedido> finalizados = new ArrayList<>();
+        for (Pedido p : pedidos) {
+            if (p.esFinalizado()) finalizados.add(p);
+            else activos.add(p);
+        }
+        if (finalizados.isEmpty()) return pedidos;
+
+        // Si el histórico no se pudo escribir, todo sigue en memoria como antes
+        if (!historico.anexar(finalizados)) return pedidos;
+
+        repoPedidos.guardarPedidos(activos);
+        System.out.println("Pasados al histórico " + finalizados.size() + " pedidos finalizados");
+        return activos;
+    }
+
     // =========================================================
     // LÓGICA DE CREACIÓN Y GESTIÓN (Builder, State, Strategy)
     // =========================================================
@@ -92,14 +279,46 @@ public class ServicioPedidos {
         Pizza pizza = builder.build();
 
         // 2. Registrar en el Gestor (Memoria)
-        Pedido pedido = gestor.registrarPedido(pizza);
+        return darDeAlta(gestor.registrarPedido(pizza));
+    }
 
+    /**
+     * Crea un pedido de una pizza de la casa tal cual: el pedido comparte la
+     * pizza de la plantilla (inmutable) y usa su precio ya calculado.
+     * @throws IllegalArgumentException si no hay una pizza de la casa con ese nombre.
+     */
+    public Pedido crearPedidoDeLaCasa(String nombre) {
+        PlantillaPizza plantilla = DirectorConstructorPizza.plantilla(nombre);
+        if (plantilla == null) throw new IllegalArgumentException("Pizza de la casa desconocida: " + nombre);
+
+        EstrategiaPrecio estrategia = gestor.getEstrategia();
+        return darDeAlta(gestor.registrarPedido(plantilla.getPizza(), plantilla.precioCentavos(estrategia)));
+    }
+
+    /**
+     * Precio de una pizza de la casa sin crear el pedido (total de la
+     * pantalla). Es el que la plantilla ya tiene guardado para esa estrategia.
+     * @throws IllegalArgumentException si no hay una pizza de la casa con ese nombre.
+     */
+    public long cotizarDeLaCasaCentavos(String nombre, boolean promocion) {
+        PlantillaPizza plantilla = DirectorConstructorPizza.plantilla(nombre);
+        if (plantilla == null) throw new IllegalArgumentException("Pizza de la casa desconocida: " + nombre);
+        return plantilla.precioCentavos(estrategia(promocion));
+    }
+
+    /** Nombres de las pizzas de la casa (para mostrarlas en la pantalla). */
+    public List<String> listarPizzasDeLaCasa() {
+        return DirectorConstructorPizza.nombresPlantillas();
+    }
+
+    private Pedido darDeAlta(Pedido pedido) {
         // 3. Agregar Observadores
-        pedido.agregarObservador(new PantallaEstadoCliente());
-        pedido.agregarObservador(new PanelControlEmpleado());
+        // (instancias compartidas: los pedidos las guardan con referencia débil)
+        pedido.agregarObservador(PANTALLA_CLIENTE);
+        pedido.agregarObservador(PANEL_EMPLEADO);
 
         // 4. Persistir cambios (Guardar en TXT)
-        guardarCambiosEnDisco();
+        guardarCambiosEnDisco(EventoPedido.alta(pedido));
 
         return pedido;
     }
@@ -108,39 +327,230 @@ public class ServicioPedidos {
      * Cambia la estrategia de precios.
      */
     public void cambiarEstrategiaPromocion(boolean activa) {
-        if (activa) {
-            gestor.setEstrategia(new PrecioPromocion());
-        } else {
-            gestor.setEstrategia(new PrecioEstandar());
+        gestor.setEstrategia(estrategia(activa));
+    }
+
+    /**
+     * Precio de una pizza sin crear el pedido (total de la pantalla mientras
+     * se arma). Usa la misma caché que el alta, así que confirmar una pizza
+     * recién cotizada no vuelve a calcular.
+     */
+    public long cotizarCentavos(Pizza pizza, boolean promocion) {
+        return estrategia(promocion).calcularTotalCentavos(pizza);
+    }
+
+    /** Aciertos de la caché de precios (las dos estrategias). */
+    public long aciertosCachePrecios() {
+        return aciertos(PRECIO_ESTANDAR) + aciertos(PRECIO_PROMOCION);
+    }
+
+    public long fallosCachePrecios() {
+        return fallos(PRECIO_ESTANDAR) + fallos(PRECIO_PROMOCION);
+    }
+
+    /** Aciertos sobre consultas (0 si no hubo ninguna o la caché está desactivada). */
+    public double tasaAciertosCachePrecios() {
+        long a = aciertosCachePrecios();
+        long total = a + fallosCachePrecios();
+        return (total == 0) ? 0.0 : (double) a / total;
+    }
+
+    /**
+     * Cambia la estrategia y vuelve a calcular con ella el total de todos los
+     * pedidos abiertos (no finalizados), de una sola vez. La bitácora solo
+     * guarda altas y cambios de estado, así que los totales nuevos se
+     * escriben con un snapshot.
+     * @return Cantidad de pedidos cuyo total cambió.
+     */
+    public int repreciarPedidosAbiertos(boolean promocion) {
+        EstrategiaPrecio e = estrategia(promocion);
+        gestor.setEstrategia(e);
+        List<Pedido> cambiados = gestor.repreciarActivos(e);
+        if (!cambiados.isEmpty()) {
+            escritor.snapshot();
+            System.out.println("Re-preciados " + cambiados.size() + " pedidos abiertos");
         }
+        return cambiados.size();
+    }
+
+    /**
+     * "¿Qué pasaría si...?": lo que costarían hoy esos pedidos (por ejemplo,
+     * los archivados de un día) con la carta vigente. No modifica nada.
+     * @return totales[i] = precio actual de la pizza del pedido i, en centavos.
+     */
+    public long[] simularTotales(List<Pedido> pedidos, boolean promocion) {
+        List<Pizza> pizzas = new ArrayList<>(pedidos.size());
+        for (Pedido p : pedidos) pizzas.add(p.getPizza());
+        return estrategia(promocion).calcularTotalesCentavos(LotePizzas.de(pizzas));
+    }
+
+    private static EstrategiaPrecio estrategia(boolean promocion) {
+        return promocion ? PRECIO_PROMOCION : PRECIO_ESTANDAR;
+    }
+
+    /** Envuelve la estrategia en una caché (pizzeria.precios.cache; 0 = sin caché). */
+    private static EstrategiaPrecio conCache(EstrategiaPrecio estrategia) {
+        int capacidad = ConfiguracionPersistencia.capacidadCachePrecios();
+        return (capacidad > 0) ? new PrecioConCache(estrategia, capacidad) : estrategia;
+    }
+
+    private static long aciertos(EstrategiaPrecio e) {
+        return (e instanceof PrecioConCache) ? ((PrecioConCache) e).getAciertos() : 0;
+    }
+
+    private static long fallos(EstrategiaPrecio e) {
+        return (e instanceof PrecioConCache) ? ((PrecioConCache) e).getFallos() : 0;
     }
 
     public List<Pedido> listarPedidos() {
         return gestor.getPedidos();
     }
 
+    /**
+     * Pedidos de una sola columna del tablero (un estado), ordenados por id.
+     */
+    public List<Pedido> listarPedidosPorEstado(CodigoEstado estado) {
+        return gestor.getPedidosEnEstado(estado);
+    }
+
+    /**
+     * Cambia cada vez que cambia la lista de ese estado; si es igual a la
+     * última leída, la lista tampoco cambió.
+     */
+    public long versionPedidosPorEstado(CodigoEstado estado) {
+        return gestor.versionEstado(estado);
+    }
+
+    public int contarPedidosActivos() {
+        return gestor.contarActivos();
+    }
+
+    /**
+     * Suscribe al feed de cambios de TODOS los pedidos (altas y transiciones).
+     */
+    public void suscribirCambios(ObservadorCambiosPedidos o) {
+        gestor.agregarObservadorCambios(o);
+    }
+
+    public void desuscribirCambios(ObservadorCambiosPedidos o) {
+        gestor.quitarObservadorCambios(o);
+    }
+
+    /**
+     * Métrica de memoria: observadores vivos por pedido (solo pedidos con alguno).
+     * Los pedidos finalizados sueltan sus suscripciones, así que basta con
+     * recorrer las columnas activas.
+     */
+    public Map<Integer, Integer> suscriptoresVivosPorPedido() {
+        Map<Integer, Integer> conteo = new TreeMap<>();
+        for (CodigoEstado estado : CodigoEstado.values()) {
+            if (estado.esFinal()) continue;
+            for (Pedido p : gestor.getPedidosEnEstado(estado)) {
+                int vivos = p.contarObservadoresVivos();
+                if (vivos > 0) conteo.put(p.getId(), vivos);
+            }
+        }
+        return conteo;
+    }
+
+    /** Suscripciones abiertas en todo el sistema (todas las ventanas y observadores). */
+    public long contarSuscripcionesVivas() {
+        return RegistroSuscripciones.getSuscripcionesVivas();
+    }
+
     public Pedido buscarPedidoPorId(int id) {
         return gestor.buscarPorId(id);
     }
 
+    // =========================================================
+    // CONSULTAS AL ARCHIVO (detalle de pedidos viejos y reportes)
+    // =========================================================
+
+    public List<LocalDate> diasArchivados() {
+        return archivo.diasArchivados();
+    }
+
+    public List<Pedido> pedidosArchivadosDelDia(LocalDate dia) {
+        return archivo.pedidosDelDia(dia);
+    }
+
+    /** Pedidos archivados entre dos días (incluidos). */
+    public List<Pedido> consultarArchivo(LocalDate desde, LocalDate hasta) {
+        return archivo.consultar(desde, hasta, null);
+    }
+
     /**
-     * Avanza el estado y guarda en disco.
+     * Avanza el estado y guarda en disco (solo si de verdad cambió).
      */
     public void avanzarEstadoPedido(int idPedido) {
-        gestor.avanzarEstado(idPedido);
-        guardarCambiosEnDisco();
+        if (gestor.avanzarEstado(idPedido)) guardarCambioDeEstado(idPedido);
     }
 
     /**
-     * Cancela el pedido y guarda en disco.
+     * Cancela el pedido y guarda en disco (solo si de verdad se canceló).
      */
     public void cancelarPedido(int idPedido) {
-        gestor.cancelarPedido(idPedido);
-        guardarCambiosEnDisco();
+        if (gestor.cancelarPedido(idPedido)) guardarCambioDeEstado(idPedido);
+    }
+
+    // Solo en memoria: un pedido histórico o archivado no cambia y no se busca en disco
+    private void guardarCambioDeEstado(int idPedido) {
+        Pedido pedido = gestor.buscarEnMemoria(idPedido);
+        if (pedido != null) {
+            guardarCambiosEnDisco(EventoPedido.cambioEstado(pedido));
+        }
     }
 
-    private void guardarCambiosEnDisco() {
-        repoPedidos.guardarPedidos(gestor.getPedidos());
+    /**
+     * Encola el cambio en el escritor diferido. Él decide cuándo escribir:
+     * en modo journal solo anexa el evento (y un snapshot de vez en cuando);
+     * en modo original reescribe todo como antes.
+     */
+    private void guardarCambiosEnDisco(EventoPedido evento) {
+        escritor.encolar(evento);
+    }
+
+    /**
+     * Bloquea hasta que todos los cambios pendientes estén escritos en disco.
+     */
+    public void forzarEscritura() {
+        escritor.flush();
+    }
+
+    /**
+     * Escribe lo pendiente y detiene el hilo de escritura.
+     * Se llama al cerrar la aplicación (App.stop) y también desde un shutdown hook.
+     * Las tareas de fondo NO se interrumpen: un archivado o un fsync a mitad
+     * de un anexado terminaría con el canal cerrado (ClosedByInterruptException).
+     * Se deja terminar la que esté corriendo y recién después se cierra el escritor.
+     */
+    public static void cerrarPersistencia() {
+        ScheduledExecutorService tareas = tareasFondo;
+        if (tareas != null) {
+            tareas.shutdown();
+            try {
+                if (!tareas.awaitTermination(SEGUNDOS_ESPERA_TAREAS, TimeUnit.SECONDS)) {
+                    System.err.println("Una tarea de fondo sigue corriendo al cerrar; no se espera más");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        escritor.cerrar();
+        repoPedidos.sincronizar();
+    }
+
+    private static EscritorDiferido crearEscritor() {
+        EscritorDiferido e = new EscritorDiferido(
+                repoPedidos,
+                () -> GestorPedidos.getInstancia().getPedidos(),
+                ConfiguracionPersistencia.escrituraDiferida(),
+                ConfiguracionPersistencia.maxLote(),
+                ConfiguracionPersistencia.maxLatenciaMs(),
+                ConfiguracionPersistencia.capacidadCola());
+
+        Runtime.getRuntime().addShutdownHook(new Thread(e::cerrar, "cierre-escritor-pedidos"));
+        return e;
     }
 
     // =========================================================
@@ -0,0 +1,288 @@
+package persistencia;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import negocio.abstractas.ProveedorPedidosHistoricos;
+import negocio.modelo.Pedido;
+
+/**
+ * Archivo frío de pedidos finalizados: un segmento comprimido por día
+ * (archivo_pedidos/pedidos-AAAA-MM-DD.txt.gz), con el mismo formato de línea
+ * que el almacén.
+ *
+ * Los segmentos solo se agregan: cada tanda archivada es un miembro gzip nuevo
+ * al final del archivo del día (GZIPInputStream lee los miembros seguidos).
+ * Si un pedido quedó archivado dos veces (corte entre archivar y el snapshot
+ * del almacén), las consultas se quedan con la última copia.
+ *
+ * rangos.txt guarda, por tanda, "fecha;idMinimo;idMaximo;largo": buscar por
+ * id solo descomprime los días cuyo rango lo incluye. Los últimos días leídos
+ * quedan en memoria.
+ *
+ * El segmento y rangos.txt quedan en disco (fsync) antes de que anexar
+ * devuelva true, porque enseguida el almacén se reescribe sin esos pedidos.
+ * "largo" es el tamaño del segmento tras la tanda: si al anexar el archivo
+ * es más largo (un miembro cortado por un corte de luz, o escrito sin llegar
+ * a anotarse), se recorta hasta ahí antes de seguir. Así un miembro dañado
+ * nunca queda en el medio, donde GZIPInputStream dejaría de leer todo lo que
+ * viene después. Un segmento sin ningún largo anotado no tiene nada
+ * confirmado: se vacía.
+ */
+public final class ArchivoPedidos implements ProveedorPedidosHistoricos {
+
+    public static final String CARPETA = "archivo_pedidos";
+    static final String RANGOS_FILE = "rangos.txt";
+
+    private static final String PREFIJO = "pedidos-";
+    private static final String EXTENSION = ".txt.gz";
+    private static final int DIAS_EN_CACHE = 4;
+
+    private final File carpeta;
+    private final File archivoRangos;
+    // Solo para el formato de línea (parsear/serializar)
+    private final RepositorioPedidosTxt formato = new RepositorioPedidosTxt();
+
+    private final EscrituraSegura escritura = new EscrituraSegura();
+
+    // día -> {idMinimo, idMaximo}; se lee la primera vez que hace falta
+    private TreeMap<LocalDate, int[]> rangos;
+    // día -> largo del segmento tras la última tanda anotada
+    private final Map<LocalDate, Long> largos = new HashMap<>();
+    private int idMaximo;
+
+    private final LinkedHashMap<LocalDate, Map<Integer, Pedido>> cache =
+            new LinkedHashMap<LocalDate, Map<Integer, Pedido>>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<LocalDate, Map<Integer, Pedido>> mayor) {
+                    return size() > DIAS_EN_CACHE;
+                }
+            };
+
+    public ArchivoPedidos() {
+        this.carpeta = ConfiguracionPersistencia.archivo(CARPETA);
+        this.archivoRangos = new File(carpeta, RANGOS_FILE);
+    }
+
+    /**
+     * Agrega los pedidos al segmento del día (los crea si hace falta).
+     * @return true si quedaron escritos.
+     */
+    public synchronized boolean anexar(LocalDate dia, List<Pedido> pedidos) {
+        cargarRangos();
+        if (pedidos == null || pedidos.isEmpty()) return true;
+        if (!carpeta.isDirectory() && !carpeta.mkdirs()) {
+            System.err.println("No se pudo crear la carpeta " + carpeta.getPath());
+            return false;
+        }
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (Pedido p : pedidos) {
+            min = Math.min(min, p.getId());
+            max = Math.max(max, p.getId());
+        }
+
+        File seg = segmento(dia);
+        long largo;
+        try {
+            prepararSegmento(dia, seg);
+            escritura.anexarDurable(seg, out -> escribirMiembro(out, pedidos));
+            largo = seg.length();
+        } catch (IOException e) {
+            System.err.println("Error archivando pedidos del " + dia + ": " + e.getMessage());
+            return false;
+        }
+
+        // Si la última línea quedó cortada, la nueva empieza en su propio renglón
+        String rango = (EscrituraSegura.terminaEnFinDeLinea(archivoRangos) ? "" : "\n") + dia + ";" + min + ";" + max + ";" + largo + "\n";
+        try {
+            escritura.anexarDurable(archivoRangos, out -> out.write(rango.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            // Sin el rango la tanda no cuenta: el almacén conserva los pedidos y se vuelven a archivar
+            System.err.println("Error escribiendo " + RANGOS_FILE + ": " + e.getMessage());
+            return false;
+        }
+        ampliarRango(dia, min, max);
+        largos.put(dia, largo);
+        cache.remove(dia);
+        return true;
+    }
+
+    /** Un miembro gzip con los pedidos (terminado, para que el fsync lo incluya entero). */
+    private void escribirMiembro(OutputStream out, List<Pedido> pedidos) throws IOException {
+        GZIPOutputStream gz = new GZIPOutputStream(out, 1 << 16);
+        BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(gz, StandardCharsets.UTF_8));
+        for (Pedido p : pedidos) {
+            bw.write(formato.serializarPedido(p));
+            bw.newLine();
+        }
+        bw.flush();
+        gz.finish();
+    }
+
+    /**
+     * Deja el segmento terminando en un miembro completo antes de anexar:
+     * recorta lo que sobra tras el último largo anotado (todo, si no hay).
+     */
+    private void prepararSegmento(LocalDate dia, File seg) throws IOException {
+        if (!seg.exists()) return;
+        long actual = seg.length();
+        Long anotado = largos.get(dia);
+        long valido = (anotado != null) ? anotado : 0L;
+        if (valido < actual) {
+            System.err.println("Recortando " + seg.getName() + " de " + actual + " a " + valido
+                    + " bytes (miembro cortado o sin confirmar)");
+            escritura.recortar(seg, valido);
+        }
+    }
+
+    // =========================================================
+    // Consultas (detalle y reportes)
+    // =========================================================
+
+    @Override
+    public synchronized Pedido buscarPorId(int id) {
+        cargarRangos();
+        if (id < 1 || id > idMaximo) return null;
+
+        // Los más recientes primero: los pedidos viejos se consultan menos
+        for (Map.Entry<LocalDate, int[]> e : rangos.descendingMap().entrySet()) {
+            int[] r = e.getValue();
+            if (id < r[0] || id > r[1]) continue;
+            Pedido p = leerDia(e.getKey()).get(id);
+            if (p != null) return p;
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized int getIdMaximo() {
+        cargarRangos();
+        return idMaximo;
+    }
+
+    /** Días que tienen segmento, del más viejo al más nuevo. */
+    public synchronized List<LocalDate> diasArchivados() {
+        List<LocalDate> dias = new ArrayList<>();
+        File[] archivos = carpeta.listFiles((d, nombre) -> nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION));
+        if (archivos == null) return dias;
+        for (File f : archivos) {
+            String nombre = f.getName();
+            try {
+                dias.add(LocalDate.parse(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length())));
+            } catch (DateTimeParseException ex) {
+                // Archivo ajeno en la carpeta
+            }
+        }
+        dias.sort(null);
+        return dias;
+    }
+
+    /** Pedidos archivados ese día, ordenados por id. */
+    public synchronized List<Pedido> pedidosDelDia(LocalDate dia) {
+        return new ArrayList<>(new TreeMap<>(leerDia(dia)).values());
+    }
+
+    /**
+     * Pedidos archivados entre dos días (incluidos) que cumplen el filtro,
+     * día por día y por id dentro de cada día. Para reportes.
+     */
+    public synchronized List<Pedido> consultar(LocalDate desde, LocalDate hasta, Predicate<Pedido> filtro) {
+        List<Pedido> resultado = new ArrayList<>();
+        for (LocalDate dia : diasArchivados()) {
+            if (dia.isBefore(desde) || dia.isAfter(hasta)) continue;
+            for (Pedido p : pedidosDelDia(dia)) {
+                if (filtro == null || filtro.test(p)) resultado.add(p);
+            }
+        }
+        return resultado;
+    }
+
+    // =========================================================
+    // Lectura
+    // =========================================================
+
+    private File segmento(LocalDate dia) {
+        return new File(carpeta, PREFIJO + dia + EXTENSION);
+    }
+
+    private Map<Integer, Pedido> leerDia(LocalDate dia) {
+        Map<Integer, Pedido> contenido = cache.get(dia);
+        if (contenido != null) return contenido;
+
+        contenido = new HashMap<>();
+        File f = segmento(dia);
+        if (f.exists()) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new FileInputStream(f)), StandardCharsets.UTF_8))) {
+                String linea;
+                while ((linea = br.readLine()) != null) {
+                    linea = linea.trim();
+                    if (linea.isEmpty()) continue;
+                    Pedido p = formato.parsearPedido(linea);
+                    if (p != null) contenido.put(p.getId(), p);   // la última copia gana
+                }
+            } catch (IOException e) {
+                // Un miembro cortado al final: se usa lo que se alcanzó a leer
+                System.err.println("Error leyendo " + f.getName() + ": " + e.getMessage());
+            }
+        }
+        cache.put(dia, contenido);
+        return contenido;
+    }
+
+    private void cargarRangos() {
+        if (rangos != null) return;
+        rangos = new TreeMap<>();
+        if (!archivoRangos.exists()) return;
+
+        try (BufferedReader br = new BufferedReader(new FileReader(archivoRangos))) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                String[] p = linea.split(";");
+                if (p.length != 4) continue;
+                try {
+                    LocalDate dia = LocalDate.parse(p[0]);
+                    long largo = Long.parseLong(p[3]);
+                    ampliarRango(dia, Integer.parseInt(p[1]), Integer.parseInt(p[2]));
+                    largos.put(dia, largo);
+                } catch (DateTimeParseException | NumberFormatException ex) {
+                    // línea cortada: se ignora
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo " + RANGOS_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private void ampliarRango(LocalDate dia, int min, int max) {
+        int[] r = rangos.get(dia);
+        if (r == null) {
+            rangos.put(dia, new int[]{min, max});
+        } else {
+            r[0] = Math.min(r[0], min);
+            r[1] = Math.max(r[1], max);
+        }
+        idMaximo = Math.max(idMaximo, max);
+    }
+}
@@ -0,0 +1,221 @@
+package persistencia;
+
+import java.io.File;
+
+/**
+ * Parámetros de la capa de persistencia.
+ * Se leen de propiedades del sistema (-Dclave=valor) para no depender
+ * de ningún archivo de configuración.
+ *
+ * Los valores por defecto NO son todos los del comportamiento original.
+ * Cambian, y cada uno se puede volver atrás con su propiedad:
+ * - bitácora + snapshot en vez de reescribir el TXT (journal=false);
+ * - escritura en un hilo de fondo (diferida=false);
+ * - fsync periódico, cada 1000 ms, de lo anexado (fsync=siempre | so);
+ * - carga en paralelo de archivos grandes (cargaParalela=false);
+ * - textos canónicos al leer (canonizarTextos=false);
+ * - recarga de precios.txt cada 2000 ms (precios.recargaMs=0);
+ * - caché de precios (precios.cache=0);
+ * - búsqueda en pedidos.txt por índice (tickets.lectura=recorrido).
+ * Se quedan como el original: formato txt, carga completa al arrancar
+ * (cargaPerezosa) y sin archivo frío (minutosTrasFinalizar).
+ */
+public final class ConfiguracionPersistencia {
+
+    /** Carpeta donde viven los archivos de datos (por defecto, el directorio de trabajo). */
+    public static final String PROP_DIRECTORIO = "pizzeria.datos.dir";
+
+    /** true = bitácora de eventos + snapshot; false = reescritura completa del TXT (modo original). */
+    public static final String PROP_JOURNAL = "pizzeria.persistencia.journal";
+
+    /** Cantidad de eventos en la bitácora que disparan un nuevo snapshot. */
+    public static final String PROP_SNAPSHOT_CADA = "pizzeria.persistencia.snapshotCada";
+
+    /** true = los cambios se escriben en un hilo de fondo (write-behind); false = en el mismo hilo. */
+    public static final String PROP_DIFERIDA = "pizzeria.persistencia.diferida";
+
+    /** Máximo de eventos por escritura agrupada (group commit). */
+    public static final String PROP_MAX_LOTE = "pizzeria.persistencia.maxLote";
+
+    /** Máximo de milisegundos que un cambio espera en cola antes de escribirse. */
+    public static final String PROP_MAX_LATENCIA_MS = "pizzeria.persistencia.maxLatenciaMs";
+
+    /** Capacidad de la cola de escritura diferida. */
+    public static final String PROP_CAPACIDAD_COLA = "pizzeria.persistencia.capacidadCola";
+
+    /** Cuándo se fuerza a disco (fsync) lo que se anexa: siempre | periodico | so. */
+    public static final String PROP_FSYNC = "pizzeria.persistencia.fsync";
+
+    /** Con fsync=periodico, mínimo de milisegundos entre dos fsync. */
+    public static final String PROP_FSYNC_CADA_MS = "pizzeria.persistencia.fsyncCadaMs";
+
+    /** Políticas de fsync (ver EscrituraSegura). */
+    public enum PoliticaFsync { SIEMPRE, PERIODICO, SO }
+
+    /** true = los archivos de pedidos de texto grandes se leen en trozos en paralelo (fork-join). */
+    public static final String PROP_CARGA_PARALELA = "pizzeria.persistencia.cargaParalela";
+
+    /**
+     * true = al leer pedidos de texto, los nombres repetidos (masa, salsa,
+     * toppings, estado) se toman de TextosCanonicos en vez de crear un String
+     * por campo. false solo para comparar en los benchmarks.
+     */
+    public static final String PROP_CANONIZAR_TEXTOS = "pizzeria.persistencia.canonizarTextos";
+
+    /**
+     * true = al arrancar solo se cargan en memoria los pedidos activos; los
+     * finalizados pasan al histórico paginado (HistoricoPedidos) y se leen
+     * de disco cuando alguien los busca por id.
+     */
+    public static final String PROP_CARGA_PEREZOSA = "pizzeria.persistencia.cargaPerezosa";
+
+    /** Páginas del histórico que se mantienen en memoria (caché LRU). */
+    public static final String PROP_PAGINAS_CACHE = "pizzeria.historico.paginasEnCache";
+
+    /**
+     * Minutos que un pedido finalizado se queda en memoria antes de pasar al
+     * archivo frío (ArchivoPedidos). Negativo (por defecto) = no se archiva nunca.
+     */
+    public static final String PROP_ARCHIVAR_TRAS_MINUTOS = "pizzeria.archivo.minutosTrasFinalizar";
+
+    /** Formato del almacén de pedidos: txt (original) | binario (compacto) | jdbc (base embebida). */
+    public static final String PROP_FORMATO = "pizzeria.persistencia.formato";
+
+    /** URL JDBC de la base embebida (por defecto H2 en archivo, dentro de la carpeta de datos). */
+    public static final String PROP_JDBC_URL = "pizzeria.persistencia.jdbc.url";
+    public static final String PROP_JDBC_USUARIO = "pizzeria.persistencia.jdbc.usuario";
+    public static final String PROP_JDBC_CLAVE = "pizzeria.persistencia.jdbc.clave";
+
+    /**
+     * Cada cuántos milisegundos se revisa si cambió precios.txt para recargarlo
+     * sin reiniciar. 0 o negativo = solo se lee al arrancar.
+     */
+    public static final String PROP_PRECIOS_RECARGA_MS = "pizzeria.precios.recargaMs";
+
+    /** Entradas de la caché de precios por configuración de pizza (0 = sin caché). */
+    public static final String PROP_PRECIOS_CACHE = "pizzeria.precios.cache";
+
+    /** Cómo se busca un pedido en la bitácora pedidos.txt: indice | mapeado | recorrido. */
+    public static final String PROP_LECTURA_LOG = "pizzeria.tickets.lectura";
+
+    /** Modos de lectura de pedidos.txt (ver RepositorioTickets). */
+    public enum LecturaLog {
+        /** Índice lateral pedidos.txt.idx + una lectura posicionada. */
+        INDICE,
+        /** Archivo mapeado en memoria, búsqueda sobre los bytes. */
+        MAPEADO,
+        /** Recorrido línea por línea (comportamiento original). */
+        RECORRIDO
+    }
+
+    private ConfiguracionPersistencia() {}
+
+    public static File directorioDatos() {
+        return new File(System.getProperty(PROP_DIRECTORIO, "."));
+    }
+
+    /**
+     * Resuelve un nombre de archivo de datos dentro del directorio configurado.
+     */
+    public static File archivo(String nombre) {
+        return new File(directorioDatos(), nombre);
+    }
+
+    public static boolean modoJournal() {
+        return Boolean.parseBoolean(System.getProperty(PROP_JOURNAL, "true"));
+    }
+
+    public static int eventosPorSnapshot() {
+        int valor = Integer.getInteger(PROP_SNAPSHOT_CADA, 500);
+        return Math.max(1, valor);
+    }
+
+    public static boolean escrituraDiferida() {
+        return Boolean.parseBoolean(System.getProperty(PROP_DIFERIDA, "true"));
+    }
+
+    public static int maxLote() {
+        return Math.max(1, Integer.getInteger(PROP_MAX_LOTE, 256));
+    }
+
+    public static long maxLatenciaMs() {
+        return Math.max(0L, Long.getLong(PROP_MAX_LATENCIA_MS, 50L));
+    }
+
+    public static int capacidadCola() {
+        return Math.max(1, Integer.getInteger(PROP_CAPACIDAD_COLA, 4096));
+    }
+
+    public static PoliticaFsync politicaFsync() {
+        String valor = System.getProperty(PROP_FSYNC, "periodico");
+        try {
+            return PoliticaFsync.valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Política de fsync desconocida '" + valor + "', se usa PERIODICO");
+            return PoliticaFsync.PERIODICO;
+        }
+    }
+
+    public static long fsyncCadaMs() {
+        return Math.max(0L, Long.getLong(PROP_FSYNC_CADA_MS, 1000L));
+    }
+
+    public static boolean cargaParalela() {
+        return Boolean.parseBoolean(System.getProperty(PROP_CARGA_PARALELA, "true"));
+    }
+
+    public static boolean canonizarTextos() {
+        return Boolean.parseBoolean(System.getProperty(PROP_CANONIZAR_TEXTOS, "true"));
+    }
+
+    public static boolean cargaPerezosa() {
+        return Boolean.parseBoolean(System.getProperty(PROP_CARGA_PEREZOSA, "false"));
+    }
+
+    public static int paginasEnCache() {
+        return Math.max(1, Integer.getInteger(PROP_PAGINAS_CACHE, 64));
+    }
+
+    public static long minutosHastaArchivar() {
+        return Long.getLong(PROP_ARCHIVAR_TRAS_MINUTOS, -1L);
+    }
+
+    public static String formato() {
+        return System.getProperty(PROP_FORMATO, "txt").trim().toLowerCase();
+    }
+
+    /** true si el almacén de pedidos es el binario. */
+    public static boolean formatoBinario() {
+        return "binario".equals(formato());
+    }
+
+    public static String jdbcUrl() {
+        return System.getProperty(PROP_JDBC_URL, "jdbc:h2:" + archivo("pedidos_db").getAbsolutePath());
+    }
+
+    public static String jdbcUsuario() {
+        return System.getProperty(PROP_JDBC_USUARIO, "sa");
+    }
+
+    public static String jdbcClave() {
+        return System.getProperty(PROP_JDBC_CLAVE, "");
+    }
+
+    public static long recargaPreciosMs() {
+        return Long.getLong(PROP_PRECIOS_RECARGA_MS, 2000L);
+    }
+
+    public static int capacidadCachePrecios() {
+        return Math.max(0, Integer.getInteger(PROP_PRECIOS_CACHE, 4096));
+    }
+
+    public static LecturaLog lecturaLog() {
+        String valor = System.getProperty(PROP_LECTURA_LOG, "indice");
+        try {
+            return LecturaLog.valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Modo de lectura desconocido '" + valor + "', se usa INDICE");
+            return LecturaLog.INDICE;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package persistencia;
+
+import java.util.List;
+
+import negocio.modelo.Pedido;
+
+/**
+ * Convierte el almacén de pedidos entre el formato de texto y el binario,
+ * en la carpeta de datos configurada (pizzeria.datos.dir).
+ * El origen no se borra: queda como respaldo.
+ *
+ * Uso: java -Dpizzeria.datos.dir=<carpeta> -cp <clases> persistencia.ConversorFormatoPedidos txt-a-binario|binario-a-txt
+ */
+public final class ConversorFormatoPedidos {
+
+    private ConversorFormatoPedidos() {}
+
+    /** @return Cantidad de pedidos convertidos. */
+    public static int txtABinario() {
+        return copiar(new RepositorioPedidosTxt(), new RepositorioPedidosBinario());
+    }
+
+    /** @return Cantidad de pedidos convertidos. */
+    public static int binarioATxt() {
+        return copiar(new RepositorioPedidosBinario(), new RepositorioPedidosTxt());
+    }
+
+    private static int copiar(RepositorioPedidos origen, RepositorioPedidos destino) {
+        // cargar incluye los eventos de la bitácora; guardar deja un snapshot limpio
+        List<Pedido> pedidos = origen.cargarPedidos();
+        destino.guardarPedidos(pedidos);
+        return pedidos.size();
+    }
+
+    public static void main(String[] args) {
+        String modo = (args.length > 0) ? args[0] : "";
+        int cantidad;
+        if ("txt-a-binario".equals(modo)) {
+            cantidad = txtABinario();
+        } else if ("binario-a-txt".equals(modo)) {
+            cantidad = binarioATxt();
+        } else {
+            System.err.println("Uso: ConversorFormatoPedidos txt-a-binario|binario-a-txt");
+            System.exit(2);
+            return;
+        }
+        System.out.println("Convertidos " + cantidad + " pedidos (" + modo + ") en "
+                + ConfiguracionPersistencia.directorioDatos().getAbsolutePath());
+    }
+}
@@ -0,0 +1,278 @@
+package persistencia;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import negocio.modelo.Pedido;
+
+/**
+ * Escritura diferida (write-behind) de los cambios de pedidos.
+ *
+ * Los controladores solo ENCOLAN el evento (cola acotada) y vuelven de inmediato;
+ * un hilo de fondo junta los eventos pendientes y los escribe en una sola
+ * operación (group commit). Un lote se cierra cuando:
+ * - llega a maxLote eventos, o
+ * - pasan maxLatenciaMs desde el primer evento del lote.
+ *
+ * Dentro de un lote los cambios de un mismo pedido se fusionan: el registro se
+ * arma al escribir, así que siempre refleja el estado más reciente.
+ *
+ * Con asincrono = false no se crea el hilo y cada evento se escribe en el
+ * momento (comportamiento original, útil para depurar).
+ *
+ * Al cerrar se deja de aceptar eventos en la cola (bajo el monitor), se
+ * espera a los que estaban entrando y se encola FIN detrás de todos: el hilo
+ * escribe lo anterior y termina solo, sin interrumpirlo en medio de una
+ * escritura. Lo que llega después se escribe directo, una vez que el hilo
+ * terminó, para no adelantarse a lo que todavía estaba en la cola.
+ */
+public class EscritorDiferido {
+
+    private final RepositorioPedidos repo;
+    private final Supplier<List<Pedido>> fuenteSnapshot;
+    private final int maxLote;
+    private final long maxLatenciaNanos;
+    private final BlockingQueue<EventoPedido> cola;
+
+    // Marca de cierre: el hilo de fondo termina al sacarla de la cola
+    private static final EventoPedido FIN = EventoPedido.cambioEstado(null);
+
+    // Secuencia de eventos aceptados / escritos (para flush)
+    private long encolados = 0;
+    private long escritos = 0;
+    // Hilos que pasaron el control de cierre y todavía están en cola.put
+    private int entrando = 0;
+    private boolean cerrado;   // protegido por monitor
+    private final Object monitor = new Object();
+
+    private final Thread hilo;
+
+    /**
+     * @param repo           repositorio donde se escriben los lotes
+     * @param fuenteSnapshot lista completa de pedidos, para cuando toca snapshot
+     */
+    public EscritorDiferido(RepositorioPedidos repo,
+                            Supplier<List<Pedido>> fuenteSnapshot,
+                            boolean asincrono,
+                            int maxLote,
+                            long maxLatenciaMs,
+                            int capacidadCola) {
+        this.repo = repo;
+        this.fuenteSnapshot = fuenteSnapshot;
+        this.maxLote = Math.max(1, maxLote);
+        this.maxLatenciaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxLatenciaMs));
+        this.cola = new ArrayBlockingQueue<>(Math.max(1, capacidadCola));
+
+        if (asincrono) {
+            this.hilo = new Thread(this::procesar, "escritor-pedidos");
+            this.hilo.setDaemon(true);
+            this.hilo.start();
+        } else {
+            this.hilo = null;
+        }
+    }
+
+    /**
+     * Encola un cambio para escribirlo en segundo plano.
+     * Si la cola está llena se espera a que haya lugar (no se pierden cambios).
+     */
+    public void encolar(EventoPedido evento) {
+        if (evento == null) return;
+
+        if (hilo == null) {
+            // Modo síncrono: se escribe directo
+            escribirLote(List.of(evento));
+            return;
+        }
+
+        boolean directo;
+        synchronized (monitor) {
+            directo = cerrado;
+            if (!directo) {
+                encolados++;
+                entrando++;
+            }
+        }
+        if (directo) {
+            // Ya cerrado: se escribe cuando el hilo terminó con lo que tenía en cola
+            esperarHilo();
+            escribirLote(List.of(evento));
+            return;
+        }
+
+        try {
+            cola.put(evento);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (monitor) {
+                encolados--;
+            }
+            escribirLote(List.of(evento));
+        } finally {
+            synchronized (monitor) {
+                entrando--;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Bloquea hasta que todo lo encolado antes de la llamada esté en disco.
+     */
+    public void flush() {
+        if (hilo == null) return;
+        synchronized (monitor) {
+            long objetivo = encolados;
+            while (escritos < objetivo && hilo.isAlive()) {
+                try {
+                    monitor.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y después un snapshot completo (en modo journal
+     * también vacía la bitácora). Se usa cuando salen pedidos de memoria:
+     * el almacén tiene que dejar de incluirlos.
+     */
+    public void snapshot() {
+        flush();
+        try {
+            synchronized (repo) {
+                repo.guardarPedidos(fuenteSnapshot.get());
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("Error escribiendo snapshot de pedidos: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y detiene el hilo de fondo.
+     * Se puede llamar más de una vez (App.stop y shutdown hook).
+     */
+    public void cerrar() {
+        if (hilo == null) return;
+        synchronized (monitor) {
+            if (cerrado) return;
+            cerrado = true;
+            // Los que ya pasaron el control terminan de encolar antes que FIN
+            while (entrando > 0) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        try {
+            cola.put(FIN);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        esperarHilo();
+
+        // Si el hilo murió por un error inesperado, lo que quedó se escribe acá
+        if (!hilo.isAlive()) {
+            List<EventoPedido> resto = new ArrayList<>();
+            cola.drainTo(resto);
+            resto.remove(FIN);
+            if (!resto.isEmpty()) escribirLote(resto);
+        }
+    }
+
+    private void esperarHilo() {
+        try {
+            hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // =========================================================
+    // Hilo de fondo
+    // =========================================================
+
+    private void procesar() {
+        List<EventoPedido> lote = new ArrayList<>(maxLote);
+        boolean fin = false;
+        while (!fin) {
+            try {
+                EventoPedido primero = cola.take();
+                if (primero == FIN) {
+                    fin = true;
+                } else {
+                    lote.add(primero);
+                }
+
+                long limite = System.nanoTime() + maxLatenciaNanos;
+                while (!fin && lote.size() < maxLote) {
+                    long restante = limite - System.nanoTime();
+                    if (restante <= 0) break;
+                    EventoPedido siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+                    if (siguiente == null) break;
+                    if (siguiente == FIN) {
+                        fin = true;
+                    } else {
+                        lote.add(siguiente);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // El cierre no interrumpe (usa FIN): se escribe lo tomado y se sigue
+            }
+
+            if (!lote.isEmpty()) {
+                escribirLote(lote);
+                synchronized (monitor) {
+                    escritos += lote.size();
+                    monitor.notifyAll();
+                }
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Group commit: una sola escritura por lote.
+     */
+    private void escribirLote(List<EventoPedido> lote) {
+        try {
+            synchronized (repo) {
+                if (repo.esModoJournal()) {
+                    repo.anexarEventos(fusionarPorPedido(lote));
+                    if (!repo.requiereSnapshot()) return;
+                }
+                repo.guardarPedidos(fuenteSnapshot.get());
+            }
+        } catch (RuntimeException ex) {
+            // No dejamos que un error de disco mate el hilo de escritura
+            System.err.println("Error escribiendo lote de pedidos: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Deja un solo evento por pedido: si hubo ALTA gana el ALTA (ya incluye
+     * el estado actual); si no, basta un ESTADO con el estado más reciente.
+     */
+    private List<EventoPedido> fusionarPorPedido(List<EventoPedido> lote) {
+        Map<Integer, EventoPedido> porPedido = new LinkedHashMap<>();
+        for (EventoPedido e : lote) {
+            int id = e.getPedido().getId();
+            EventoPedido previo = porPedido.get(id);
+            if (previo == null || e.getTipo() == EventoPedido.Tipo.ALTA) {
+                porPedido.put(id, e);
+            }
+        }
+        return new ArrayList<>(porPedido.values());
+    }
+}
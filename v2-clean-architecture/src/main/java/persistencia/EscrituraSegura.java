@@ -0,0 +1,191 @@
+package persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escrituras a disco que sobreviven a un corte:
+ * - reemplazar: archivo temporal + fsync + renombrar. El archivo anterior
+ *   sigue entero hasta que el nuevo está completo en disco.
+ * - anexar: agrega al final y hace fsync según la política configurada
+ *   (pizzeria.persistencia.fsync):
+ *     SIEMPRE    en cada escritura;
+ *     PERIODICO  como mucho una vez cada fsyncCadaMs (lo escrito entre medio
+ *                puede perderse si se corta la luz, no si se cae el programa);
+ *                lo que quedó sin fsync lo fuerza forzarPendientes, que
+ *                llama una tarea periódica aunque no se anexe nada más;
+ *     SO         nunca, lo decide el sistema operativo.
+ * - anexarDurable: agrega al final con fsync siempre (salvo SO), para lo
+ *   que se escribe justo antes de sacar esos datos de otro archivo.
+ */
+final class EscrituraSegura {
+
+    /** Lo que se escribe; el flujo ya viene con buffer. */
+    interface Contenido {
+        void escribir(OutputStream out) throws IOException;
+    }
+
+    private final ConfiguracionPersistencia.PoliticaFsync politica;
+    private final long cadaNanos;
+    private long ultimoFsync = System.nanoTime();
+    // Archivos anexados después de su último fsync (solo PERIODICO)
+    private final Set<File> sinFsync = new LinkedHashSet<>();
+
+    EscrituraSegura() {
+        this.politica = ConfiguracionPersistencia.politicaFsync();
+        this.cadaNanos = TimeUnit.MILLISECONDS.toNanos(ConfiguracionPersistencia.fsyncCadaMs());
+    }
+
+    void reemplazar(File destino, Contenido contenido) throws IOException {
+        File temporal = new File(destino.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temporal)) {
+            OutputStream out = new BufferedOutputStream(fos, 1 << 16);
+            contenido.escribir(out);
+            out.flush();
+            if (politica != ConfiguracionPersistencia.PoliticaFsync.SO) {
+                fos.getFD().sync();
+            }
+        }
+
+        try {
+            Files.move(temporal.toPath(), destino.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal.toPath(), destino.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (politica != ConfiguracionPersistencia.PoliticaFsync.SO) {
+            sincronizarCarpeta(destino.getAbsoluteFile().getParentFile());
+        }
+        synchronized (this) {
+            sinFsync.remove(destino);
+        }
+    }
+
+    void anexar(File destino, Contenido contenido) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(destino, true)) {
+            OutputStream out = new BufferedOutputStream(fos, 1 << 16);
+            contenido.escribir(out);
+            out.flush();
+            if (tocaFsync(destino)) {
+                fos.getFD().sync();
+            }
+        }
+    }
+
+    /**
+     * Anexa y hace fsync sin esperar a la política PERIODICO (salvo SO). Si
+     * el archivo es nuevo, también se sincroniza la carpeta.
+     */
+    void anexarDurable(File destino, Contenido contenido) throws IOException {
+        boolean nuevo = !destino.exists();
+        try (FileOutputStream fos = new FileOutputStream(destino, true)) {
+            OutputStream out = new BufferedOutputStream(fos, 1 << 16);
+            contenido.escribir(out);
+            out.flush();
+            if (politica != ConfiguracionPersistencia.PoliticaFsync.SO) {
+                fos.getFD().sync();
+            }
+        }
+        if (nuevo && politica != ConfiguracionPersistencia.PoliticaFsync.SO) {
+            sincronizarCarpeta(destino.getAbsoluteFile().getParentFile());
+        }
+        synchronized (this) {
+            sinFsync.remove(destino);
+        }
+    }
+
+    /** true si el archivo está vacío o su último byte es '\n' (no quedó una línea cortada). */
+    static boolean terminaEnFinDeLinea(File archivo) {
+        long largo = archivo.length();
+        if (largo == 0) return true;
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r")) {
+            raf.seek(largo - 1);
+            return raf.read() == '\n';
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Corta el archivo en largo bytes (y fsync): descarta lo que quedó
+     * escrito a medias después del último dato confirmado.
+     */
+    void recortar(File destino, long largo) throws IOException {
+        try (FileChannel canal = FileChannel.open(destino.toPath(), StandardOpenOption.WRITE)) {
+            canal.truncate(largo);
+            if (politica != ConfiguracionPersistencia.PoliticaFsync.SO) {
+                canal.force(true);
+            }
+        }
+    }
+
+    /**
+     * fsync de lo anexado que la política PERIODICO dejó pendiente. Lo llama
+     * una tarea de fondo cada fsyncCadaMs, así lo último que se escribió
+     * antes de un rato sin actividad (o de un corte) también llega al disco.
+     */
+    void forzarPendientes() {
+        List<File> pendientes;
+        synchronized (this) {
+            if (sinFsync.isEmpty()) return;
+            pendientes = new ArrayList<>(sinFsync);
+            sinFsync.clear();
+            ultimoFsync = System.nanoTime();
+        }
+        for (File archivo : pendientes) {
+            try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.WRITE)) {
+                canal.force(false);
+            } catch (NoSuchFileException e) {
+                // Ya se reemplazó o borró: no queda nada que forzar
+            } catch (IOException e) {
+                System.err.println("Error en fsync de " + archivo.getName() + ": " + e.getMessage());
+                synchronized (this) {
+                    sinFsync.add(archivo);
+                }
+            }
+        }
+    }
+
+    private synchronized boolean tocaFsync(File destino) {
+        switch (politica) {
+            case SIEMPRE:
+                return true;
+            case PERIODICO:
+                long ahora = System.nanoTime();
+                if (ahora - ultimoFsync < cadaNanos) {
+                    sinFsync.add(destino);
+                    return false;
+                }
+                ultimoFsync = ahora;
+                sinFsync.remove(destino);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Que el renombrado también quede en disco (no todos los sistemas lo permiten). */
+    private static void sincronizarCarpeta(File carpeta) {
+        if (carpeta == null) return;
+        try (FileChannel canal = FileChannel.open(carpeta.toPath(), StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // En Windows no se puede abrir una carpeta: el renombrado ya es atómico igual
+        }
+    }
+}
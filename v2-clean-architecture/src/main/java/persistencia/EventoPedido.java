@@ -0,0 +1,37 @@
+package persistencia;
+
+import negocio.modelo.Pedido;
+
+/**
+ * Cambio puntual sobre un pedido que se anexa a la bitácora (journal).
+ * - ALTA: pedido nuevo, se guarda la línea completa.
+ * - ESTADO: solo cambió el estado, se guarda id + nombre del estado.
+ */
+public final class EventoPedido {
+
+    public enum Tipo { ALTA, ESTADO }
+
+    private final Tipo tipo;
+    private final Pedido pedido;
+
+    private EventoPedido(Tipo tipo, Pedido pedido) {
+        this.tipo = tipo;
+        this.pedido = pedido;
+    }
+
+    public static EventoPedido alta(Pedido pedido) {
+        return new EventoPedido(Tipo.ALTA, pedido);
+    }
+
+    public static EventoPedido cambioEstado(Pedido pedido) {
+        return new EventoPedido(Tipo.ESTADO, pedido);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Pedido getPedido() {
+        return pedido;
+    }
+}
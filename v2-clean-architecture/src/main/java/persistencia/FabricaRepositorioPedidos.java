@@ -0,0 +1,31 @@
+package persistencia;
+
+import java.util.ServiceLoader;
+
+/**
+ * Elige la implementación del repositorio de pedidos según la configuración
+ * (pizzeria.persistencia.formato = txt | binario | jdbc | el nombre de otro
+ * proveedor). Los formatos se descubren con ServiceLoader (ver
+ * ProveedorRepositorioPedidos); si el pedido no existe o no está disponible
+ * se usa el de texto.
+ */
+public final class FabricaRepositorioPedidos {
+
+    private FabricaRepositorioPedidos() {}
+
+    public static RepositorioPedidos crear() {
+        String formato = ConfiguracionPersistencia.formato();
+        for (ProveedorRepositorioPedidos p : ServiceLoader.load(ProveedorRepositorioPedidos.class)) {
+            if (!p.getNombre().equalsIgnoreCase(formato)) continue;
+            if (p.estaDisponible()) {
+                return p.crear();
+            }
+            System.err.println("El formato '" + formato + "' no está disponible, se usa txt");
+            return new RepositorioPedidosTxt();
+        }
+        if (!"txt".equalsIgnoreCase(formato)) {
+            System.err.println("Formato de almacén desconocido '" + formato + "', se usa txt");
+        }
+        return new RepositorioPedidosTxt();
+    }
+}
@@ -0,0 +1,256 @@
+package persistencia;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import negocio.abstractas.ProveedorPedidosHistoricos;
+import negocio.modelo.Pedido;
+
+/**
+ * Pedidos finalizados (ENTREGADO/CANCELADO) que ya no se cargan en memoria
+ * al arrancar (ver pizzeria.persistencia.cargaPerezosa).
+ *
+ * Se guardan en pedidos_historico.txt con el mismo formato de línea que el
+ * almacén, agrupados en páginas de hasta 256 pedidos. La tabla de páginas
+ * (pedidos_historico.pag) dice dónde empieza cada una y qué rango de ids
+ * tiene:
+ *   posicion;largo;cantidad;idMinimo;idMaximo
+ * Buscar un pedido lee solo la página que lo contiene; las últimas páginas
+ * leídas quedan en una caché LRU (pizzeria.historico.paginasEnCache).
+ *
+ * Los dos archivos solo se agregan, en UTF-8 y con '\n' de fin de línea
+ * (los largos de la tabla son bytes, no pueden depender de la plataforma).
+ * Primero se escriben los datos con fsync y después la tabla, también con
+ * fsync, antes de que el archivador borre los pedidos del almacén: si el
+ * programa se corta en medio, los bytes sin entrada en la tabla simplemente
+ * no se usan.
+ */
+public final class HistoricoPedidos implements ProveedorPedidosHistoricos {
+
+    public static final String DATA_FILE = "pedidos_historico.txt";
+    static final String PAGINAS_FILE = "pedidos_historico.pag";
+
+    private static final int PEDIDOS_POR_PAGINA = 256;
+
+    /** Ubicación de una página dentro del archivo de datos. */
+    private static final class Pagina {
+        final long posicion;
+        final int largo;
+        final int cantidad;
+        final int idMinimo;
+        final int idMaximo;
+
+        Pagina(long posicion, int largo, int cantidad, int idMinimo, int idMaximo) {
+            this.posicion = posicion;
+            this.largo = largo;
+            this.cantidad = cantidad;
+            this.idMinimo = idMinimo;
+            this.idMaximo = idMaximo;
+        }
+    }
+
+    private final File datos;
+    private final File archivoPaginas;
+    private final EscrituraSegura escritura = new EscrituraSegura();
+    // Solo para el formato de línea (parsear/serializar)
+    private final RepositorioPedidosTxt formato = new RepositorioPedidosTxt();
+
+    // Se lee la primera vez que hace falta, no al crear el objeto
+    private List<Pagina> paginas;
+    private int idMaximo;
+    private int cantidad;
+
+    // número de página -> pedidos de esa página (orden de acceso = LRU)
+    private final LinkedHashMap<Integer, Map<Integer, Pedido>> cache;
+
+    private long aciertos;
+    private long fallos;
+
+    public HistoricoPedidos() {
+        this.datos = ConfiguracionPersistencia.archivo(DATA_FILE);
+        this.archivoPaginas = ConfiguracionPersistencia.archivo(PAGINAS_FILE);
+        final int capacidad = ConfiguracionPersistencia.paginasEnCache();
+        this.cache = new LinkedHashMap<Integer, Map<Integer, Pedido>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Map<Integer, Pedido>> mayor) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    /**
+     * Busca en las páginas cuyo rango incluye el id, de la más nueva a la más
+     * vieja (si un pedido quedó repetido, gana la última copia).
+     */
+    @Override
+    public synchronized Pedido buscarPorId(int id) {
+        cargarTabla();
+        if (id < 1 || id > idMaximo) return null;
+
+        for (int i = paginas.size() - 1; i >= 0; i--) {
+            Pagina pagina = paginas.get(i);
+            if (id < pagina.idMinimo || id > pagina.idMaximo) continue;
+
+            Map<Integer, Pedido> contenido = leerPagina(i);
+            Pedido p = (contenido != null) ? contenido.get(id) : null;
+            if (p != null) return p;
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized int getIdMaximo() {
+        cargarTabla();
+        return idMaximo;
+    }
+
+    public synchronized int contarPedidos() {
+        cargarTabla();
+        return cantidad;
+    }
+
+    /** Lecturas de página resueltas con la caché. */
+    public synchronized long getAciertosCache() {
+        return aciertos;
+    }
+
+    /** Lecturas de página que tuvieron que ir al disco. */
+    public synchronized long getFallosCache() {
+        return fallos;
+    }
+
+    /**
+     * Agrega los pedidos al final del histórico, en páginas nuevas.
+     * @return true si quedaron escritos (datos y tabla de páginas).
+     */
+    public synchronized boolean anexar(List<Pedido> pedidos) {
+        cargarTabla();
+        if (pedidos == null || pedidos.isEmpty()) return true;
+
+        List<Pagina> nuevas = new ArrayList<>();
+        long posicion = datos.length();
+
+        try {
+            escritura.anexarDurable(datos, out -> {
+                long inicio = posicion;
+                for (int desde = 0; desde < pedidos.size(); desde += PEDIDOS_POR_PAGINA) {
+                    int hasta = Math.min(pedidos.size(), desde + PEDIDOS_POR_PAGINA);
+                    StringBuilder sb = new StringBuilder();
+                    int min = Integer.MAX_VALUE;
+                    int max = Integer.MIN_VALUE;
+                    for (int i = desde; i < hasta; i++) {
+                        Pedido p = pedidos.get(i);
+                        sb.append(formato.serializarPedido(p)).append('\n');
+                        min = Math.min(min, p.getId());
+                        max = Math.max(max, p.getId());
+                    }
+                    byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+                    out.write(bytes);
+                    nuevas.add(new Pagina(inicio, bytes.length, hasta - desde, min, max));
+                    inicio += bytes.length;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Error escribiendo " + DATA_FILE + ": " + e.getMessage());
+            return false;
+        }
+
+        // Si la última línea quedó cortada, la primera nueva empieza en su propio renglón
+        StringBuilder tabla = new StringBuilder(EscrituraSegura.terminaEnFinDeLinea(archivoPaginas) ? "" : "\n");
+        for (Pagina p : nuevas) {
+            tabla.append(p.posicion).append(';').append(p.largo).append(';').append(p.cantidad)
+                    .append(';').append(p.idMinimo).append(';').append(p.idMaximo).append('\n');
+        }
+        try {
+            escritura.anexarDurable(archivoPaginas, out -> out.write(tabla.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            System.err.println("Error escribiendo " + PAGINAS_FILE + ": " + e.getMessage());
+            return false;
+        }
+
+        for (Pagina p : nuevas) {
+            registrar(p);
+        }
+        return true;
+    }
+
+    // =========================================================
+    // Lectura
+    // =========================================================
+
+    private void cargarTabla() {
+        if (paginas != null) return;
+        paginas = new ArrayList<>();
+        if (!archivoPaginas.exists()) return;
+
+        long tamanoDatos = datos.length();
+        try (BufferedReader br = new BufferedReader(new FileReader(archivoPaginas))) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                String[] p = linea.split(";");
+                // Línea cortada por un corte: las páginas anexadas después empiezan en otro renglón
+                if (p.length != 5) continue;
+                try {
+                    Pagina pagina = new Pagina(Long.parseLong(p[0]), Integer.parseInt(p[1]),
+                            Integer.parseInt(p[2]), Integer.parseInt(p[3]), Integer.parseInt(p[4]));
+                    if (pagina.posicion + pagina.largo > tamanoDatos) break;
+                    registrar(pagina);
+                } catch (NumberFormatException ex) {
+                    continue;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo " + PAGINAS_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private void registrar(Pagina pagina) {
+        paginas.add(pagina);
+        idMaximo = Math.max(idMaximo, pagina.idMaximo);
+        cantidad += pagina.cantidad;
+    }
+
+    private Map<Integer, Pedido> leerPagina(int numero) {
+        Map<Integer, Pedido> contenido = cache.get(numero);
+        if (contenido != null) {
+            aciertos++;
+            return contenido;
+        }
+        fallos++;
+
+        Pagina pagina = paginas.get(numero);
+        byte[] bytes = new byte[pagina.largo];
+        try (RandomAccessFile raf = new RandomAccessFile(datos, "r")) {
+            raf.seek(pagina.posicion);
+            raf.readFully(bytes);
+        } catch (IOException e) {
+            System.err.println("Error leyendo " + DATA_FILE + ": " + e.getMessage());
+            return null;
+        }
+
+        contenido = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new StringReader(new String(bytes, StandardCharsets.UTF_8)))) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                linea = linea.trim();
+                if (linea.isEmpty()) continue;
+                Pedido p = formato.parsearPedido(linea);
+                if (p != null) contenido.put(p.getId(), p);
+            }
+        } catch (IOException e) {
+            // StringReader no lanza
+        }
+        cache.put(numero, contenido);
+        return contenido;
+    }
+}
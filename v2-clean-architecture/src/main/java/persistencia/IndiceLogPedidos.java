@@ -0,0 +1,319 @@
+package persistencia;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Índice lateral de la bitácora pedidos.txt: número de pedido -> (posición, largo)
+ * del bloque "=== PEDIDO X ===" ... "=============================".
+ *
+ * Así leerDatosDelLog hace una sola lectura posicionada en vez de recorrer
+ * el archivo completo (y un pedido que no está en la bitácora se descarta al
+ * instante, sin leer nada).
+ *
+ * El índice se guarda junto a la bitácora (pedidos.txt.idx) y solo se agrega:
+ *   P;numero;posicion;largo            un bloque
+ *   C;tamano;crcInicio;crcFinal        punto de control: bitácora revisada hasta 'tamano'
+ * Las entradas P valen solo si después hay un C (si el programa se cortó a
+ * mitad de escritura, lo incompleto se ignora).
+ *
+ * En cada consulta se compara la bitácora con el último punto de control:
+ * - creció: se revisa solo la parte nueva;
+ * - se achicó o cambió lo ya indexado (CRC del inicio o del final distinto):
+ *   se reconstruye el índice desde cero.
+ *
+ * Un bloque sin "=====" todavía llega hasta el final del archivo, igual que
+ * en el recorrido y en LectorLogMapeado. Esos bloques abiertos solo se
+ * guardan en memoria (el punto de control queda antes de ellos) y se vuelven
+ * a revisar cada vez que la bitácora crece.
+ */
+final class IndiceLogPedidos {
+
+    static final String EXTENSION = ".idx";
+
+    private static final String CABECERA = "#IDX1";
+    private static final String ENTRADA = "P";
+    private static final String CONTROL = "C";
+
+    private static final byte[] MARCA_PEDIDO = "=== PEDIDO ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MARCA_FIN = "=============================".getBytes(StandardCharsets.US_ASCII);
+
+    // Bytes que se comparan (CRC) al inicio y al final de lo ya indexado
+    private static final int HUELLA = 4096;
+
+    // Un índice por bitácora (por ruta absoluta), compartido por todos los repositorios
+    private static final Map<String, IndiceLogPedidos> INDICES = new ConcurrentHashMap<>();
+
+    private final File log;
+    private final File archivoIndice;
+
+    // numero -> {posicion, largo}
+    private final Map<String, long[]> bloques = new HashMap<>();
+    // Bloques sin cerrar al final de la bitácora, hasta el final del archivo
+    private final Map<String, long[]> abiertos = new HashMap<>();
+    private long revisadoHasta = -1;   // -1 = aún no se cargó
+    private long crcInicio;
+    private long crcFinal;
+
+    // Tamaño y fecha de la bitácora en la última revisión (para no recalcular CRC en cada consulta)
+    private long ultimoTamano = -1;
+    private long ultimaModificacion = -1;
+
+    private IndiceLogPedidos(File log) {
+        this.log = log;
+        this.archivoIndice = new File(log.getPath() + EXTENSION);
+    }
+
+    static IndiceLogPedidos para(File log) {
+        return INDICES.computeIfAbsent(log.getAbsolutePath(), k -> new IndiceLogPedidos(log));
+    }
+
+    /**
+     * Posición y largo del bloque del pedido, o null si no está en la bitácora.
+     */
+    synchronized long[] ubicar(String numeroPedido) throws IOException {
+        sincronizar();
+        long[] ubicacion = bloques.get(numeroPedido);
+        return (ubicacion != null) ? ubicacion : abiertos.get(numeroPedido);
+    }
+
+    /**
+     * Lee el bloque del pedido con una sola lectura posicionada.
+     */
+    byte[] leerBloque(String numeroPedido) throws IOException {
+        long[] ubicacion = ubicar(numeroPedido);
+        if (ubicacion == null) return null;
+
+        byte[] datos = new byte[(int) ubicacion[1]];
+        try (RandomAccessFile raf = new RandomAccessFile(log, "r")) {
+            raf.seek(ubicacion[0]);
+            raf.readFully(datos);
+        }
+        return datos;
+    }
+
+    // =========================================================
+    // Sincronización con la bitácora
+    // =========================================================
+
+    private void sincronizar() throws IOException {
+        if (revisadoHasta < 0) {
+            cargarDesdeDisco();
+        }
+
+        long tamano = log.length();
+        long modificacion = log.lastModified();
+        if (tamano == ultimoTamano && modificacion == ultimaModificacion) {
+            return;   // nada cambió desde la última revisión
+        }
+
+        if (revisadoHasta > 0 && (tamano < revisadoHasta || !huellaCoincide())) {
+            // La bitácora se reescribió o se editó por fuera
+            reconstruir();
+        } else if (tamano > revisadoHasta) {
+            indexarDesde(Math.max(0, revisadoHasta), tamano);
+        } else {
+            abiertos.clear();   // se recortó justo hasta lo revisado
+        }
+        ultimoTamano = tamano;
+        ultimaModificacion = modificacion;
+    }
+
+    private void reconstruir() throws IOException {
+        bloques.clear();
+        abiertos.clear();
+        revisadoHasta = 0;
+        crcInicio = 0;
+        crcFinal = 0;
+
+        // El índice viejo ya no sirve: se empieza uno nuevo
+        File temporal = new File(archivoIndice.getPath() + ".tmp");
+        try (PrintWriter w = new PrintWriter(new FileWriter(temporal))) {
+            w.println(CABECERA);
+        }
+        Files.move(temporal.toPath(), archivoIndice.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        indexarDesde(0, log.length());
+    }
+
+    /**
+     * Revisa la bitácora desde 'desde' hasta 'hasta' buscando bloques. Los
+     * completos quedan en el índice; los que empezaron pero no terminaron
+     * quedan abiertos hasta 'hasta' y se vuelven a revisar la próxima vez.
+     */
+    private void indexarDesde(long desde, long hasta) throws IOException {
+        Map<String, long[]> nuevos = new HashMap<>();
+        long fin = desde;   // hasta dónde queda revisado
+
+        try (RandomAccessFile raf = new RandomAccessFile(log, "r")) {
+            raf.seek(desde);
+
+            byte[] buffer = new byte[1 << 16];
+            int enBuffer = 0;
+            int pos = 0;
+            long posicion = desde;      // posición en el archivo de buffer[pos]
+
+            // Solo se guardan los primeros bytes de cada línea: es lo que se compara
+            byte[] linea = new byte[256];
+            int largo = 0;
+            long inicioLinea = desde;
+
+            // Encabezados sin "=====" todavía (normalmente uno): el próximo cierra todos
+            Map<String, Long> sinCerrar = new LinkedHashMap<>();
+
+            while (posicion < hasta) {
+                if (pos == enBuffer) {
+                    enBuffer = raf.read(buffer, 0, (int) Math.min(buffer.length, hasta - posicion));
+                    if (enBuffer <= 0) break;
+                    pos = 0;
+                }
+                byte b = buffer[pos++];
+                posicion++;
+                if (b != '\n') {
+                    if (largo < linea.length) linea[largo++] = b;
+                    continue;
+                }
+
+                if (empiezaCon(linea, largo, MARCA_PEDIDO)) {
+                    sinCerrar.putIfAbsent(extraerNumero(linea, largo), inicioLinea);
+                } else if (!sinCerrar.isEmpty() && empiezaCon(linea, largo, MARCA_FIN)) {
+                    // La primera aparición gana (igual que el recorrido original)
+                    for (Map.Entry<String, Long> e : sinCerrar.entrySet()) {
+                        if (!bloques.containsKey(e.getKey()) && !nuevos.containsKey(e.getKey())) {
+                            nuevos.put(e.getKey(), new long[]{e.getValue(), posicion - e.getValue()});
+                        }
+                    }
+                    sinCerrar.clear();
+                }
+
+                // Una línea a medias al final (o un bloque sin cerrar) se revisa la próxima vez
+                if (sinCerrar.isEmpty()) fin = posicion;
+                largo = 0;
+                inicioLinea = posicion;
+            }
+
+            // Un encabezado en la última línea, sin fin de línea todavía
+            if (largo > 0 && empiezaCon(linea, largo, MARCA_PEDIDO)) {
+                sinCerrar.putIfAbsent(extraerNumero(linea, largo), inicioLinea);
+            }
+
+            // Lo que quedó sin cerrar llega hasta el final, como en el recorrido
+            abiertos.clear();
+            for (Map.Entry<String, Long> e : sinCerrar.entrySet()) {
+                if (!bloques.containsKey(e.getKey()) && !nuevos.containsKey(e.getKey())) {
+                    abiertos.put(e.getKey(), new long[]{e.getValue(), posicion - e.getValue()});
+                }
+            }
+        }
+
+        bloques.putAll(nuevos);
+        revisadoHasta = fin;
+        crcInicio = crc(0, (int) Math.min(HUELLA, fin));
+        crcFinal = crc(Math.max(0, fin - HUELLA), (int) Math.min(HUELLA, fin));
+        anexar(nuevos);
+    }
+
+    private boolean huellaCoincide() throws IOException {
+        return crc(0, (int) Math.min(HUELLA, revisadoHasta)) == crcInicio
+                && crc(Math.max(0, revisadoHasta - HUELLA), (int) Math.min(HUELLA, revisadoHasta)) == crcFinal;
+    }
+
+    private long crc(long desde, int largo) throws IOException {
+        CRC32 crc = new CRC32();
+        if (largo > 0) {
+            byte[] datos = new byte[largo];
+            try (RandomAccessFile raf = new RandomAccessFile(log, "r")) {
+                raf.seek(desde);
+                raf.readFully(datos);
+            }
+            crc.update(datos);
+        }
+        return crc.getValue();
+    }
+
+    // =========================================================
+    // Archivo del índice
+    // =========================================================
+
+    private void cargarDesdeDisco() throws IOException {
+        revisadoHasta = 0;
+        if (!archivoIndice.exists()) {
+            reconstruir();
+            return;
+        }
+
+        Map<String, long[]> pendientes = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(archivoIndice))) {
+            String linea = br.readLine();
+            if (!CABECERA.equals(linea)) {
+                reconstruir();
+                return;
+            }
+            while ((linea = br.readLine()) != null) {
+                String[] p = linea.split(";");
+                try {
+                    if (ENTRADA.equals(p[0]) && p.length == 4) {
+                        pendientes.put(p[1], new long[]{Long.parseLong(p[2]), Long.parseLong(p[3])});
+                    } else if (CONTROL.equals(p[0]) && p.length == 4) {
+                        for (Map.Entry<String, long[]> e : pendientes.entrySet()) {
+                            bloques.putIfAbsent(e.getKey(), e.getValue());
+                        }
+                        pendientes.clear();
+                        revisadoHasta = Long.parseLong(p[1]);
+                        crcInicio = Long.parseLong(p[2]);
+                        crcFinal = Long.parseLong(p[3]);
+                    }
+                } catch (NumberFormatException ex) {
+                    break;  // línea cortada: lo que sigue no es confiable
+                }
+            }
+        }
+    }
+
+    private void anexar(Map<String, long[]> nuevos) {
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(archivoIndice, true)))) {
+            for (Map.Entry<String, long[]> e : nuevos.entrySet()) {
+                w.println(ENTRADA + ";" + e.getKey() + ";" + e.getValue()[0] + ";" + e.getValue()[1]);
+            }
+            w.println(CONTROL + ";" + revisadoHasta + ";" + crcInicio + ";" + crcFinal);
+        } catch (IOException e) {
+            // Sin índice en disco se sigue funcionando con el de memoria
+            System.err.println("Error guardando índice de " + log.getName() + ": " + e.getMessage());
+        }
+    }
+
+    // =========================================================
+    // Utilidades de bytes
+    // =========================================================
+
+    private static boolean empiezaCon(byte[] linea, int largo, byte[] prefijo) {
+        if (largo < prefijo.length) return false;
+        for (int i = 0; i < prefijo.length; i++) {
+            if (linea[i] != prefijo[i]) return false;
+        }
+        return true;
+    }
+
+    /** "=== PEDIDO PED0001 ===" -> "PED0001" */
+    private static String extraerNumero(byte[] linea, int largo) {
+        int fin = largo;
+        while (fin > MARCA_PEDIDO.length && (linea[fin - 1] == '\r' || linea[fin - 1] == ' ' || linea[fin - 1] == '=')) {
+            fin--;
+        }
+        return new String(linea, MARCA_PEDIDO.length, fin - MARCA_PEDIDO.length, StandardCharsets.ISO_8859_1).trim();
+    }
+}
@@ -0,0 +1,223 @@
+package persistencia;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lector de la bitácora pedidos.txt sobre el archivo mapeado en memoria
+ * (FileChannel.map): busca las marcas "=== PEDIDO" directamente en los bytes,
+ * sin convertir cada línea a String, y solo decodifica el bloque que se pide.
+ *
+ * El archivo se mapea en ventanas de hasta 1 GB, así que también sirve para
+ * bitácoras de más de 2 GB. El mapeo refleja el archivo al momento de crear
+ * el lector; para ver lo que se agregue después hay que crear otro.
+ *
+ * Uso como flujo (reportes):
+ *   try (Stream<LectorLogMapeado.BloqueLog> s = new LectorLogMapeado(archivo).bloques()) {
+ *       s.filter(b -> b.getNumero().startsWith("PED1")).map(BloqueLog::getTexto)...
+ *   }
+ */
+public final class LectorLogMapeado {
+
+    private static final long VENTANA = 1L << 30;
+
+    private static final byte[] MARCA_PEDIDO = "=== PEDIDO ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MARCA_FIN = "=============================".getBytes(StandardCharsets.US_ASCII);
+
+    private final MappedByteBuffer[] ventanas;
+    private final long tamano;
+    private final Charset charset;
+
+    /**
+     * Mapea el archivo completo. El canal se cierra enseguida: el mapeo sigue
+     * siendo válido hasta que el recolector libere el lector.
+     */
+    public LectorLogMapeado(File log) throws IOException {
+        this(log, Charset.defaultCharset());   // mismo charset que usaba FileReader
+    }
+
+    public LectorLogMapeado(File log, Charset charset) throws IOException {
+        this.charset = charset;
+        try (FileChannel canal = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+            this.tamano = canal.size();
+            int cantidad = (int) ((tamano + VENTANA - 1) / VENTANA);
+            this.ventanas = new MappedByteBuffer[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                long desde = i * VENTANA;
+                ventanas[i] = canal.map(FileChannel.MapMode.READ_ONLY, desde, Math.min(VENTANA, tamano - desde));
+            }
+        }
+    }
+
+    public long getTamano() {
+        return tamano;
+    }
+
+    /**
+     * Texto del primer bloque del pedido (desde "=== PEDIDO X ===" hasta la
+     * línea de "=====", incluida), o null si no está.
+     */
+    public String buscarBloque(String numeroPedido) {
+        BloqueLog b = ubicar(numeroPedido);
+        return (b != null) ? b.getTexto() : null;
+    }
+
+    /**
+     * Ubica el primer bloque del pedido sin decodificar nada más que la marca.
+     */
+    public BloqueLog ubicar(String numeroPedido) {
+        if (numeroPedido == null) return null;
+        byte[] buscado = numeroPedido.trim().getBytes(StandardCharsets.ISO_8859_1);
+
+        long pos = 0;
+        while (pos < tamano) {
+            if (empiezaCon(pos, MARCA_PEDIDO) && numeroCoincide(pos + MARCA_PEDIDO.length, buscado)) {
+                return new BloqueLog(numeroPedido.trim(), pos, finDeBloque(pos) - pos);
+            }
+            pos = siguienteLinea(pos);
+        }
+        return null;
+    }
+
+    /**
+     * Todos los bloques de la bitácora, en orden, leídos a medida que se consumen.
+     * El texto de cada bloque se decodifica solo si se pide (getTexto).
+     */
+    public Stream<BloqueLog> bloques() {
+        Spliterator<BloqueLog> sp = new Spliterators.AbstractSpliterator<BloqueLog>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            private long pos = 0;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super BloqueLog> accion) {
+                while (pos < tamano) {
+                    long inicio = pos;
+                    pos = siguienteLinea(pos);
+                    if (empiezaCon(inicio, MARCA_PEDIDO)) {
+                        long fin = finDeBloque(inicio);
+                        pos = fin;
+                        accion.accept(new BloqueLog(leerNumero(inicio + MARCA_PEDIDO.length), inicio, fin - inicio));
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(sp, false);
+    }
+
+    /**
+     * Un bloque de la bitácora: número de pedido y ubicación en el archivo.
+     */
+    public final class BloqueLog {
+
+        private final String numero;
+        private final long posicion;
+        private final long largo;
+
+        private BloqueLog(String numero, long posicion, long largo) {
+            this.numero = numero;
+            this.posicion = posicion;
+            this.largo = largo;
+        }
+
+        public String getNumero() {
+            return numero;
+        }
+
+        public long getPosicion() {
+            return posicion;
+        }
+
+        public long getLargo() {
+            return largo;
+        }
+
+        /** Decodifica el bloque (solo este) a texto. */
+        public String getTexto() {
+            byte[] datos = new byte[(int) largo];
+            for (int i = 0; i < datos.length; i++) {
+                datos[i] = byteEn(posicion + i);
+            }
+            return new String(datos, charset);
+        }
+    }
+
+    // =========================================================
+    // Búsqueda sobre bytes
+    // =========================================================
+
+    private byte byteEn(long pos) {
+        return ventanas[(int) (pos / VENTANA)].get((int) (pos % VENTANA));
+    }
+
+    /** Posición del primer byte de la línea siguiente (o el final del archivo). */
+    private long siguienteLinea(long pos) {
+        int v = (int) (pos / VENTANA);
+        int i = (int) (pos % VENTANA);
+        while (v < ventanas.length) {
+            MappedByteBuffer buf = ventanas[v];
+            int limite = buf.limit();
+            for (; i < limite; i++) {
+                if (buf.get(i) == '\n') {
+                    return (long) v * VENTANA + i + 1;
+                }
+            }
+            v++;
+            i = 0;
+        }
+        return tamano;
+    }
+
+    /**
+     * Fin del bloque que empieza en 'inicio': después de la primera línea de
+     * "=====" (o el final del archivo, igual que el recorrido original).
+     */
+    private long finDeBloque(long inicio) {
+        long pos = siguienteLinea(inicio);
+        while (pos < tamano) {
+            long siguiente = siguienteLinea(pos);
+            if (empiezaCon(pos, MARCA_FIN)) return siguiente;
+            pos = siguiente;
+        }
+        return tamano;
+    }
+
+    private boolean empiezaCon(long pos, byte[] prefijo) {
+        if (pos + prefijo.length > tamano) return false;
+        for (int i = 0; i < prefijo.length; i++) {
+            if (byteEn(pos + i) != prefijo[i]) return false;
+        }
+        return true;
+    }
+
+    /** El número va seguido de espacio, '\r' o '\n' (así "PED1" no coincide con "PED10"). */
+    private boolean numeroCoincide(long pos, byte[] numero) {
+        if (!empiezaCon(pos, numero)) return false;
+        long despues = pos + numero.length;
+        if (despues >= tamano) return true;
+        byte b = byteEn(despues);
+        return b == ' ' || b == '\r' || b == '\n';
+    }
+
+    private String leerNumero(long pos) {
+        StringBuilder sb = new StringBuilder(12);
+        while (pos < tamano) {
+            byte b = byteEn(pos++);
+            if (b == ' ' || b == '\r' || b == '\n') break;
+            sb.append((char) (b & 0xFF));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package persistencia;
+
+/**
+ * Punto de extensión (SPI) para agregar formatos de almacén de pedidos sin
+ * tocar ServicioPedidos: FabricaRepositorioPedidos busca los proveedores con
+ * ServiceLoader y usa el que tenga el nombre configurado en
+ * pizzeria.persistencia.formato.
+ *
+ * Un proveedor nuevo se declara en module-info (provides ... with ...) y,
+ * para el classpath, en META-INF/services/persistencia.ProveedorRepositorioPedidos.
+ */
+public interface ProveedorRepositorioPedidos {
+
+    /** Nombre del formato (el valor de pizzeria.persistencia.formato). */
+    String getNombre();
+
+    /**
+     * false si falta algo para usarlo (por ejemplo el driver JDBC):
+     * la fábrica cae entonces al formato de texto.
+     */
+    default boolean estaDisponible() {
+        return true;
+    }
+
+    RepositorioPedidos crear();
+}
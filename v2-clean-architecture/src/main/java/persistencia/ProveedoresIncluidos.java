@@ -0,0 +1,55 @@
+package persistencia;
+
+/**
+ * Proveedores de los formatos que vienen con la aplicación
+ * (registrados en module-info y en META-INF/services).
+ */
+public final class ProveedoresIncluidos {
+
+    private ProveedoresIncluidos() {}
+
+    /** pedidos_store.* en texto (formato original). */
+    public static final class Txt implements ProveedorRepositorioPedidos {
+        @Override
+        public String getNombre() {
+            return "txt";
+        }
+
+        @Override
+        public RepositorioPedidos crear() {
+            return new RepositorioPedidosTxt();
+        }
+    }
+
+    /** pedidos_store.bin + bitácora binaria. */
+    public static final class Binario implements ProveedorRepositorioPedidos {
+        @Override
+        public String getNombre() {
+            return "binario";
+        }
+
+        @Override
+        public RepositorioPedidos crear() {
+            return new RepositorioPedidosBinario();
+        }
+    }
+
+    /** Base de datos embebida por JDBC (necesita el driver en el classpath/module path). */
+    public static final class Jdbc implements ProveedorRepositorioPedidos {
+        @Override
+        public String getNombre() {
+            return "jdbc";
+        }
+
+        @Override
+        public boolean estaDisponible() {
+            return RepositorioPedidosJdbc.hayDriver(ConfiguracionPersistencia.jdbcUrl());
+        }
+
+        @Override
+        public RepositorioPedidos crear() {
+            return new RepositorioPedidosJdbc(ConfiguracionPersistencia.jdbcUrl(),
+                    ConfiguracionPersistencia.jdbcUsuario(), ConfiguracionPersistencia.jdbcClave());
+        }
+    }
+}
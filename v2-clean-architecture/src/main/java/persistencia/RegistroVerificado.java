@@ -0,0 +1,102 @@
+package persistencia;
+
+import java.nio.charset.Charset;
+import java.util.zip.CRC32C;
+
+/**
+ * Suma de verificación por registro para los archivos de texto del almacén:
+ *   registro;#xxxxxxxx
+ * donde xxxxxxxx es el CRC32C (hexadecimal) de los bytes del registro en el
+ * charset del archivo. Al parsear, el campo extra se ignora igual que
+ * cualquier campo sobrante.
+ *
+ * Los archivos nuevos empiezan con la línea ENCABEZADO: desde ahí todo
+ * registro tiene que traer su suma, y uno sin suma (por ejemplo una línea
+ * cortada antes del ;#) es un registro dañado. Un archivo sin encabezado es
+ * del formato anterior: sus líneas se aceptan tal cual (aunque tengan '#'),
+ * salvo que ya haya aparecido un registro con suma; desde ese momento se
+ * exige la suma también (ver Lector).
+ */
+final class RegistroVerificado {
+
+    /** Primera línea de los archivos con suma por registro. */
+    static final String ENCABEZADO = "#registros-verificados;v1";
+
+    private static final String MARCA = ";#";
+    private static final int LARGO_SUFIJO = MARCA.length() + 8;
+
+    private RegistroVerificado() {}
+
+    static String sellar(String registro, Charset charset) {
+        return registro + MARCA + String.format("%08x", crc(registro, charset));
+    }
+
+    static boolean esEncabezado(String linea) {
+        return ENCABEZADO.equals(linea);
+    }
+
+    /**
+     * true si el archivo usa sumas: su primera línea (sin recortar) es el
+     * encabezado o un registro con suma válida. Sirve para decidir antes de
+     * leer por trozos en paralelo.
+     */
+    static boolean usaSuma(String primeraLinea, Charset charset) {
+        if (primeraLinea == null) return false;
+        String linea = primeraLinea.trim();
+        return esEncabezado(linea) || quitarSuma(linea, charset) != null;
+    }
+
+    /**
+     * @return El registro sin la suma, o null si no trae una suma válida.
+     */
+    private static String quitarSuma(String linea, Charset charset) {
+        int n = linea.length();
+        if (n < LARGO_SUFIJO || !linea.startsWith(MARCA, n - LARGO_SUFIJO)) return null;
+
+        String registro = linea.substring(0, n - LARGO_SUFIJO);
+        try {
+            long esperado = Long.parseLong(linea.substring(n - 8), 16);
+            return (crc(registro, charset) == esperado) ? registro : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Verificación de las líneas de UN archivo, en orden. Recuerda si ya se
+     * exige la suma (encabezado o un registro con suma ya leído).
+     */
+    static final class Lector {
+        private final Charset charset;
+        private boolean exigeSuma;
+
+        Lector(Charset charset, boolean exigeSuma) {
+            this.charset = charset;
+            this.exigeSuma = exigeSuma;
+        }
+
+        /**
+         * @return El registro sin la suma; "" para el encabezado (no es un
+         *         registro); null si el registro está dañado (suma que no
+         *         coincide, línea cortada, o sin suma donde se exige).
+         */
+        String verificar(String linea) {
+            if (esEncabezado(linea)) {
+                exigeSuma = true;
+                return "";
+            }
+            String registro = quitarSuma(linea, charset);
+            if (registro != null) {
+                exigeSuma = true;
+                return registro;
+            }
+            return exigeSuma ? null : linea;   // formato anterior
+        }
+    }
+
+    private static long crc(String registro, Charset charset) {
+        CRC32C crc = new CRC32C();
+        crc.update(registro.getBytes(charset));
+        return crc.getValue();
+    }
+}
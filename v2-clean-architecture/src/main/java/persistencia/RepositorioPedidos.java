@@ -0,0 +1,43 @@
+package persistencia;
+
+import java.util.List;
+
+import negocio.modelo.Pedido;
+
+/**
+ * Contrato de la persistencia de pedidos (patrón Repository).
+ * Hay una implementación en texto (RepositorioPedidosTxt, formato original)
+ * y otra binaria (RepositorioPedidosBinario); cuál se usa lo decide
+ * FabricaRepositorioPedidos según la configuración.
+ *
+ * En modo journal los cambios se anexan como eventos y cada tanto se
+ * compacta todo con guardarPedidos (snapshot).
+ */
+public interface RepositorioPedidos {
+
+    /** Lee todos los pedidos guardados (snapshot + eventos pendientes). */
+    List<Pedido> cargarPedidos();
+
+    /** Reescribe el estado completo (en modo journal, además vacía la bitácora). */
+    void guardarPedidos(List<Pedido> pedidos);
+
+    /** Anexa los eventos a la bitácora en una sola escritura. */
+    void anexarEventos(List<EventoPedido> eventos);
+
+    default void anexarEvento(EventoPedido evento) {
+        anexarEventos(List.of(evento));
+    }
+
+    /**
+     * Fuerza a disco lo anexado que la política de fsync dejó pendiente
+     * (PERIODICO). Lo llama una tarea periódica; por defecto no hace nada.
+     */
+    default void sincronizar() {
+    }
+
+    /** true si la bitácora creció lo suficiente como para hacer un snapshot. */
+    boolean requiereSnapshot();
+
+    /** true = bitácora + snapshot; false = cada cambio reescribe todo. */
+    boolean esModoJournal();
+}
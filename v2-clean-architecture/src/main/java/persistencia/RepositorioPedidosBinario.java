@@ -0,0 +1,603 @@
+package persistencia;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import negocio.abstractas.CodigoEstado;
+import negocio.modelo.Pedido;
+import negocio.modelo.Pizza;
+import negocio.patrones.state.Estados;
+
+/**
+ * Persistencia de pedidos en formato binario compacto.
+ *
+ * Snapshot (pedidos_store.bin):
+ *   "PZB2"                                  marca + versión ("PZB1": sin finalizado)
+ *   varint D, D x (varint largo, UTF-8)     diccionario de textos
+ *   varint N                                cantidad de pedidos
+ *   N x pedido:
+ *     varint  id (zigzag, diferencia con el id anterior)
+ *     byte    estado (ordinal de CodigoEstado)
+ *     byte    cantidad de ingredientes
+ *     byte    cantidad de condimentos
+ *     varint  masa, salsa, queso, orilla    (posición en el diccionario)
+ *     varint  ingredientes..., condimentos...
+ *     varint  total en centavos (zigzag)
+ *     varint  momento de finalización en ms (0 = sin finalizar o desconocido)
+ *
+ * Cada texto (masa, "Pepperoni", ...) se guarda una sola vez en el diccionario
+ * y al cargar todos los pedidos comparten la misma instancia de String.
+ *
+ * Bitácora (pedidos_store.binlog): "PZJ1" y después, por evento,
+ *   varint largo, evento, 4 bytes CRC32C del evento
+ * con el evento:
+ *   'A' varint id, byte estado, 4 textos, byte n + textos, byte n + textos, varint centavos
+ *   'E' varint id, byte estado
+ *   'F' varint id, byte estado, varint ms    (paso a un estado final, con su momento)
+ * (los textos van con largo + UTF-8: cada registro se entiende solo).
+ *
+ * Al arrancar, un registro cuyo CRC no coincide (o cortado al final, por un
+ * corte de luz) se aparta en pedidos_store.bin.cuarentena, en hexadecimal, y
+ * la lectura sigue en el próximo registro válido: un byte dañado en el medio
+ * no se lleva los eventos que vienen después. Como en el formato de texto,
+ * después se reescribe el almacén sin los registros dañados. Una bitácora
+ * sin "PZJ1" es del formato anterior (eventos sin largo ni CRC): se lee
+ * hasta el primer evento que no se entiende y se reescribe con el nuevo.
+ */
+public class RepositorioPedidosBinario implements RepositorioPedidos {
+
+    static final String SNAPSHOT_FILE = "pedidos_store.bin";
+    static final String JOURNAL_FILE = "pedidos_store.binlog";
+    static final String CUARENTENA_FILE = "pedidos_store.bin.cuarentena";
+
+    private static final byte[] MARCA = {'P', 'Z', 'B', '2'};
+    private static final byte VERSION_SIN_FINALIZADO = '1';
+    private static final byte[] MARCA_BITACORA = {'P', 'Z', 'J', '1'};
+    // Ningún evento real se acerca; un largo mayor es un byte dañado
+    private static final int MAX_REGISTRO = 1 << 20;
+    private static final byte EVENTO_ALTA = 'A';
+    private static final byte EVENTO_ESTADO = 'E';
+    private static final byte EVENTO_FINALIZADO = 'F';
+
+    private static final CodigoEstado[] ESTADOS = CodigoEstado.values();
+
+    private final boolean modoJournal;
+    private final int eventosPorSnapshot;
+    private final EscrituraSegura escritura = new EscrituraSegura();
+
+    // Eventos anexados desde el último snapshot
+    private int eventosDesdeSnapshot = 0;
+
+    // La bitácora leída era del formato anterior o terminaba cortada: hay que reescribirla
+    private boolean bitacoraPorReescribir = false;
+
+    public RepositorioPedidosBinario() {
+        this.modoJournal = ConfiguracionPersistencia.modoJournal();
+        this.eventosPorSnapshot = ConfiguracionPersistencia.eventosPorSnapshot();
+    }
+
+    @Override
+    public boolean esModoJournal() {
+        return modoJournal;
+    }
+
+    /**
+     * Lee snapshot + bitácora. Si todavía no hay archivos binarios pero sí
+     * datos en texto, los importa una vez (los de texto no se tocan).
+     */
+    @Override
+    public List<Pedido> cargarPedidos() {
+        File snapshot = ConfiguracionPersistencia.archivo(SNAPSHOT_FILE);
+        File journal = ConfiguracionPersistencia.archivo(JOURNAL_FILE);
+
+        if (!snapshot.exists() && !journal.exists()) {
+            List<Pedido> desdeTexto = new RepositorioPedidosTxt().cargarPedidos();
+            if (!desdeTexto.isEmpty()) {
+                guardarPedidos(desdeTexto);
+                System.out.println("Importados " + desdeTexto.size() + " pedidos del formato de texto");
+            }
+            return desdeTexto;
+        }
+
+        Map<Integer, Pedido> porId = new LinkedHashMap<>();
+        for (Pedido p : leerSnapshot(snapshot)) {
+            porId.put(p.getId(), p);
+        }
+        // Registros de la bitácora que no pasaron el CRC, en el orden del archivo
+        List<byte[]> danados = new ArrayList<>();
+        eventosDesdeSnapshot = reproducirJournal(journal, porId, danados);
+
+        List<Pedido> pedidos = new ArrayList<>(porId.values());
+        if (!danados.isEmpty() || bitacoraPorReescribir) recuperar(danados, pedidos);
+        return pedidos;
+    }
+
+    /**
+     * Recuperación al arrancar: aparta los registros dañados y reescribe el
+     * almacén con lo que sí se pudo leer (snapshot nuevo y bitácora vacía).
+     */
+    private void recuperar(List<byte[]> danados, List<Pedido> pedidos) {
+        if (!danados.isEmpty()) {
+            apartarEnCuarentena(danados);
+        }
+        guardarPedidos(pedidos);
+        bitacoraPorReescribir = false;
+    }
+
+    private void apartarEnCuarentena(List<byte[]> danados) {
+        File cuarentena = ConfiguracionPersistencia.archivo(CUARENTENA_FILE);
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(cuarentena, true)))) {
+            w.println("# " + LocalDateTime.now() + " - " + danados.size() + " registros dañados");
+            for (byte[] d : danados) {
+                StringBuilder hex = new StringBuilder(d.length * 2);
+                for (byte b : d) hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                w.println(hex);
+            }
+        } catch (IOException e) {
+            System.err.println("Error escribiendo " + CUARENTENA_FILE + ": " + e.getMessage());
+        }
+        System.err.println("Recuperación: " + danados.size() + " registros dañados apartados en " + CUARENTENA_FILE);
+    }
+
+    /**
+     * Escribe el snapshot completo (archivo temporal + fsync + renombrar, así
+     * nunca queda uno a medias) y vacía la bitácora.
+     */
+    @Override
+    public void guardarPedidos(List<Pedido> pedidos) {
+        File snapshot = ConfiguracionPersistencia.archivo(SNAPSHOT_FILE);
+        try {
+            byte[] datos = serializarSnapshot(pedidos);
+            escritura.reemplazar(snapshot, out -> out.write(datos));
+            truncarJournal();
+        } catch (IOException e) {
+            System.err.println("Error escribiendo " + SNAPSHOT_FILE + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void anexarEventos(List<EventoPedido> eventos) {
+        if (eventos == null || eventos.isEmpty()) return;
+
+        File journal = ConfiguracionPersistencia.archivo(JOURNAL_FILE);
+        Salida s = new Salida(64 * eventos.size() + MARCA_BITACORA.length);
+        if (journal.length() == 0) s.write(MARCA_BITACORA, 0, MARCA_BITACORA.length);
+        Salida evento = new Salida(64);
+        for (EventoPedido e : eventos) {
+            evento.reset();
+            escribirEvento(evento, e);
+            s.varint(evento.size());
+            evento.volcarEn(s);
+            s.entero(evento.crc32c());
+        }
+        try {
+            escritura.anexar(journal, s::writeTo);
+            eventosDesdeSnapshot += eventos.size();
+        } catch (IOException e) {
+            System.err.println("Error escribiendo " + JOURNAL_FILE + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void sincronizar() {
+        escritura.forzarPendientes();
+    }
+
+    @Override
+    public boolean requiereSnapshot() {
+        return modoJournal && eventosDesdeSnapshot >= eventosPorSnapshot;
+    }
+
+    // =========================================================
+    // Snapshot
+    // =========================================================
+
+    private byte[] serializarSnapshot(List<Pedido> pedidos) {
+        // Primero el cuerpo (así se conoce el diccionario completo), luego la cabecera
+        Map<String, Integer> diccionario = new HashMap<>();
+        List<String> textos = new ArrayList<>();
+        Salida cuerpo = new Salida(32 * pedidos.size() + 16);
+
+        int idAnterior = 0;
+        for (Pedido p : pedidos) {
+            Pizza pizza = p.getPizza();
+            List<String> ing = pizza.getIngredientes();
+            List<String> con = pizza.getCondimentos();
+
+            cuerpo.varint(zigzag(p.getId() - idAnterior));
+            idAnterior = p.getId();
+
+            // Cabecera de ancho fijo
+            cuerpo.write(p.getCodigoEstado().ordinal());
+            cuerpo.write(Math.min(ing.size(), 255));
+            cuerpo.write(Math.min(con.size(), 255));
+
+            cuerpo.varint(referencia(pizza.getMasa(), diccionario, textos));
+            cuerpo.varint(referencia(pizza.getSalsa(), diccionario, textos));
+            cuerpo.varint(referencia(pizza.getQueso(), diccionario, textos));
+            cuerpo.varint(referencia(pizza.getTipoOrilla(), diccionario, textos));
+            for (int i = 0; i < Math.min(ing.size(), 255); i++) cuerpo.varint(referencia(ing.get(i), diccionario, textos));
+            for (int i = 0; i < Math.min(con.size(), 255); i++) cuerpo.varint(referencia(con.get(i), diccionario, textos));
+
+            cuerpo.varint(zigzag(p.getTotalCentavos()));
+            cuerpo.varint(p.getFinalizadoEnMs());
+        }
+
+        Salida todo = new Salida(cuerpo.size() + 64 * textos.size() + 16);
+        todo.write(MARCA, 0, MARCA.length);
+        todo.varint(textos.size());
+        for (String t : textos) todo.texto(t);
+        todo.varint(pedidos.size());
+        cuerpo.volcarEn(todo);
+        return todo.toByteArray();
+    }
+
+    private List<Pedido> leerSnapshot(File snapshot) {
+        List<Pedido> lista = new ArrayList<>();
+        if (!snapshot.exists()) return lista;
+
+        try {
+            Entrada in = new Entrada(Files.readAllBytes(snapshot.toPath()));
+            for (int i = 0; i < MARCA.length - 1; i++) {
+                if (in.byteSinSigno() != MARCA[i]) {
+                    System.err.println(SNAPSHOT_FILE + " no tiene el formato esperado");
+                    return lista;
+                }
+            }
+            int version = in.byteSinSigno();
+            if (version != MARCA[MARCA.length - 1] && version != VERSION_SIN_FINALIZADO) {
+                System.err.println(SNAPSHOT_FILE + " tiene una versión desconocida");
+                return lista;
+            }
+            boolean conFinalizado = (version != VERSION_SIN_FINALIZADO);
+
+            String[] textos = new String[(int) in.varint()];
+            for (int i = 0; i < textos.length; i++) textos[i] = in.texto();
+
+            int cantidad = (int) in.varint();
+            lista = new ArrayList<>(cantidad);
+            int id = 0;
+            for (int n = 0; n < cantidad; n++) {
+                id += (int) deszigzag(in.varint());
+                CodigoEstado estado = ESTADOS[in.byteSinSigno()];
+                int cantIng = in.byteSinSigno();
+                int cantCon = in.byteSinSigno();
+
+                Pizza pizza = new Pizza();
+                pizza.setMasa(textos[(int) in.varint()]);
+                pizza.setSalsa(textos[(int) in.varint()]);
+                pizza.setQueso(textos[(int) in.varint()]);
+                pizza.setTipoOrilla(textos[(int) in.varint()]);
+                for (int i = 0; i < cantIng; i++) pizza.agregarIngrediente(textos[(int) in.varint()]);
+                for (int i = 0; i < cantCon; i++) pizza.agregarCondimento(textos[(int) in.varint()]);
+
+                Pedido pedido = new Pedido(pizza, deszigzag(in.varint()));
+                pedido.setId(id);
+                pedido.restaurarEstado(Estados.de(estado));
+                if (conFinalizado) pedido.restaurarFinalizadoEn(in.varint());
+                lista.add(pedido);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error leyendo " + SNAPSHOT_FILE + ": " + e.getMessage());
+        }
+        return lista;
+    }
+
+    // =========================================================
+    // Bitácora
+    // =========================================================
+
+    private void escribirEvento(Salida s, EventoPedido evento) {
+        Pedido p = evento.getPedido();
+        if (evento.getTipo() == EventoPedido.Tipo.ALTA) {
+            Pizza pizza = p.getPizza();
+            List<String> ing = pizza.getIngredientes();
+            List<String> con = pizza.getCondimentos();
+
+            s.write(EVENTO_ALTA);
+            s.varint(p.getId());
+            s.write(p.getCodigoEstado().ordinal());
+            s.texto(nullToEmpty(pizza.getMasa()));
+            s.texto(nullToEmpty(pizza.getSalsa()));
+            s.texto(nullToEmpty(pizza.getQueso()));
+            s.texto(nullToEmpty(pizza.getTipoOrilla()));
+            s.write(Math.min(ing.size(), 255));
+            for (int i = 0; i < Math.min(ing.size(), 255); i++) s.texto(nullToEmpty(ing.get(i)));
+            s.write(Math.min(con.size(), 255));
+            for (int i = 0; i < Math.min(con.size(), 255); i++) s.texto(nullToEmpty(con.get(i)));
+            s.varint(zigzag(p.getTotalCentavos()));
+        } else if (p.getFinalizadoEnMs() > 0) {
+            s.write(EVENTO_FINALIZADO);
+            s.varint(p.getId());
+            s.write(p.getCodigoEstado().ordinal());
+            s.varint(p.getFinalizadoEnMs());
+        } else {
+            s.write(EVENTO_ESTADO);
+            s.varint(p.getId());
+            s.write(p.getCodigoEstado().ordinal());
+        }
+    }
+
+    private int reproducirJournal(File journal, Map<Integer, Pedido> porId, List<byte[]> danados) {
+        if (!journal.exists()) return 0;
+
+        int eventos = 0;
+        try {
+            Entrada in = new Entrada(Files.readAllBytes(journal.toPath()));
+            if (!in.empiezaCon(MARCA_BITACORA)) {
+                return reproducirSinSumas(in, porId);
+            }
+            in.irA(MARCA_BITACORA.length);
+            while (in.quedan()) {
+                int inicio = in.posicion();
+                int fin = in.finDeRegistro(inicio);
+                if (fin < 0) {
+                    // CRC que no coincide, largo imposible o registro cortado:
+                    // se aparta hasta el próximo registro válido (o el final)
+                    int siguiente = in.proximoRegistro(inicio + 1);
+                    int hasta = (siguiente < 0) ? in.largo() : siguiente;
+                    danados.add(in.copia(inicio, hasta));
+                    in.irA(hasta);
+                    continue;
+                }
+
+                int largo = (int) in.varint();
+                int cuerpo = in.posicion();
+                try {
+                    boolean aplicado = aplicarEvento(in, porId);
+                    if (in.posicion() != cuerpo + largo) throw new IndexOutOfBoundsException("largo distinto");
+                    if (!aplicado) System.err.println("Evento de bitácora ignorado en posición " + inicio);
+                    eventos++;
+                } catch (IndexOutOfBoundsException ilegible) {
+                    // CRC bien pero contenido que no se entiende (otra versión del programa)
+                    danados.add(in.copia(inicio, fin));
+                }
+                in.irA(fin);
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo " + JOURNAL_FILE + ": " + e.getMessage());
+        }
+        return eventos;
+    }
+
+    /**
+     * Bitácora del formato anterior (sin largo ni CRC): se lee hasta el
+     * primer evento que no se entiende y se marca para reescribirla.
+     */
+    private int reproducirSinSumas(Entrada in, Map<Integer, Pedido> porId) {
+        int eventos = 0;
+        bitacoraPorReescribir = in.quedan();
+        while (in.quedan()) {
+            int inicio = in.posicion();
+            try {
+                if (!aplicarEvento(in, porId)) {
+                    System.err.println("Evento de bitácora ignorado en posición " + inicio);
+                }
+                eventos++;
+            } catch (IndexOutOfBoundsException cortado) {
+                System.err.println("Registro incompleto al final de " + JOURNAL_FILE + " (descartado)");
+                break;
+            }
+        }
+        return eventos;
+    }
+
+    private boolean aplicarEvento(Entrada in, Map<Integer, Pedido> porId) {
+        int tipo = in.byteSinSigno();
+        if (tipo == EVENTO_ALTA) {
+            int id = (int) in.varint();
+            CodigoEstado estado = ESTADOS[in.byteSinSigno()];
+            Pizza pizza = new Pizza();
+            pizza.setMasa(in.texto());
+            pizza.setSalsa(in.texto());
+            pizza.setQueso(in.texto());
+            pizza.setTipoOrilla(in.texto());
+            int cantIng = in.byteSinSigno();
+            for (int i = 0; i < cantIng; i++) pizza.agregarIngrediente(in.texto());
+            int cantCon = in.byteSinSigno();
+            for (int i = 0; i < cantCon; i++) pizza.agregarCondimento(in.texto());
+
+            Pedido p = new Pedido(pizza, deszigzag(in.varint()));
+            p.setId(id);
+            p.restaurarEstado(Estados.de(estado));
+            porId.put(id, p);
+            return true;
+        }
+        if (tipo == EVENTO_ESTADO || tipo == EVENTO_FINALIZADO) {
+            int id = (int) in.varint();
+            CodigoEstado estado = ESTADOS[in.byteSinSigno()];
+            long finalizadoEn = (tipo == EVENTO_FINALIZADO) ? in.varint() : 0;
+            Pedido p = porId.get(id);
+            if (p == null) return false;
+            p.restaurarEstado(Estados.de(estado));
+            if (finalizadoEn > 0) p.restaurarFinalizadoEn(finalizadoEn);
+            return true;
+        }
+        throw new IndexOutOfBoundsException("tipo de evento desconocido: " + tipo);
+    }
+
+    /** Deja la bitácora solo con su marca (temporal + fsync + renombrar, como el snapshot). */
+    private void truncarJournal() {
+        File journal = ConfiguracionPersistencia.archivo(JOURNAL_FILE);
+        try {
+            escritura.reemplazar(journal, out -> out.write(MARCA_BITACORA));
+            eventosDesdeSnapshot = 0;
+        } catch (IOException e) {
+            System.err.println("Error truncando " + JOURNAL_FILE + ": " + e.getMessage());
+        }
+    }
+
+    // =========================================================
+    // Codificación
+    // =========================================================
+
+    private static int referencia(String texto, Map<String, Integer> diccionario, List<String> textos) {
+        String t = nullToEmpty(texto);
+        Integer ref = diccionario.get(t);
+        if (ref == null) {
+            ref = textos.size();
+            diccionario.put(t, ref);
+            textos.add(t);
+        }
+        return ref;
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long deszigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static String nullToEmpty(String s) {
+        return (s == null) ? "" : s;
+    }
+
+    /** Buffer de escritura con varint y textos. */
+    private static final class Salida extends ByteArrayOutputStream {
+
+        Salida(int capacidad) {
+            super(Math.max(32, capacidad));
+        }
+
+        void varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        void texto(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            varint(b.length);
+            write(b, 0, b.length);
+        }
+
+        /** 4 bytes, el más significativo primero. */
+        void entero(long v) {
+            write((int) (v >>> 24));
+            write((int) (v >>> 16));
+            write((int) (v >>> 8));
+            write((int) v);
+        }
+
+        long crc32c() {
+            CRC32C crc = new CRC32C();
+            crc.update(buf, 0, count);
+            return crc.getValue();
+        }
+
+        void volcarEn(ByteArrayOutputStream destino) {
+            destino.write(buf, 0, count);
+        }
+    }
+
+    /** Lectura secuencial sobre el arreglo completo del archivo. */
+    private static final class Entrada {
+
+        private final byte[] datos;
+        private int pos;
+
+        Entrada(byte[] datos) {
+            this.datos = datos;
+        }
+
+        boolean quedan() {
+            return pos < datos.length;
+        }
+
+        int posicion() {
+            return pos;
+        }
+
+        int largo() {
+            return datos.length;
+        }
+
+        void irA(int posicion) {
+            pos = posicion;
+        }
+
+        boolean empiezaCon(byte[] marca) {
+            if (datos.length < marca.length) return false;
+            for (int i = 0; i < marca.length; i++) {
+                if (datos[i] != marca[i]) return false;
+            }
+            return true;
+        }
+
+        byte[] copia(int desde, int hasta) {
+            return Arrays.copyOfRange(datos, desde, hasta);
+        }
+
+        /**
+         * Fin (después del CRC) del registro que empieza en 'desde', o -1 si
+         * ahí no hay un registro completo con su CRC bien. No mueve la posición.
+         */
+        int finDeRegistro(int desde) {
+            long largo = 0;
+            int p = desde;
+            for (int corrimiento = 0; ; corrimiento += 7) {
+                if (p >= datos.length || corrimiento > 28) return -1;
+                int b = datos[p++] & 0xFF;
+                largo |= (long) (b & 0x7F) << corrimiento;
+                if ((b & 0x80) == 0) break;
+            }
+            if (largo == 0 || largo > MAX_REGISTRO || p + largo + 4 > datos.length) return -1;
+
+            CRC32C crc = new CRC32C();
+            crc.update(datos, p, (int) largo);
+            int q = p + (int) largo;
+            long guardado = ((datos[q] & 0xFFL) << 24) | ((datos[q + 1] & 0xFFL) << 16)
+                    | ((datos[q + 2] & 0xFFL) << 8) | (datos[q + 3] & 0xFFL);
+            return (crc.getValue() == guardado) ? q + 4 : -1;
+        }
+
+        /** Primera posición desde 'desde' donde empieza un registro válido, o -1. */
+        int proximoRegistro(int desde) {
+            for (int p = desde; p < datos.length; p++) {
+                if (finDeRegistro(p) >= 0) return p;
+            }
+            return -1;
+        }
+
+        int byteSinSigno() {
+            if (pos >= datos.length) throw new IndexOutOfBoundsException("fin de archivo");
+            return datos[pos++] & 0xFF;
+        }
+
+        long varint() {
+            long v = 0;
+            for (int corrimiento = 0; corrimiento < 64; corrimiento += 7) {
+                int b = byteSinSigno();
+                v |= (long) (b & 0x7F) << corrimiento;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IndexOutOfBoundsException("varint inválido");
+        }
+
+        String texto() {
+            int largo = (int) varint();
+            if (largo < 0 || pos + largo > datos.length) throw new IndexOutOfBoundsException("texto cortado");
+            String s = new String(datos, pos, largo, StandardCharsets.UTF_8);
+            pos += largo;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package persistencia;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import negocio.abstractas.CodigoEstado;
+import negocio.modelo.Pedido;
+import negocio.modelo.Pizza;
+import negocio.patrones.state.Estados;
+
+/**
+ * Almacén de pedidos en una base de datos embebida (en el mismo proceso y en
+ * archivo, por ejemplo H2 o SQLite) vía JDBC.
+ *
+ * A diferencia de los formatos de archivo no hay snapshot ni bitácora: cada
+ * lote del escritor diferido es una transacción con sentencias preparadas
+ * en lote (batch):
+ * - ALTA: UPSERT de la fila del pedido (UPDATE y, si no existía, INSERT);
+ * - ESTADO: un UPDATE de una sola fila.
+ * La tabla tiene índices por estado y por fecha para las consultas de
+ * tablero y reportes (buscarPorEstado, buscarPorFecha).
+ *
+ * El driver no viene con la aplicación: si no está, ProveedoresIncluidos.Jdbc
+ * no está disponible y la fábrica usa el formato de texto.
+ */
+public class RepositorioPedidosJdbc implements RepositorioPedidos {
+
+    private static final String CREAR_TABLA =
+            "CREATE TABLE IF NOT EXISTS pedidos ("
+            + "id INTEGER PRIMARY KEY, "
+            + "masa VARCHAR(100), salsa VARCHAR(100), queso VARCHAR(100), tipo_orilla VARCHAR(100), "
+            + "ingredientes VARCHAR(2000), condimentos VARCHAR(2000), "
+            + "total DECIMAL(12,2), estado VARCHAR(20) NOT NULL, fecha_hora TIMESTAMP, finalizado_en BIGINT)";
+
+    // Tablas creadas antes de guardar el momento de finalización
+    private static final String AGREGAR_FINALIZADO = "ALTER TABLE pedidos ADD COLUMN finalizado_en BIGINT";
+
+    private static final String[] CREAR_INDICES = {
+            "CREATE INDEX IF NOT EXISTS idx_pedidos_estado ON pedidos (estado)",
+            "CREATE INDEX IF NOT EXISTS idx_pedidos_fecha ON pedidos (fecha_hora)"
+    };
+
+    private static final String COLUMNAS =
+            "id, masa, salsa, queso, tipo_orilla, ingredientes, condimentos, total, estado, fecha_hora, finalizado_en";
+
+    private static final String SELECCIONAR = "SELECT " + COLUMNAS + " FROM pedidos";
+    private static final String INSERTAR = "INSERT INTO pedidos (" + COLUMNAS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ACTUALIZAR = "UPDATE pedidos SET masa = ?, salsa = ?, queso = ?, tipo_orilla = ?, "
+            + "ingredientes = ?, condimentos = ?, total = ?, estado = ?, fecha_hora = ?, finalizado_en = ? WHERE id = ?";
+    private static final String CAMBIAR_ESTADO = "UPDATE pedidos SET estado = ?, finalizado_en = ? WHERE id = ?";
+
+    // Filas por executeBatch al reescribir todo
+    private static final int LOTE = 1000;
+
+    private final String url;
+    private final String usuario;
+    private final String clave;
+
+    private Connection conexion;
+
+    public RepositorioPedidosJdbc(String url, String usuario, String clave) {
+        this.url = url;
+        this.usuario = usuario;
+        this.clave = clave;
+    }
+
+    /** true si hay un driver registrado que acepte la URL. */
+    public static boolean hayDriver(String url) {
+        try {
+            DriverManager.getDriver(url);
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /** Cada lote se aplica directo sobre la base: nunca hace falta snapshot. */
+    @Override
+    public boolean esModoJournal() {
+        return true;
+    }
+
+    @Override
+    public boolean requiereSnapshot() {
+        return false;
+    }
+
+    @Override
+    public synchronized List<Pedido> cargarPedidos() {
+        try {
+            return consultar(SELECCIONAR + " ORDER BY id", null);
+        } catch (SQLException e) {
+            System.err.println("Error leyendo pedidos de la base: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Deja en la tabla exactamente estos pedidos (en una transacción).
+     * Solo se usa para importar o cuando salen pedidos de memoria.
+     */
+    @Override
+    public synchronized void guardarPedidos(List<Pedido> pedidos) {
+        try {
+            Connection c = conexion();
+            try {
+                try (Statement st = c.createStatement()) {
+                    st.executeUpdate("DELETE FROM pedidos");
+                }
+                insertar(c, pedidos);
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error guardando pedidos en la base: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void anexarEventos(List<EventoPedido> eventos) {
+        if (eventos == null || eventos.isEmpty()) return;
+
+        List<Pedido> altas = new ArrayList<>();
+        List<Pedido> cambios = new ArrayList<>();
+        for (EventoPedido e : eventos) {
+            if (e.getTipo() == EventoPedido.Tipo.ALTA) altas.add(e.getPedido());
+            else cambios.add(e.getPedido());
+        }
+
+        try {
+            Connection c = conexion();
+            try {
+                if (!altas.isEmpty()) upsert(c, altas);
+                if (!cambios.isEmpty()) {
+                    try (PreparedStatement ps = c.prepareStatement(CAMBIAR_ESTADO)) {
+                        for (Pedido p : cambios) {
+                            ps.setString(1, p.getCodigoEstado().name());
+                            ponerFinalizado(ps, 2, p);
+                            ps.setInt(3, p.getId());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error escribiendo pedidos en la base: " + e.getMessage());
+        }
+    }
+
+    // =========================================================
+    // Consultas indexadas
+    // =========================================================
+
+    /** Pedidos en ese estado, por id (usa idx_pedidos_estado). */
+    public synchronized List<Pedido> buscarPorEstado(CodigoEstado estado) {
+        try {
+            return consultar(SELECCIONAR + " WHERE estado = ? ORDER BY id", ps -> ps.setString(1, estado.name()));
+        } catch (SQLException e) {
+            System.err.println("Error consultando pedidos por estado: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /** Pedidos con fecha en [desde, hasta), por fecha (usa idx_pedidos_fecha). */
+    public synchronized List<Pedido> buscarPorFecha(LocalDateTime desde, LocalDateTime hasta) {
+        try {
+            return consultar(SELECCIONAR + " WHERE fecha_hora >= ? AND fecha_hora < ? ORDER BY fecha_hora, id", ps -> {
+                ps.setTimestamp(1, Timestamp.valueOf(desde));
+                ps.setTimestamp(2, Timestamp.valueOf(hasta));
+            });
+        } catch (SQLException e) {
+            System.err.println("Error consultando pedidos por fecha: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // =========================================================
+    // JDBC
+    // =========================================================
+
+    private interface Parametros {
+        void poner(PreparedStatement ps) throws SQLException;
+    }
+
+    private Connection conexion() throws SQLException {
+        if (conexion == null || conexion.isClosed()) {
+            conexion = DriverManager.getConnection(url, usuario, clave);
+            conexion.setAutoCommit(false);
+            try (Statement st = conexion.createStatement()) {
+                st.executeUpdate(CREAR_TABLA);
+                if (!tieneColumna(conexion, "finalizado_en")) st.executeUpdate(AGREGAR_FINALIZADO);
+                for (String indice : CREAR_INDICES) {
+                    st.executeUpdate(indice);
+                }
+            }
+            conexion.commit();
+        }
+        return conexion;
+    }
+
+    private static boolean tieneColumna(Connection c, String columna) throws SQLException {
+        // Cada base guarda los nombres en mayúsculas o minúsculas: se prueban los dos
+        for (String nombre : new String[] {columna.toUpperCase(), columna}) {
+            try (ResultSet rs = c.getMetaData().getColumns(null, null, "%", nombre)) {
+                while (rs.next()) {
+                    if ("pedidos".equalsIgnoreCase(rs.getString("TABLE_NAME"))) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<Pedido> consultar(String sql, Parametros parametros) throws SQLException {
+        List<Pedido> lista = new ArrayList<>();
+        Connection c = conexion();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            if (parametros != null) parametros.poner(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(leerFila(rs));
+                }
+            }
+        } finally {
+            c.commit();   // cierra la transacción de lectura
+        }
+        return lista;
+    }
+
+    /**
+     * UPSERT portable: UPDATE en lote y, para los que no actualizaron ninguna
+     * fila, INSERT en lote (no todas las bases tienen MERGE / ON CONFLICT).
+     */
+    private void upsert(Connection c, List<Pedido> pedidos) throws SQLException {
+        List<Pedido> nuevos = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(ACTUALIZAR)) {
+            for (Pedido p : pedidos) {
+                ponerDatos(ps, p, 1);
+                ps.setInt(11, p.getId());
+                ps.addBatch();
+            }
+            int[] filas = ps.executeBatch();
+            for (int i = 0; i < filas.length; i++) {
+                if (filas[i] == 0) nuevos.add(pedidos.get(i));
+            }
+        }
+        insertar(c, nuevos);
+    }
+
+    private void insertar(Connection c, List<Pedido> pedidos) throws SQLException {
+        if (pedidos.isEmpty()) return;
+        try (PreparedStatement ps = c.prepareStatement(INSERTAR)) {
+            int enLote = 0;
+            for (Pedido p : pedidos) {
+                ps.setInt(1, p.getId());
+                ponerDatos(ps, p, 2);
+                ps.addBatch();
+                if (++enLote == LOTE) {
+                    ps.executeBatch();
+                    enLote = 0;
+                }
+            }
+            if (enLote > 0) ps.executeBatch();
+        }
+    }
+
+    /** Columnas masa..finalizado_en a partir del parámetro 'desde'. */
+    private static void ponerDatos(PreparedStatement ps, Pedido p, int desde) throws SQLException {
+        Pizza pizza = p.getPizza();
+        ps.setString(desde, pizza.getMasa());
+        ps.setString(desde + 1, pizza.getSalsa());
+        ps.setString(desde + 2, pizza.getQueso());
+        ps.setString(desde + 3, pizza.getTipoOrilla());
+        ps.setString(desde + 4, String.join("|", pizza.getIngredientes()));
+        ps.setString(desde + 5, String.join("|", pizza.getCondimentos()));
+        ps.setBigDecimal(desde + 6, BigDecimal.valueOf(p.getTotalCentavos(), 2));
+        ps.setString(desde + 7, p.getCodigoEstado().name());
+        ps.setTimestamp(desde + 8, (p.getFechaHora() != null) ? new Timestamp(p.getFechaHora().getTime()) : null);
+        ponerFinalizado(ps, desde + 9, p);
+    }
+
+    private static void ponerFinalizado(PreparedStatement ps, int i, Pedido p) throws SQLException {
+        if (p.getFinalizadoEnMs() > 0) ps.setLong(i, p.getFinalizadoEnMs());
+        else ps.setNull(i, Types.BIGINT);
+    }
+
+    private static Pedido leerFila(ResultSet rs) throws SQLException {
+        Pizza pizza = new Pizza();
+        pizza.setMasa(rs.getString("masa"));
+        pizza.setSalsa(rs.getString("salsa"));
+        pizza.setQueso(rs.getString("queso"));
+        pizza.setTipoOrilla(rs.getString("tipo_orilla"));
+        agregarPartes(rs.getString("ingredientes"), pizza.getIngredientes());
+        agregarPartes(rs.getString("condimentos"), pizza.getCondimentos());
+
+        BigDecimal total = rs.getBigDecimal("total");
+        long centavos = (total != null) ? total.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0L;
+        Pedido p = new Pedido(pizza, centavos);
+        p.setId(rs.getInt("id"));
+        p.restaurarEstado(Estados.de(CodigoEstado.porNombre(rs.getString("estado"))));
+        p.restaurarFinalizadoEn(rs.getLong("finalizado_en"));   // NULL se lee como 0
+        return p;
+    }
+
+    private static void agregarPartes(String texto, List<String> destino) {
+        if (texto == null || texto.isEmpty()) return;
+        for (String parte : texto.split("\\|")) {
+            if (!parte.isBlank()) destino.add(parte.trim());
+        }
+    }
+}
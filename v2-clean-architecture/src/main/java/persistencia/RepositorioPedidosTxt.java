@@ -12,65 +12,496 @@ package persistencia;
 
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 // Importaciones de tu modelo y patrones
 import negocio.abstractas.EstadoPedido;
+import negocio.modelo.Dinero;
 import negocio.modelo.Pedido;
 import negocio.modelo.Pizza;
-import negocio.patrones.state.*;
+import negocio.modelo.TextosCanonicos;
+import negocio.patrones.state.Estados;
 
 /**
  * Clase encargada exclusivamente de la persistencia en archivo de texto.
  * Patrón: DAO (Data Access Object) / Repository simple.
+ *
+ * Dos modos (ver ConfiguracionPersistencia):
+ * - Original: cada cambio reescribe completo pedidos_store.txt.
+ * - Journal: cada cambio se ANEXA como un evento pequeño a la bitácora
+ *   (pedidos_store.journal) y cada cierto número de eventos se escribe un
+ *   snapshot (pedidos_store.snapshot) y se trunca la bitácora.
+ *   Al arrancar se lee el snapshot y se reproducen los eventos pendientes.
+ *
+ * Cada registro lleva su CRC32C (ver RegistroVerificado; los archivos
+ * empiezan con una línea de encabezado que lo indica) y los archivos
+ * completos se reemplazan de forma atómica (ver EscrituraSegura). Si al
+ * cargar aparecen registros dañados, se apartan en pedidos_store.cuarentena
+ * y se reescribe el almacén sin ellos.
  */
-public class RepositorioPedidosTxt {
+public class RepositorioPedidosTxt implements RepositorioPedidos {
 
     private static final String STORE_FILE = "pedidos_store.txt";
+    private static final String SNAPSHOT_FILE = "pedidos_store.snapshot";
+    private static final String JOURNAL_FILE = "pedidos_store.journal";
+    private static final String CUARENTENA_FILE = "pedidos_store.cuarentena";
+
+    // El mismo que usaban FileReader/FileWriter
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final String FIN_LINEA = System.lineSeparator();
+
+    // Prefijos de los registros de la bitácora
+    private static final String EVENTO_ALTA = "A";
+    private static final String EVENTO_ESTADO = "E";
+
+    // Por debajo de esto la lectura secuencial ya es rápida
+    private static final long MIN_BYTES_PARALELO = 1 << 20;
+    private static final int MIN_BYTES_TROZO = 256 * 1024;
+
+    private final boolean modoJournal;
+    private final int eventosPorSnapshot;
+    private final boolean cargaParalela;
+    private final boolean canonizarTextos;
+    private final EscrituraSegura escritura = new EscrituraSegura();
+
+    // Eventos anexados desde el último snapshot
+    private int eventosDesdeSnapshot = 0;
+
+    // La bitácora no terminaba en fin de línea (corte a mitad de un anexado)
+    private boolean bitacoraCortada = false;
+
+    public RepositorioPedidosTxt() {
+        this.modoJournal = ConfiguracionPersistencia.modoJournal();
+        this.eventosPorSnapshot = ConfiguracionPersistencia.eventosPorSnapshot();
+        this.cargaParalela = ConfiguracionPersistencia.cargaParalela();
+        this.canonizarTextos = ConfiguracionPersistencia.canonizarTextos();
+    }
+
+    @Override
+    public boolean esModoJournal() {
+        return modoJournal;
+    }
 
     /**
-     * Lee el archivo txt y convierte cada línea en un objeto Pedido.
+     * Lee los pedidos guardados.
+     * En modo journal: snapshot + eventos de la bitácora (y, la primera vez,
+     * importa el pedidos_store.txt del formato original).
      * @return Lista de pedidos recuperados.
      */
+    @Override
     public List<Pedido> cargarPedidos() {
+        // Registros que no pasaron la verificación, en el orden del archivo
+        List<String> danados = new ArrayList<>();
+
+        if (!modoJournal) {
+            List<Pedido> pedidos = leerArchivoPedidos(ConfiguracionPersistencia.archivo(STORE_FILE), danados);
+            if (!danados.isEmpty()) recuperar(danados, pedidos);
+            return pedidos;
+        }
+
+        File snapshot = ConfiguracionPersistencia.archivo(SNAPSHOT_FILE);
+        File journal = ConfiguracionPersistencia.archivo(JOURNAL_FILE);
+        File legado = ConfiguracionPersistencia.archivo(STORE_FILE);
+
+        if (!snapshot.exists() && !journal.exists() && legado.exists()) {
+            importarFormatoLegado(legado);
+        }
+
+        // El mapa conserva el orden de inserción (= orden de los IDs)
+        Map<Integer, Pedido> porId = new LinkedHashMap<>();
+        for (Pedido p : leerArchivoPedidos(snapshot, danados)) {
+            porId.put(p.getId(), p);
+        }
+        eventosDesdeSnapshot = reproducirJournal(journal, porId, danados);
+
+        List<Pedido> pedidos = new ArrayList<>(porId.values());
+        if (!danados.isEmpty() || bitacoraCortada) recuperar(danados, pedidos);
+        return pedidos;
+    }
+
+    /**
+     * Recuperación al arrancar: aparta los registros dañados y reescribe el
+     * almacén con lo que sí se pudo leer (así no se vuelven a reportar y lo
+     * que se anexe después no queda pegado a una línea cortada).
+     */
+    private void recuperar(List<String> danados, List<Pedido> pedidos) {
+        if (!danados.isEmpty()) {
+            apartarEnCuarentena(danados);
+        }
+        guardarPedidos(pedidos);
+        bitacoraCortada = false;
+    }
+
+    private void apartarEnCuarentena(List<String> danados) {
+        File cuarentena = ConfiguracionPersistencia.archivo(CUARENTENA_FILE);
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(cuarentena, true)))) {
+            w.println("# " + LocalDateTime.now() + " - " + danados.size() + " registros dañados");
+            for (String d : danados) {
+                w.println(d);
+            }
+        } catch (IOException e) {
+            System.err.println("Error escribiendo " + CUARENTENA_FILE + ": " + e.getMessage());
+        }
+        System.err.println("Recuperación: " + danados.size() + " registros dañados apartados en " + CUARENTENA_FILE);
+    }
+
+    /**
+     * Importador de una sola vez: toma un archivo con el formato original
+     * (id;masa;...;ESTADO) y lo deja como snapshot del modo journal.
+     * El archivo original no se modifica (queda como respaldo).
+     * @return Cantidad de pedidos importados.
+     */
+    public int importarFormatoLegado(File origen) {
+        List<String> danados = new ArrayList<>();
+        List<Pedido> pedidos = leerArchivoPedidos(origen, danados);
+        if (!danados.isEmpty()) apartarEnCuarentena(danados);
+        escribirArchivoPedidos(ConfiguracionPersistencia.archivo(SNAPSHOT_FILE), pedidos);
+        truncarJournal();
+        System.out.println("Importados " + pedidos.size() + " pedidos desde " + origen.getName());
+        return pedidos.size();
+    }
+
+    private List<Pedido> leerArchivoPedidos(File file, Collection<String> danados) {
         List<Pedido> lista = new ArrayList<>();
-        File file = new File(STORE_FILE);
 
         // Si el archivo no existe, retornamos lista vacía
         if (!file.exists()) {
             return lista;
         }
 
+        if (cargaParalela && file.length() >= MIN_BYTES_PARALELO
+                && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            try {
+                return leerEnParalelo(file, danados);
+            } catch (IOException e) {
+                System.err.println("Carga en paralelo falló, se lee en secuencia: " + e.getMessage());
+            }
+        }
+
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            RegistroVerificado.Lector lector = new RegistroVerificado.Lector(CHARSET, false);
             String linea;
             while ((linea = br.readLine()) != null) {
                 linea = linea.trim();
                 if (!linea.isEmpty()) {
-                    Pedido p = parsearPedido(linea);
+                    Pedido p = leerRegistro(lector, linea, file.getName(), danados);
                     if (p != null) {
                         lista.add(p);
                     }
                 }
             }
         } catch (IOException e) {
-            System.err.println("Error leyendo " + STORE_FILE + ": " + e.getMessage());
+            System.err.println("Error leyendo " + file.getName() + ": " + e.getMessage());
         }
         return lista;
     }
 
+    /**
+     * Verifica la suma y parsea. Si algo falla, la línea va a 'danados'
+     * (con el nombre del archivo adelante) en vez de perderse en silencio.
+     */
+    private Pedido leerRegistro(RegistroVerificado.Lector lector, String linea, String origen,
+                                Collection<String> danados) {
+        String registro = lector.verificar(linea);
+        if (registro != null && registro.isEmpty()) return null;   // encabezado
+        Pedido p = (registro != null) ? parsearPedido(registro) : null;
+        if (p == null) {
+            danados.add(origen + "\t" + linea);
+        }
+        return p;
+    }
+
+    /**
+     * Carga en paralelo: el archivo se parte en trozos que terminan en fin de
+     * línea, cada trozo se parsea en el pool fork-join y los resultados se
+     * concatenan en el orden de los trozos. El resultado es idéntico al de la
+     * lectura secuencial (mismo orden, mismos pedidos, mismos dañados).
+     */
+    private List<Pedido> leerEnParalelo(File file, Collection<String> danados) throws IOException {
+        byte[] datos = Files.readAllBytes(file.toPath());
+
+        // Varios trozos por hilo para repartir mejor la carga
+        int objetivo = Math.max(MIN_BYTES_TROZO, datos.length / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        List<int[]> trozos = new ArrayList<>();
+        int inicio = 0;
+        while (inicio < datos.length) {
+            int fin = Math.min(datos.length, inicio + objetivo);
+            while (fin < datos.length && datos[fin - 1] != '\n') fin++;
+            trozos.add(new int[]{inicio, fin});
+            inicio = fin;
+        }
+
+        // Los trozos no se leen en orden: si el archivo usa sumas se decide mirando la primera línea
+        int finPrimera = 0;
+        while (finPrimera < datos.length && datos[finPrimera] != '\n') finPrimera++;
+        boolean exigeSuma = RegistroVerificado.usaSuma(new String(datos, 0, finPrimera, CHARSET), CHARSET);
+
+        Trozos resultado = ForkJoinPool.commonPool().invoke(
+                new TareaCarga(datos, trozos, 0, trozos.size(), file.getName(), exigeSuma));
+        danados.addAll(resultado.danados);
+        return resultado.pedidos;
+    }
+
+    /** Pedidos y registros dañados de uno o varios trozos seguidos, en orden. */
+    private static final class Trozos {
+        final List<Pedido> pedidos = new ArrayList<>();
+        final List<String> danados = new ArrayList<>();
+
+        Trozos agregar(Trozos siguientes) {
+            pedidos.addAll(siguientes.pedidos);
+            danados.addAll(siguientes.danados);
+            return this;
+        }
+    }
+
+    /** Parsea los trozos [desde, hasta): si son varios, los divide en dos mitades. */
+    private final class TareaCarga extends RecursiveTask<Trozos> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] datos;
+        private final List<int[]> trozos;
+        private final int desde;
+        private final int hasta;
+        private final String origen;
+        private final boolean exigeSuma;
+
+        TareaCarga(byte[] datos, List<int[]> trozos, int desde, int hasta, String origen, boolean exigeSuma) {
+            this.datos = datos;
+            this.trozos = trozos;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.origen = origen;
+            this.exigeSuma = exigeSuma;
+        }
+
+        @Override
+        protected Trozos compute() {
+            if (hasta - desde == 1) {
+                int[] t = trozos.get(desde);
+                return parsearTrozo(new String(datos, t[0], t[1] - t[0], CHARSET), origen, exigeSuma);
+            }
+            int medio = (desde + hasta) >>> 1;
+            TareaCarga izquierda = new TareaCarga(datos, trozos, desde, medio, origen, exigeSuma);
+            TareaCarga derecha = new TareaCarga(datos, trozos, medio, hasta, origen, exigeSuma);
+            izquierda.fork();
+            Trozos resultado = derecha.compute();
+            // Orden de los trozos = orden del archivo
+            return izquierda.join().agregar(resultado);
+        }
+    }
+
+    /** Mismo tratamiento por línea que la lectura secuencial; cada trozo junta sus dañados. */
+    private Trozos parsearTrozo(String texto, String origen, boolean exigeSuma) {
+        Trozos trozo = new Trozos();
+        RegistroVerificado.Lector lector = new RegistroVerificado.Lector(CHARSET, exigeSuma);
+        try (BufferedReader br = new BufferedReader(new StringReader(texto))) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                linea = linea.trim();
+                if (!linea.isEmpty()) {
+                    Pedido p = leerRegistro(lector, linea, origen, trozo.danados);
+                    if (p != null) {
+                        trozo.pedidos.add(p);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // StringReader no lanza
+        }
+        return trozo;
+    }
+
     /**
      * Recibe la lista actual de memoria y sobrescribe el archivo completo.
+     * En modo journal esto es el snapshot: después se trunca la bitácora.
+     * (Si se cae justo entre ambos pasos no pasa nada: reproducir eventos
+     * ya incluidos en el snapshot deja el mismo resultado.)
      * @param pedidos Lista de todos los pedidos actuales.
      */
+    @Override
     public void guardarPedidos(List<Pedido> pedidos) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(STORE_FILE, false))) {
-            for (Pedido p : pedidos) {
-                bw.write(serializarPedido(p));
-                bw.newLine();
+        if (!modoJournal) {
+            escribirArchivoPedidos(ConfiguracionPersistencia.archivo(STORE_FILE), pedidos);
+            return;
+        }
+        if (escribirArchivoPedidos(ConfiguracionPersistencia.archivo(SNAPSHOT_FILE), pedidos)) {
+            truncarJournal();
+        }
+    }
+
+    /**
+     * Temporal + fsync + renombrar: si se corta a mitad, el archivo anterior
+     * queda intacto (antes se truncaba primero y se perdía todo).
+     */
+    private boolean escribirArchivoPedidos(File file, List<Pedido> pedidos) {
+        try {
+            escritura.reemplazar(file, out -> {
+                Writer w = new OutputStreamWriter(out, CHARSET);
+                w.write(RegistroVerificado.ENCABEZADO);
+                w.write(FIN_LINEA);
+                for (Pedido p : pedidos) {
+                    w.write(RegistroVerificado.sellar(serializarPedido(p), CHARSET));
+                    w.write(FIN_LINEA);
+                }
+                w.flush();
+            });
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error escribiendo " + file.getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // =========================================================
+    // Bitácora (journal) de eventos
+    // =========================================================
+
+    /**
+     * Anexa los eventos al final de la bitácora en una sola escritura.
+     * Formato:
+     *   A;id;masa;salsa;queso;tipoOrilla;ing1|ing2;con1|con2;total;ESTADO
+     *   E;id;ESTADO
+     * (cada línea con su suma ;#xxxxxxxx al final)
+     */
+    @Override
+    public void anexarEventos(List<EventoPedido> eventos) {
+        if (eventos == null || eventos.isEmpty()) return;
+
+        File journal = ConfiguracionPersistencia.archivo(JOURNAL_FILE);
+        boolean nuevo = journal.length() == 0;
+        try {
+            escritura.anexar(journal, out -> {
+                Writer w = new OutputStreamWriter(out, CHARSET);
+                if (nuevo) {
+                    w.write(RegistroVerificado.ENCABEZADO);
+                    w.write(FIN_LINEA);
+                }
+                for (EventoPedido evento : eventos) {
+                    w.write(RegistroVerificado.sellar(serializarEvento(evento), CHARSET));
+                    w.write(FIN_LINEA);
+                }
+                w.flush();
+            });
+            eventosDesdeSnapshot += eventos.size();
+        } catch (IOException e) {
+            System.err.println("Error escribiendo " + JOURNAL_FILE + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void sincronizar() {
+        escritura.forzarPendientes();
+    }
+
+    /**
+     * Indica si la bitácora ya creció lo suficiente como para compactarla
+     * con un nuevo snapshot (guardarPedidos).
+     */
+    @Override
+    public boolean requiereSnapshot() {
+        return modoJournal && eventosDesdeSnapshot >= eventosPorSnapshot;
+    }
+
+    private int reproducirJournal(File journal, Map<Integer, Pedido> porId, Collection<String> danados) {
+        if (!journal.exists()) return 0;
+
+        bitacoraCortada = !terminaEnFinDeLinea(journal);
+        int eventos = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(journal))) {
+            RegistroVerificado.Lector lector = new RegistroVerificado.Lector(CHARSET, false);
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                linea = linea.trim();
+                if (linea.isEmpty()) continue;
+                String registro = lector.verificar(linea);
+                if (registro != null && registro.isEmpty()) continue;   // encabezado
+                if (registro == null) {
+                    danados.add(JOURNAL_FILE + "\t" + linea);
+                } else if (aplicarEvento(registro, porId)) {
+                    eventos++;
+                } else {
+                    System.err.println("Evento de bitácora ignorado: " + linea);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo " + JOURNAL_FILE + ": " + e.getMessage());
+        }
+        return eventos;
+    }
+
+    private static boolean terminaEnFinDeLinea(File archivo) {
+        long largo = archivo.length();
+        if (largo == 0) return true;
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r")) {
+            raf.seek(largo - 1);
+            return raf.read() == '\n';
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private boolean aplicarEvento(String linea, Map<Integer, Pedido> porId) {
+        int sep = linea.indexOf(';');
+        if (sep < 0) return false;
+
+        String tipo = linea.substring(0, sep);
+        String resto = linea.substring(sep + 1);
+
+        if (EVENTO_ALTA.equals(tipo)) {
+            Pedido p = parsearPedido(resto);
+            if (p == null) return false;
+            porId.put(p.getId(), p);
+            return true;
+        }
+
+        if (EVENTO_ESTADO.equals(tipo)) {
+            String[] partes = resto.split(";");
+            if (partes.length < 2) return false;
+            try {
+                Pedido p = porId.get(Integer.parseInt(partes[0].trim()));
+                if (p == null) return false;
+                p.restaurarEstado(estadoPorNombre(partes[1]));
+                if (partes.length > 2) p.restaurarFinalizadoEn(Long.parseLong(partes[2].trim()));
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
             }
+        }
+        return false;
+    }
+
+    private String serializarEvento(EventoPedido evento) {
+        Pedido p = evento.getPedido();
+        if (evento.getTipo() == EventoPedido.Tipo.ALTA) {
+            return EVENTO_ALTA + ";" + serializarPedido(p);
+        }
+        String linea = EVENTO_ESTADO + ";" + p.getId() + ";" + nullToEmpty(p.getNombreEstado());
+        return (p.getFinalizadoEnMs() > 0) ? linea + ";" + p.getFinalizadoEnMs() : linea;
+    }
+
+    /** Deja la bitácora solo con el encabezado (temporal + fsync + renombrar, como el snapshot). */
+    private void truncarJournal() {
+        File journal = ConfiguracionPersistencia.archivo(JOURNAL_FILE);
+        try {
+            escritura.reemplazar(journal, out -> {
+                Writer w = new OutputStreamWriter(out, CHARSET);
+                w.write(RegistroVerificado.ENCABEZADO);
+                w.write(FIN_LINEA);
+                w.flush();
+            });
+            eventosDesdeSnapshot = 0;
         } catch (IOException e) {
-            System.err.println("Error escribiendo " + STORE_FILE + ": " + e.getMessage());
+            System.err.println("Error truncando " + JOURNAL_FILE + ": " + e.getMessage());
         }
     }
 
@@ -78,46 +509,53 @@ public class RepositorioPedidosTxt {
     // Métodos privados de Mapeo (String <-> Objeto)
     // =========================================================
 
-    private Pedido parsearPedido(String linea) {
+    Pedido parsearPedido(String linea) {
         // Formato esperado:
-        // id;masa;salsa;queso;tipoOrilla;ing1|ing2;con1|con2;total;ESTADO
-        String[] partes = linea.split(";");
-        if (partes.length < 9) return null;
+        // id;masa;salsa;queso;tipoOrilla;ing1|ing2;con1|con2;total;ESTADO[;finalizadoEnMs]
+        // (el último campo solo está en los pedidos finalizados de archivos nuevos)
+        // Se recorre la línea por posiciones (sin split ni trim): los textos
+        // salen de TextosCanonicos y un campo ya conocido no crea objetos.
+        int[] fin = new int[9];
+        int desde = 0;
+        for (int k = 0; k < 9; k++) {
+            int pos = linea.indexOf(';', desde);
+            fin[k] = (pos < 0) ? linea.length() : pos;
+            if (pos < 0 && k < 8) return null;
+            desde = fin[k] + 1;
+        }
+        if (campoVacio(linea, fin[7] + 1, fin[8])) return null;
 
         try {
-            int id = Integer.parseInt(partes[0].trim());
-            String masa = partes[1].trim();
-            String salsa = partes[2].trim();
-            String queso = partes[3].trim();
-            String tipoOrilla = partes[4].trim();
-            String ingredientesStr = partes[5].trim();
-            String condimentosStr = partes[6].trim();
-            double total = Double.parseDouble(partes[7].trim());
-            String estadoStr = partes[8].trim();
-
-            // Arrays auxiliares para ingredientes y condimentos
-            String[] ingArray = ingredientesStr.isEmpty() ? new String[0] : ingredientesStr.split("\\|");
-            String[] conArray = condimentosStr.isEmpty() ? new String[0] : condimentosStr.split("\\|");
+            int id = entero(linea, 0, fin[0]);
+            // "160.00" (o "160.0" en archivos viejos)
+            long total = Dinero.parsear(linea, fin[6] + 1, fin[7]);
 
             // 1. Reconstruir la Pizza
             Pizza pizza = new Pizza();
-            pizza.setMasa(masa);
-            pizza.setSalsa(salsa);
-            pizza.setQueso(queso);
-            pizza.setTipoOrilla(tipoOrilla);
+            pizza.setMasa(texto(linea, fin[0] + 1, fin[1]));
+            pizza.setSalsa(texto(linea, fin[1] + 1, fin[2]));
+            pizza.setQueso(texto(linea, fin[2] + 1, fin[3]));
+            pizza.setTipoOrilla(texto(linea, fin[3] + 1, fin[4]));
 
-            for (String ing : ingArray) {
-                if (!ing.isBlank()) pizza.getIngredientes().add(ing.trim());
+            for (int a = fin[4] + 1, b; a <= fin[5]; a = b + 1) {
+                b = finParte(linea, a, fin[5]);
+                String ing = texto(linea, a, b);
+                if (!ing.isBlank()) pizza.agregarIngrediente(ing);
             }
-            for (String con : conArray) {
-                if (!con.isBlank()) pizza.getCondimentos().add(con.trim());
+            for (int a = fin[5] + 1, b; a <= fin[6]; a = b + 1) {
+                b = finParte(linea, a, fin[6]);
+                String con = texto(linea, a, b);
+                if (!con.isBlank()) pizza.agregarCondimento(con);
             }
 
             // 2. Reconstruir el Pedido
             Pedido pedido = new Pedido(pizza, total);
             pedido.setId(id);
             // Convertimos el String del estado a la clase Estado correspondiente
-            pedido.setEstadoActual(estadoPorNombre(estadoStr));
+            pedido.restaurarEstado(estadoPorNombre(texto(linea, fin[7] + 1, fin[8])));
+            if (fin[8] < linea.length()) {
+                pedido.restaurarFinalizadoEn(msFinalizado(linea, fin[8] + 1));
+            }
 
             return pedido;
 
@@ -127,7 +565,45 @@ public class RepositorioPedidosTxt {
         }
     }
 
-    private String serializarPedido(Pedido pedido) {
+    /** linea[desde, hasta) recortado: el texto canónico, o una copia si la opción está apagada. */
+    private String texto(String linea, int desde, int hasta) {
+        if (canonizarTextos) return TextosCanonicos.COMPARTIDO.canonico(linea, desde, hasta);
+        return linea.substring(desde, hasta).trim();
+    }
+
+    // El id es distinto en cada línea: se lee sin pasar por TextosCanonicos
+    private static int entero(String linea, int desde, int hasta) {
+        while (desde < hasta && linea.charAt(desde) <= ' ') desde++;
+        while (hasta > desde && linea.charAt(hasta - 1) <= ' ') hasta--;
+        return Integer.parseInt(linea, desde, hasta, 10);
+    }
+
+    // Campo opcional tras el estado; si no es un número (otro campo sobrante) vale 0
+    private static long msFinalizado(String linea, int desde) {
+        int hasta = linea.indexOf(';', desde);
+        if (hasta < 0) hasta = linea.length();
+        try {
+            return Long.parseLong(linea.substring(desde, hasta).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Fin del ingrediente/condimento que empieza en desde (separados por '|')
+    private static int finParte(String linea, int desde, int hasta) {
+        int pos = linea.indexOf('|', desde);
+        return (pos < 0 || pos > hasta) ? hasta : pos;
+    }
+
+    // Como split, que descartaba un último campo vacío
+    private static boolean campoVacio(String linea, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (linea.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    String serializarPedido(Pedido pedido) {
         StringBuilder sb = new StringBuilder();
 
         // Datos básicos
@@ -146,23 +622,20 @@ public class RepositorioPedidosTxt {
         sb.append(String.join("|", con)).append(";");
 
         // Total y Estado
-        sb.append(pedido.getTotal()).append(";");
+        Dinero.escribir(sb, pedido.getTotalCentavos()).append(";");
         sb.append(nullToEmpty(pedido.getNombreEstado()));
 
+        // Momento de finalización: el archivado parte los segmentos por día con él
+        if (pedido.getFinalizadoEnMs() > 0) sb.append(";").append(pedido.getFinalizadoEnMs());
+
         return sb.toString();
     }
 
+    /**
+     * Los estados son compartidos: cargar miles de pedidos no crea ningún objeto estado.
+     */
     private EstadoPedido estadoPorNombre(String estado) {
-        if (estado == null) return new EstadoRecibido();
-        switch (estado.trim().toUpperCase()) {
-            case "RECIBIDO":   return new EstadoRecibido();
-            case "PREPARANDO": return new EstadoPreparando();
-            case "HORNEANDO":  return new EstadoHorneando();
-            case "TERMINADO":  return new EstadoTerminado();
-            case "ENTREGADO":  return new EstadoEntregado();
-            case "CANCELADO":  return new EstadoCancelado();
-            default: return new EstadoRecibido();
-        }
+        return Estados.porNombre(estado);
     }
 
     private String nullToEmpty(String s) {
@@ -0,0 +1,194 @@
+package persistencia;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+import negocio.modelo.Dinero;
+import negocio.patrones.strategy.TarifaPrecios;
+
+/**
+ * Lee la carta de precios (precios.txt, en la carpeta de datos) y la publica
+ * como TarifaPrecios vigente. Si el archivo no existe se siguen usando los
+ * precios originales.
+ *
+ * Formato (UTF-8, una regla por línea, montos en pesos, # = comentario):
+ *   version;7
+ *   base;100
+ *   masa;Rellena;20
+ *   salsa;Salsa BBQ;10
+ *   queso;Doble Queso;25
+ *   orilla;Orilla Rellena de Queso;20
+ *   ingrediente;*;15                 (precio de los que no están en la carta)
+ *   ingrediente;Tocino;18
+ *   condimento;*;0
+ *   combo;Hawaiana;10;Jamón+Piña     (descuento si lleva todos)
+ *   promocion;Happy hour;15;*;*;18:00-20:00;LUN,MAR,MIE,JUE,VIE
+ *   promocion;Aniversario;20;2026-11-01;2026-11-03
+ * En promocion: nombre;% de descuento;desde;hasta[;franja[;días]] con * = sin límite.
+ * Las fechas pueden llevar hora (2026-11-01T12:00); una fecha sola en "hasta"
+ * incluye todo ese día. Lo que el archivo no menciona vale 0 (incluido
+ * "ingrediente;*").
+ *
+ * recargarSiCambio vuelve a leer el archivo si cambió; si tiene un error se
+ * informa la línea y se conserva la tarifa anterior.
+ */
+public class RepositorioPrecios {
+
+    public static final String PRECIOS_FILE = "precios.txt";
+
+    private static final List<String> DIAS = Arrays.asList("LUN", "MAR", "MIE", "JUE", "VIE", "SAB", "DOM");
+
+    private final File archivo;
+    private long modificadoLeido = -1;
+    private long largoLeido = -1;
+
+    public RepositorioPrecios() {
+        this(ConfiguracionPersistencia.archivo(PRECIOS_FILE));
+    }
+
+    public RepositorioPrecios(File archivo) {
+        this.archivo = archivo;
+    }
+
+    /**
+     * Lee la carta si existe y la pone en uso.
+     * @return true si se publicó una tarifa nueva.
+     */
+    public synchronized boolean cargar() {
+        if (!archivo.exists()) return false;
+        long modificado = archivo.lastModified();
+        long largo = archivo.length();
+        modificadoLeido = modificado;
+        largoLeido = largo;
+        try {
+            TarifaPrecios.Compilador c = leer(Files.readAllLines(archivo.toPath(), StandardCharsets.UTF_8));
+            TarifaPrecios t = TarifaPrecios.publicar(c);
+            System.out.println("Carta de precios cargada (versión " + t.getVersion() + ")");
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("No se pudo cargar " + archivo.getName() + ", se mantienen los precios anteriores: "
+                    + ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Recarga la carta si el archivo cambió desde la última lectura.
+     * Lo llama una tarea periódica (pizzeria.precios.recargaMs).
+     */
+    public synchronized boolean recargarSiCambio() {
+        if (!archivo.exists()) return false;
+        if (archivo.lastModified() == modificadoLeido && archivo.length() == largoLeido) return false;
+        return cargar();
+    }
+
+    /**
+     * Convierte las líneas del archivo en reglas (sin publicarlas).
+     * @throws IllegalArgumentException con el número de línea si alguna está mal.
+     */
+    public static TarifaPrecios.Compilador leer(List<String> lineas) {
+        TarifaPrecios.Compilador c = new TarifaPrecios.Compilador();
+        ZoneId zona = ZoneId.systemDefault();
+        for (int i = 0; i < lineas.size(); i++) {
+            String linea = lineas.get(i).trim();
+            if (linea.isEmpty() || linea.startsWith("#")) continue;
+            try {
+                leerRegla(c, linea.split(";"), zona);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("línea " + (i + 1) + " (" + linea + "): " + ex.getMessage(), ex);
+            }
+        }
+        return c;
+    }
+
+    private static void leerRegla(TarifaPrecios.Compilador c, String[] p, ZoneId zona) {
+        String tipo = p[0].trim().toLowerCase();
+        switch (tipo) {
+            case "version":
+                c.version(Long.parseLong(campo(p, 1)));
+                break;
+            case "base":
+                c.base(Dinero.parsear(campo(p, 1)));
+                break;
+            case "masa":
+                c.masa(campo(p, 1), Dinero.parsear(campo(p, 2)));
+                break;
+            case "salsa":
+                c.salsa(campo(p, 1), Dinero.parsear(campo(p, 2)));
+                break;
+            case "queso":
+                c.queso(campo(p, 1), Dinero.parsear(campo(p, 2)));
+                break;
+            case "orilla":
+                c.orilla(campo(p, 1), Dinero.parsear(campo(p, 2)));
+                break;
+            case "ingrediente":
+                if ("*".equals(campo(p, 1))) c.ingredientePorDefecto(Dinero.parsear(campo(p, 2)));
+                else c.ingrediente(campo(p, 1), Dinero.parsear(campo(p, 2)));
+                break;
+            case "condimento":
+                if ("*".equals(campo(p, 1))) c.condimentoPorDefecto(Dinero.parsear(campo(p, 2)));
+                else c.condimento(campo(p, 1), Dinero.parsear(campo(p, 2)));
+                break;
+            case "combo":
+                c.combo(campo(p, 1), Dinero.parsear(campo(p, 2)), Arrays.asList(campo(p, 3).split("\\+")));
+                break;
+            case "promocion":
+                leerPromocion(c, p, zona);
+                break;
+            default:
+                throw new IllegalArgumentException("regla desconocida '" + p[0] + "'");
+        }
+    }
+
+    private static void leerPromocion(TarifaPrecios.Compilador c, String[] p, ZoneId zona) {
+        long desde = instante(campo(p, 3), zona, false);
+        long hasta = instante(campo(p, 4), zona, true);
+
+        int minutoDesde = -1;
+        int minutoHasta = -1;
+        if (p.length > 5 && !"*".equals(p[5].trim())) {
+            String[] franja = p[5].trim().split("-");
+            if (franja.length != 2) throw new IllegalArgumentException("franja horaria inválida: " + p[5]);
+            minutoDesde = LocalTime.parse(franja[0].trim()).toSecondOfDay() / 60;
+            minutoHasta = LocalTime.parse(franja[1].trim()).toSecondOfDay() / 60;
+        }
+
+        int dias = TarifaPrecios.TODOS_LOS_DIAS;
+        if (p.length > 6 && !"*".equals(p[6].trim())) {
+            dias = 0;
+            for (String d : p[6].split(",")) {
+                int pos = DIAS.indexOf(d.trim().toUpperCase());
+                if (pos < 0) throw new IllegalArgumentException("día desconocido: " + d);
+                dias |= TarifaPrecios.bitDia(DayOfWeek.of(pos + 1));
+            }
+        }
+
+        c.promocion(campo(p, 1), Integer.parseInt(campo(p, 2)), desde, hasta, minutoDesde, minutoHasta, dias);
+    }
+
+    /** "*", "2026-11-01" o "2026-11-01T12:00" a milisegundos; una fecha sola como fin = fin de ese día. */
+    private static long instante(String texto, ZoneId zona, boolean esFin) {
+        if ("*".equals(texto)) return esFin ? Long.MAX_VALUE : Long.MIN_VALUE;
+        LocalDateTime momento = texto.contains("T")
+                ? LocalDateTime.parse(texto)
+                : LocalDate.parse(texto).plusDays(esFin ? 1 : 0).atStartOfDay();
+        return momento.atZone(zona).toInstant().toEpochMilli();
+    }
+
+    private static String campo(String[] p, int i) {
+        if (i >= p.length || p[i].trim().isEmpty()) {
+            throw new IllegalArgumentException("falta el campo " + (i + 1));
+        }
+        return p[i].trim();
+    }
+}
@@ -5,9 +5,11 @@
 package persistencia;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Encargada de I/O auxiliar:
@@ -21,9 +23,46 @@ public class RepositorioTickets {
 
     // Lógica para leer el archivo de log (lo que tenías en cargarDatosPedido)
     public String leerDatosDelLog(String numeroPedido) {
-        File file = new File(PEDIDOS_LOG_FILE);
+        File file = ConfiguracionPersistencia.archivo(PEDIDOS_LOG_FILE);
         if (!file.exists()) return null;
 
+        if (numeroPedido != null) {
+            try {
+                switch (ConfiguracionPersistencia.lecturaLog()) {
+                    case INDICE: {
+                        // Una sola lectura posicionada usando el índice lateral (pedidos.txt.idx)
+                        byte[] bloque = IndiceLogPedidos.para(file).leerBloque(numeroPedido.trim());
+                        return (bloque != null) ? normalizarLineas(new String(bloque, Charset.defaultCharset())) : null;
+                    }
+                    case MAPEADO: {
+                        // Búsqueda sobre los bytes del archivo mapeado; solo se decodifica el bloque
+                        String bloque = new LectorLogMapeado(file).buscarBloque(numeroPedido);
+                        return (bloque != null) ? normalizarLineas(bloque) : null;
+                    }
+                    default:
+                        break;
+                }
+            } catch (IOException e) {
+                System.err.println("Error leyendo log con acceso rápido, se recorre completo: " + e.getMessage());
+            }
+        }
+        return recorrerLog(file, numeroPedido);
+    }
+
+    /**
+     * Bloques de pedidos.txt como flujo (para reportes), leídos desde el archivo
+     * mapeado en memoria. Vacío si no hay bitácora.
+     */
+    public Stream<LectorLogMapeado.BloqueLog> bloquesDelLog() throws IOException {
+        File file = ConfiguracionPersistencia.archivo(PEDIDOS_LOG_FILE);
+        if (!file.exists()) return Stream.empty();
+        return new LectorLogMapeado(file).bloques();
+    }
+
+    /**
+     * Búsqueda original: recorre la bitácora línea por línea desde el inicio.
+     */
+    private String recorrerLog(File file, String numeroPedido) {
         StringBuilder pedidoActual = new StringBuilder();
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
@@ -49,6 +88,20 @@ public class RepositorioTickets {
         return pedidoActual.length() > 0 ? pedidoActual.toString() : null;
     }
 
+    /** Mismo resultado que el recorrido: cada línea terminada en "\n" (sin "\r"). */
+    private static String normalizarLineas(String bloque) {
+        StringBuilder sb = new StringBuilder(bloque.length());
+        try (BufferedReader reader = new BufferedReader(new StringReader(bloque))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line).append("\n");
+            }
+        } catch (IOException e) {
+            // StringReader no lanza
+        }
+        return sb.toString();
+    }
+
     // Lógica para escribir el ticket en disco
     public String guardarTicketEnDisco(String numeroPedido, String estado, List<String> especificaciones, String total) throws IOException {
         File directorio = new File(TICKETS_DIR);